@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.cluster;
+
+/**
+ * 路由结果只取决于提供者列表、消费者URL、调用的方法名以及{@link #getAttachmentKeys()}声明的调用附加参数的路由。
+ * <p>
+ * 运行时路由实现该接口后，{@link com.alibaba.dubbo.rpc.cluster.directory.AbstractDirectory}会按方法名和这些附加参数缓存路由结果，
+ * 直到提供者、路由规则或消费者URL发生变化，而不是每次调用都执行一遍路由。
+ *
+ * @see Directory#list(com.alibaba.dubbo.rpc.Invocation)
+ */
+public interface CacheableRouter extends Router {
+
+    /**
+     * 路由结果依赖的调用附加参数
+     *
+     * @return 附加参数的key，不依赖时返回空数组
+     */
+    String[] getAttachmentKeys();
+
+}
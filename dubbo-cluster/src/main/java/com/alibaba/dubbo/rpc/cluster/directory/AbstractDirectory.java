@@ -24,6 +24,7 @@ import com.alibaba.dubbo.common.logger.LoggerFactory;
 import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.Invoker;
 import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.cluster.CacheableRouter;
 import com.alibaba.dubbo.rpc.cluster.Cluster;
 import com.alibaba.dubbo.rpc.cluster.Directory;
 import com.alibaba.dubbo.rpc.cluster.Router;
@@ -32,7 +33,12 @@ import com.alibaba.dubbo.rpc.cluster.router.MockInvokersSelector;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Abstract implementation of Directory: Invoker list returned from this Directory's list method have been filtered by Routers
@@ -42,6 +48,9 @@ public abstract class AbstractDirectory<T> implements Directory<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractDirectory.class);
 
+    /** 每个目录最多缓存的路由结果数，超过后不再加入新的结果 */
+    private static final int MAX_ROUTE_CACHE_SIZE = 1024;
+
 
 
     /** 用来表示提供服务目标机器，可以是多个 */
@@ -52,6 +61,8 @@ public abstract class AbstractDirectory<T> implements Directory<T> {
     private volatile URL consumerUrl;
     /** 获取所有的服务提供后，会通过Router进行过滤后，再使用Directory封装多个服务提供者，最后通过负载均衡确定一个要用于本次调用的目标服务*/
     private volatile List<Router> routers;
+    /** list时需要执行的运行时路由及其结果缓存，路由、消费者URL或提供者变化时整体替换 */
+    private volatile RouteCache routeCache;
 
 
 
@@ -92,18 +103,38 @@ public abstract class AbstractDirectory<T> implements Directory<T> {
         // 先获取所有的服务提供者，该实现由子类扩展
         List<Invoker<T>> invokers = doList(invocation);
 
-        // 遍历所有的路由规则，对Invoker进行过滤
-        List<Router> localRouters = this.routers;
-        if (localRouters != null && localRouters.size() > 0) {
-            for (Router router : localRouters) {
-                try {
-                    if (router.getUrl() == null || router.getUrl().getParameter(Constants.RUNTIME_KEY, false)) {
-                        invokers = router.route(invokers, getConsumerUrl(), invocation);
+        // 遍历所有的路由规则，对Invoker进行过滤；排在前面的可缓存路由，结果按方法名和附加参数缓存
+        RouteCache cache = this.routeCache;
+        int from = 0;
+        if (cache.cacheable > 0) {
+            String key = cache.getKey(invocation);
+            CachedRoute cached = key == null ? null : cache.results.get(key);
+            if (cached != null && cached.source == invokers) {
+                invokers = cached.routed;
+            } else {
+                List<Invoker<T>> source = invokers;
+                boolean failed = false;
+                for (int i = 0; i < cache.cacheable; i++) {
+                    try {
+                        invokers = cache.routers[i].route(invokers, cache.consumerUrl, invocation);
+                    } catch (Throwable t) {
+                        failed = true;
+                        logger.error("Failed to execute router: " + getUrl() + ", cause: " + t.getMessage(), t);
                     }
-                } catch (Throwable t) {
-                    logger.error("Failed to execute router: " + getUrl() + ", cause: " + t.getMessage(), t);
+                }
+                // 路由出错时不缓存，下次调用重新执行
+                if (!failed && key != null && (cached != null || cache.results.size() < MAX_ROUTE_CACHE_SIZE)) {
+                    cache.results.put(key, new CachedRoute(source, invokers));
                 }
             }
+            from = cache.cacheable;
+        }
+        for (int i = from; i < cache.routers.length; i++) {
+            try {
+                invokers = cache.routers[i].route(invokers, cache.consumerUrl, invocation);
+            } catch (Throwable t) {
+                logger.error("Failed to execute router: " + getUrl() + ", cause: " + t.getMessage(), t);
+            }
         }
         return invokers;
     }
@@ -140,12 +171,88 @@ public abstract class AbstractDirectory<T> implements Directory<T> {
         routers.add(new MockInvokersSelector());
         Collections.sort(routers);
         this.routers = routers;
+        this.routeCache = new RouteCache(routers, consumerUrl);
     }
     public URL getConsumerUrl() {
         return consumerUrl;
     }
     public void setConsumerUrl(URL consumerUrl) {
         this.consumerUrl = consumerUrl;
+        this.routeCache = new RouteCache(routers, consumerUrl);
+    }
+
+    /**
+     * 丢弃缓存的路由结果，提供者变化后由子类调用
+     */
+    protected void clearRouteCache() {
+        this.routeCache = new RouteCache(routers, consumerUrl);
+    }
+
+    private final class RouteCache {
+
+        final URL consumerUrl;
+
+        /** list时执行的路由，即运行时路由 */
+        final Router[] routers;
+
+        /** 排在最前面的连续的可缓存路由个数 */
+        final int cacheable;
+
+        final String[] attachmentKeys;
+
+        final ConcurrentMap<String, CachedRoute> results = new ConcurrentHashMap<String, CachedRoute>();
+
+        RouteCache(List<Router> routers, URL consumerUrl) {
+            this.consumerUrl = consumerUrl;
+            List<Router> runtimeRouters = new ArrayList<Router>();
+            for (Router router : routers) {
+                if (router.getUrl() == null || router.getUrl().getParameter(Constants.RUNTIME_KEY, false)) {
+                    runtimeRouters.add(router);
+                }
+            }
+            this.routers = runtimeRouters.toArray(new Router[runtimeRouters.size()]);
+            Set<String> keys = new LinkedHashSet<String>();
+            int count = 0;
+            while (count < this.routers.length && this.routers[count] instanceof CacheableRouter) {
+                String[] routerKeys = ((CacheableRouter) this.routers[count]).getAttachmentKeys();
+                if (routerKeys != null) {
+                    Collections.addAll(keys, routerKeys);
+                }
+                count++;
+            }
+            this.cacheable = count;
+            this.attachmentKeys = keys.toArray(new String[keys.size()]);
+        }
+
+        String getKey(Invocation invocation) {
+            String methodName = invocation.getMethodName();
+            if (methodName == null || attachmentKeys.length == 0) {
+                return methodName;
+            }
+            Map<String, String> attachments = invocation.getAttachments();
+            StringBuilder key = new StringBuilder(methodName);
+            for (String attachmentKey : attachmentKeys) {
+                String value = attachments == null ? null : attachments.get(attachmentKey);
+                // 区分null和空串
+                key.append('\n').append(value == null ? "\0" : value);
+            }
+            return key.toString();
+        }
+
+    }
+
+    private final class CachedRoute {
+
+        /** 路由前的提供者列表，提供者变化时子类会返回新的列表 */
+        final List<Invoker<T>> source;
+
+        final List<Invoker<T>> routed;
+
+        CachedRoute(List<Invoker<T>> source, List<Invoker<T>> routed) {
+            this.source = source;
+            this.routed = routed;
+        }
+
     }
 
 }
\ No newline at end of file
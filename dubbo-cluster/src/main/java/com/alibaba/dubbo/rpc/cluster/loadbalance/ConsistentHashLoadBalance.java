@@ -20,24 +20,31 @@ import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.RpcStatus;
 
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ConsistentHash LoadBalance：
  优点：一致性Hash，相同参数的请求总是发到同一提供者，当某一台提供者挂时，原本发往该提供者的请求，基于虚拟节点，平摊到其它提供者，不会引起剧烈变动
- 缺点：压力分摊不均
+ 缺点：压力分摊不均，可以配置hash.load.factor开启有界负载：提供者的活跃数超过平均活跃数的该倍数时，顺着环交给下一个提供者
+ （活跃数来自ActiveLimitFilter，需要配置actives才会生效）
  *
  */
 public class ConsistentHashLoadBalance extends AbstractLoadBalance {
 
+    public static final String NAME = "consistenthash";
+
     private final ConcurrentMap<String, ConsistentHashSelector<?>> selectors = new ConcurrentHashMap<String, ConsistentHashSelector<?>>();
 
     @SuppressWarnings("unchecked")
@@ -47,42 +54,120 @@ public class ConsistentHashLoadBalance extends AbstractLoadBalance {
         int identityHashCode = System.identityHashCode(invokers);
         ConsistentHashSelector<T> selector = (ConsistentHashSelector<T>) selectors.get(key);
         if (selector == null || selector.identityHashCode != identityHashCode) {
-            selectors.put(key, new ConsistentHashSelector<T>(invokers, invocation.getMethodName(), identityHashCode));
-            selector = (ConsistentHashSelector<T>) selectors.get(key);
+            // 路由每次都会产生新的列表，只有提供者真正变化时才重建环，且只为新增的地址计算虚拟节点
+            if (selector != null && selector.hasSameInvokers(invokers)) {
+                selector.identityHashCode = identityHashCode;
+            } else {
+                selector = new ConsistentHashSelector<T>(invokers, invocation.getMethodName(), identityHashCode, selector);
+                selectors.put(key, selector);
+            }
         }
         return selector.select(invocation);
     }
 
     private static final class ConsistentHashSelector<T> {
 
-        private final TreeMap<Long, Invoker<T>> virtualInvokers;
+        private final Invoker<T>[] invokers;
+
+        private final Map<Invoker<T>, Integer> positions;
+
+        /** 虚拟节点的hash，升序排列 */
+        private final long[] ring;
+
+        /** 虚拟节点所属提供者在invokers中的下标 */
+        private final int[] owners;
+
+        /** 每个地址的虚拟节点hash，重建时复用 */
+        private final Map<String, long[]> nodeHashes;
+
+        private final String methodName;
 
         private final int replicaNumber;
 
-        private final int identityHashCode;
+        private final double loadFactor;
 
         private final int[] argumentIndex;
 
-        ConsistentHashSelector(List<Invoker<T>> invokers, String methodName, int identityHashCode) {
-            this.virtualInvokers = new TreeMap<Long, Invoker<T>>();
+        private volatile int identityHashCode;
+
+        /** 有界负载使用的总活跃数，定期重新统计 */
+        private volatile long totalActive;
+
+        private final AtomicInteger selections = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        ConsistentHashSelector(List<Invoker<T>> invokers, String methodName, int identityHashCode, ConsistentHashSelector<?> previous) {
+            this.invokers = invokers.toArray(new Invoker[invokers.size()]);
             this.identityHashCode = identityHashCode;
+            this.methodName = methodName;
             URL url = invokers.get(0).getUrl();
             this.replicaNumber = url.getMethodParameter(methodName, "hash.nodes", 160);
+            double factor = url.getMethodParameter(methodName, "hash.load.factor", 0d);
+            this.loadFactor = factor > 0 ? Math.max(1, factor) : 0;
             String[] index = Constants.COMMA_SPLIT_PATTERN.split(url.getMethodParameter(methodName, "hash.arguments", "0"));
             argumentIndex = new int[index.length];
             for (int i = 0; i < index.length; i++) {
                 argumentIndex[i] = Integer.parseInt(index[i]);
             }
-            for (Invoker<T> invoker : invokers) {
-                String address = invoker.getUrl().getAddress();
-                for (int i = 0; i < replicaNumber / 4; i++) {
-                    byte[] digest = md5(address + i);
-                    for (int h = 0; h < 4; h++) {
-                        long m = hash(digest, h);
-                        virtualInvokers.put(m, invoker);
+            positions = new IdentityHashMap<Invoker<T>, Integer>();
+            nodeHashes = new HashMap<String, long[]>();
+            Map<String, long[]> reusable = previous != null && previous.replicaNumber == replicaNumber
+                    ? previous.nodeHashes : null;
+            int nodes = replicaNumber / 4 * 4;
+            // 高位是hash，低位是虚拟节点的生成顺序，排序后相同hash的节点按生成顺序排列
+            long[] entries = new long[this.invokers.length * nodes];
+            for (int i = 0; i < this.invokers.length; i++) {
+                positions.put(this.invokers[i], i);
+                String address = this.invokers[i].getUrl().getAddress();
+                long[] hashes = reusable == null ? null : reusable.get(address);
+                if (hashes == null) {
+                    hashes = nodeHashes.get(address);
+                }
+                if (hashes == null) {
+                    hashes = new long[nodes];
+                    for (int j = 0; j < replicaNumber / 4; j++) {
+                        byte[] digest = md5(address + j);
+                        for (int h = 0; h < 4; h++) {
+                            hashes[j * 4 + h] = hash(digest, h);
+                        }
                     }
                 }
+                nodeHashes.put(address, hashes);
+                for (int j = 0; j < nodes; j++) {
+                    int sequence = i * nodes + j;
+                    entries[sequence] = (hashes[j] << 31) | sequence;
+                }
+            }
+            Arrays.sort(entries);
+            long[] ring = new long[entries.length];
+            int[] owners = new int[entries.length];
+            int size = 0;
+            for (long entry : entries) {
+                long hash = entry >>> 31;
+                int owner = (int) (entry & Integer.MAX_VALUE) / Math.max(1, nodes);
+                // hash冲突时后生成的节点覆盖先生成的
+                if (size > 0 && ring[size - 1] == hash) {
+                    owners[size - 1] = owner;
+                } else {
+                    ring[size] = hash;
+                    owners[size] = owner;
+                    size++;
+                }
+            }
+            this.ring = Arrays.copyOf(ring, size);
+            this.owners = Arrays.copyOf(owners, size);
+        }
+
+        boolean hasSameInvokers(List<Invoker<T>> invokers) {
+            if (invokers.size() != this.invokers.length) {
+                return false;
+            }
+            for (Invoker<T> invoker : invokers) {
+                if (!positions.containsKey(invoker)) {
+                    return false;
+                }
             }
+            return true;
         }
 
         public Invoker<T> select(Invocation invocation) {
@@ -102,21 +187,64 @@ public class ConsistentHashLoadBalance extends AbstractLoadBalance {
         }
 
         private Invoker<T> selectForKey(long hash) {
-            Invoker<T> invoker;
-            Long key = hash;
-            if (!virtualInvokers.containsKey(key)) {
-                SortedMap<Long, Invoker<T>> tailMap = virtualInvokers.tailMap(key);
-                if (tailMap.isEmpty()) {
-                    key = virtualInvokers.firstKey();
-                } else {
-                    key = tailMap.firstKey();
+            int index = Arrays.binarySearch(ring, hash);
+            if (index < 0) {
+                index = -index - 1;
+                if (index == ring.length) {
+                    index = 0;
+                }
+            }
+            if (loadFactor <= 0 || invokers.length == 1) {
+                return invokers[owners[index]];
+            }
+            return selectWithBoundedLoad(index);
+        }
+
+        /**
+         * Consistent Hashing with Bounded Loads：每个提供者的活跃数上限为 factor * (总活跃数 + 1) / 提供者数，
+         * 从命中的节点开始顺着环找第一个未超过上限的提供者。
+         * 总活跃数每invokers.length次选择才重新统计一次，均摊到每次选择为O(1)；命中的提供者未超过上限时只读取它自己的活跃数
+         */
+        private Invoker<T> selectWithBoundedLoad(int index) {
+            int length = invokers.length;
+            if (selections.getAndIncrement() % length == 0) {
+                long total = 0;
+                for (Invoker<T> invoker : invokers) {
+                    total += getActive(invoker);
+                }
+                totalActive = total;
+            }
+            long bound = (long) Math.ceil(loadFactor * (totalActive + 1) / length);
+            int owner = owners[index];
+            if (getActive(invokers[owner]) < bound) {
+                return invokers[owner];
+            }
+            // 已经超过上限的提供者不再重复读取活跃数
+            boolean[] overloaded = new boolean[length];
+            overloaded[owner] = true;
+            // factor不小于1时总有提供者低于上限，最多绕环一圈
+            for (int step = 1, i = next(index); step < ring.length; step++, i = next(i)) {
+                owner = owners[i];
+                if (overloaded[owner]) {
+                    continue;
+                }
+                if (getActive(invokers[owner]) < bound) {
+                    return invokers[owner];
                 }
+                overloaded[owner] = true;
             }
-            invoker = virtualInvokers.get(key);
-            return invoker;
+            return invokers[owners[index]];
+        }
+
+        private int next(int index) {
+            return index + 1 == ring.length ? 0 : index + 1;
+        }
+
+        private int getActive(Invoker<T> invoker) {
+            return RpcStatus.getStatus(invoker.getUrl(), methodName).getActive();
         }
 
-        private long hash(byte[] digest, int number) {
+        private static long hash(byte[] digest, int number) {
             return (((long) (digest[3 + number * 4] & 0xFF) << 24)
                     | ((long) (digest[2 + number * 4] & 0xFF) << 16)
                     | ((long) (digest[1 + number * 4] & 0xFF) << 8)
@@ -124,7 +252,7 @@ public class ConsistentHashLoadBalance extends AbstractLoadBalance {
                     & 0xFFFFFFFFL;
         }
 
-        private byte[] md5(String value) {
+        private static byte[] md5(String value) {
             MessageDigest md5;
             try {
                 md5 = MessageDigest.getInstance("MD5");
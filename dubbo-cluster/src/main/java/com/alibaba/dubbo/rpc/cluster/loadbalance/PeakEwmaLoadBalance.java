@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.cluster.loadbalance;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.RpcStatus;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * PeakEwma LoadBalance：
+ 优点：按响应时间的指数加权移动平均（出现更慢的响应时立即取峰值）乘以活跃数估算每个提供者的负载，
+ 随机取两个提供者选负载较低的一个（power of two choices），选择是O(1)的，GC停顿等变慢的提供者会迅速少收请求
+ 缺点：同leastactive，统计数据来自ActiveLimitFilter，需要配置actives才会生效；没有统计数据时退化为随机
+ *
+ */
+public class PeakEwmaLoadBalance extends AbstractLoadBalance {
+
+    public static final String NAME = "peakewma";
+
+    private final Random random = new Random();
+
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+        int length = invokers.size(); // Number of invokers
+        // Pick two different invokers at random
+        int first = random.nextInt(length);
+        int second = random.nextInt(length - 1);
+        if (second >= first) {
+            second++;
+        }
+        Invoker<T> a = invokers.get(first);
+        Invoker<T> b = invokers.get(second);
+        return getLoad(a, invocation) <= getLoad(b, invocation) ? a : b;
+    }
+
+    private double getLoad(Invoker<?> invoker, Invocation invocation) {
+        int weight = getWeight(invoker, invocation);
+        if (weight <= 0) {
+            return Double.MAX_VALUE;
+        }
+        RpcStatus status = RpcStatus.getStatus(invoker.getUrl(), invocation.getMethodName());
+        // Add one to both factors, so that invokers without samples or without active calls are still comparable
+        return (status.getEwmaElapsed() + 1) * (status.getActive() + 1) / weight;
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.cluster.loadbalance;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Smooth weighted round robin LoadBalance（即nginx的平滑加权轮询）：
+ * 每次选择时，每个invoker的current加上自身权重，选出current最大的invoker，再将其current减去总权重。
+ * 例如权重为{5, 1, 1}时，选择序列为a a b a c a a，而不是a a a a a b c。
+ * <p>
+ * 每次选择只遍历一遍invokers，复杂度O(n)；每个方法的轮询状态会被缓存，选择过程中不需要创建新的对象，
+ * 从注册中心下线的invoker，其状态在{@link #RECYCLE_PERIOD}后被回收。
+ */
+public class SmoothRoundRobinLoadBalance extends AbstractLoadBalance {
+
+    public static final String NAME = "smoothroundrobin";
+
+    /** invoker超过该时间没有参与选择，则认为已经下线，回收其轮询状态 */
+    private static final int RECYCLE_PERIOD = 60000;
+
+    /** 两级缓存：serviceKey -> 方法名 -> 轮询状态，选择时不需要拼接key */
+    private final ConcurrentMap<String, ConcurrentMap<String, MethodWeights>> serviceWeightMap = new ConcurrentHashMap<String, ConcurrentMap<String, MethodWeights>>();
+
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+        String serviceKey = invokers.get(0).getUrl().getServiceKey();
+        if (serviceKey == null) {
+            serviceKey = "";
+        }
+        ConcurrentMap<String, MethodWeights> methodWeightMap = serviceWeightMap.get(serviceKey);
+        if (methodWeightMap == null) {
+            serviceWeightMap.putIfAbsent(serviceKey, new ConcurrentHashMap<String, MethodWeights>());
+            methodWeightMap = serviceWeightMap.get(serviceKey);
+        }
+        String methodName = invocation.getMethodName();
+        MethodWeights methodWeights = methodWeightMap.get(methodName);
+        if (methodWeights == null) {
+            methodWeightMap.putIfAbsent(methodName, new MethodWeights());
+            methodWeights = methodWeightMap.get(methodName);
+        }
+        ConcurrentMap<Invoker<?>, WeightedRoundRobin> weights = methodWeights.weights;
+
+        long totalWeight = 0;
+        long maxCurrent = Long.MIN_VALUE;
+        long now = System.currentTimeMillis();
+        Invoker<T> selectedInvoker = null;
+        WeightedRoundRobin selected = null;
+        for (int i = 0, size = invokers.size(); i < size; i++) {
+            Invoker<T> invoker = invokers.get(i);
+            int weight = getWeight(invoker, invocation);
+            if (weight < 0) {
+                weight = 0;
+            }
+            WeightedRoundRobin weightedRoundRobin = weights.get(invoker);
+            if (weightedRoundRobin == null) {
+                weights.putIfAbsent(invoker, new WeightedRoundRobin(weight));
+                weightedRoundRobin = weights.get(invoker);
+            }
+            if (weight != weightedRoundRobin.getWeight()) {
+                // 权重变化（例如预热或动态配置），current归零重新开始
+                weightedRoundRobin.setWeight(weight);
+            }
+            long current = weightedRoundRobin.increaseCurrent();
+            weightedRoundRobin.setLastUpdate(now);
+            if (current > maxCurrent) {
+                maxCurrent = current;
+                selectedInvoker = invoker;
+                selected = weightedRoundRobin;
+            }
+            totalWeight += weight;
+        }
+
+        // invoker列表发生了变化，回收已经下线的invoker的状态
+        if (weights.size() != invokers.size() && methodWeights.updateLock.compareAndSet(false, true)) {
+            try {
+                for (Iterator<Map.Entry<Invoker<?>, WeightedRoundRobin>> it = weights.entrySet().iterator(); it.hasNext(); ) {
+                    if (now - it.next().getValue().getLastUpdate() > RECYCLE_PERIOD) {
+                        it.remove();
+                    }
+                }
+            } finally {
+                methodWeights.updateLock.set(false);
+            }
+        }
+
+        if (selectedInvoker != null) {
+            selected.sel(totalWeight);
+            return selectedInvoker;
+        }
+        // should not happen here
+        return invokers.get(0);
+    }
+
+    private static final class MethodWeights {
+
+        final ConcurrentMap<Invoker<?>, WeightedRoundRobin> weights = new ConcurrentHashMap<Invoker<?>, WeightedRoundRobin>();
+
+        final AtomicBoolean updateLock = new AtomicBoolean();
+
+    }
+
+    private static final class WeightedRoundRobin {
+
+        private volatile int weight;
+
+        private final AtomicLong current = new AtomicLong(0);
+
+        private volatile long lastUpdate;
+
+        WeightedRoundRobin(int weight) {
+            this.weight = weight;
+        }
+
+        int getWeight() {
+            return weight;
+        }
+
+        void setWeight(int weight) {
+            this.weight = weight;
+            current.set(0);
+        }
+
+        long increaseCurrent() {
+            return current.addAndGet(weight);
+        }
+
+        void sel(long total) {
+            current.addAndGet(-total);
+        }
+
+        long getLastUpdate() {
+            return lastUpdate;
+        }
+
+        void setLastUpdate(long lastUpdate) {
+            this.lastUpdate = lastUpdate;
+        }
+    }
+
+}
@@ -21,6 +21,7 @@ import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.Invoker;
 import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.cluster.CacheableRouter;
 import com.alibaba.dubbo.rpc.cluster.Router;
 
 import java.util.ArrayList;
@@ -31,7 +32,9 @@ import java.util.List;
  * If a request is configured to use mock, then this router guarantees that only the invokers with protocol MOCK appear in final the invoker list, all other invokers will be excluded.
  *
  */
-public class MockInvokersSelector implements Router {
+public class MockInvokersSelector implements CacheableRouter {
+
+    private static final String[] ATTACHMENT_KEYS = new String[]{Constants.INVOCATION_NEED_MOCK};
 
     /**
      * mock方式的路由，是没有路由规则的
@@ -92,6 +95,13 @@ public class MockInvokersSelector implements Router {
         return hasMockProvider;
     }
 
+    /**
+     * 路由结果只取决于是否需要mock
+     */
+    public String[] getAttachmentKeys() {
+        return ATTACHMENT_KEYS;
+    }
+
     public int compareTo(Router o) {
         return 1;
     }
@@ -26,6 +26,7 @@ import com.alibaba.dubbo.common.utils.UrlUtils;
 import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.Invoker;
 import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.cluster.CacheableRouter;
 import com.alibaba.dubbo.rpc.cluster.Router;
 
 import java.text.ParseException;
@@ -49,16 +50,18 @@ import java.util.regex.Pattern;
  * 条件路由规则是一条字符串，对于 Dubbo 来说，它并不能直接理解字符串的意思，需要将其解析成内部格式才行。
  *
  */
-public class ConditionRouter implements Router, Comparable<Router> {
+public class ConditionRouter implements CacheableRouter, Comparable<Router> {
 
     private static final Logger logger = LoggerFactory.getLogger(ConditionRouter.class);
     private static Pattern ROUTE_PATTERN = Pattern.compile("([&!=,]*)\\s*([^&!=,\\s]+)");
+    private static final String[] ATTACHMENT_KEYS = new String[0];
     /** 路由规则的配置信息，例如：host = 192.168.85.1 =>  host = 10.20.3.3 */
     private final URL url;
     private final int priority;
     private final boolean force;
-    private final Map<String, MatchPair> whenCondition;
-    private final Map<String, MatchPair> thenCondition;
+    /** 解析规则时编译好的匹配条件，路由时不再解析字符串 */
+    private final Condition whenCondition;
+    private final Condition thenCondition;
 
 
 
@@ -88,8 +91,8 @@ public class ConditionRouter implements Router, Comparable<Router> {
             // 解析服务提供者匹配规则
             Map<String, MatchPair> then = StringUtils.isBlank(thenRule) || "false".equals(thenRule) ? null : parseRule(thenRule);
             // 将解析出的匹配规则分别赋值给 whenCondition 和 thenCondition 成员变量
-            this.whenCondition = when;
-            this.thenCondition = then;
+            this.whenCondition = new Condition(when);
+            this.thenCondition = then == null ? null : new Condition(then);
         } catch (ParseException e) {
             throw new IllegalStateException(e.getMessage(), e);
         }
@@ -123,8 +126,10 @@ public class ConditionRouter implements Router, Comparable<Router> {
                 logger.warn("The current consumer in the service blacklist. consumer: " + NetUtils.getLocalHost() + ", service: " + url.getServiceKey());
                 return result;
             }
+            // 提供者的属性值逐个取出放到同一个数组中，按编译好的条件匹配
+            String[] values = new String[thenCondition.keys.length];
             for (Invoker<T> invoker : invokers) {
-                if (matchThen(invoker.getUrl(), url)) {
+                if (matchThen(invoker.getUrl(), url, values)) {
                     result.add(invoker);
                 }
             }
@@ -208,40 +213,28 @@ public class ConditionRouter implements Router, Comparable<Router> {
         return condition;
     }
     boolean matchWhen(URL url, Invocation invocation) {
-        return whenCondition == null || whenCondition.isEmpty() || matchCondition(whenCondition, url, null, invocation);
-    }
-    private boolean matchThen(URL url, URL param) {
-        return !(thenCondition == null || thenCondition.isEmpty()) && matchCondition(thenCondition, url, param, null);
+        if (whenCondition.isEmpty()) {
+            return true;
+        }
+        String[] values = new String[whenCondition.keys.length];
+        whenCondition.extract(url, invocation, values);
+        return whenCondition.match(values, null);
     }
-    private boolean matchCondition(Map<String, MatchPair> condition, URL url, URL param, Invocation invocation) {
-        Map<String, String> sample = url.toMap();
-        boolean result = false;
-        for (Map.Entry<String, MatchPair> matchPair : condition.entrySet()) {
-            String key = matchPair.getKey();
-            String sampleValue;
-            //get real invoked method name from invocation
-            if (invocation != null && (Constants.METHOD_KEY.equals(key) || Constants.METHODS_KEY.equals(key))) {
-                sampleValue = invocation.getMethodName();
-            } else {
-                sampleValue = sample.get(key);
-            }
-            if (sampleValue != null) {
-                if (!matchPair.getValue().isMatch(sampleValue, param)) {
-                    return false;
-                } else {
-                    result = true;
-                }
-            } else {
-                //not pass the condition
-                if (matchPair.getValue().matches.size() > 0) {
-                    return false;
-                } else {
-                    result = true;
-                }
-            }
+    private boolean matchThen(URL url, URL param, String[] values) {
+        if (thenCondition == null || thenCondition.isEmpty()) {
+            return false;
         }
-        return result;
+        thenCondition.extract(url, null, values);
+        return thenCondition.match(values, param);
+    }
+
+    /**
+     * 条件只匹配消费者URL和方法名，不依赖调用的附加参数
+     */
+    public String[] getAttachmentKeys() {
+        return ATTACHMENT_KEYS;
     }
+
     public int compareTo(Router o) {
         if (o == null || o.getClass() != ConditionRouter.class) {
             return 1;
@@ -255,41 +248,219 @@ public class ConditionRouter implements Router, Comparable<Router> {
     private static final class MatchPair {
         final Set<String> matches = new HashSet<String>();
         final Set<String> mismatches = new HashSet<String>();
+    }
 
-        private boolean isMatch(String value, URL param) {
-            if (matches.size() > 0 && mismatches.size() == 0) {
-                for (String match : matches) {
-                    if (UrlUtils.isMatchGlobPattern(match, value, param)) {
-                        return true;
-                    }
-                }
-                return false;
+    /**
+     * 编译后的条件：key及其取值方式、匹配和不匹配的模式都在构造时确定
+     */
+    private static final class Condition {
+        final String[] keys;
+        /** key在URL上的取值方式，见{@link #extract} */
+        final int[] kinds;
+        final GlobPattern[][] matches;
+        final GlobPattern[][] mismatches;
+
+        private static final int PARAMETER = 0;
+        private static final int METHOD = 1;
+        private static final int PROTOCOL = 2;
+        private static final int USERNAME = 3;
+        private static final int PASSWORD = 4;
+        private static final int HOST = 5;
+        private static final int PORT = 6;
+        private static final int PATH = 7;
+
+        Condition(Map<String, MatchPair> condition) {
+            int size = condition.size();
+            keys = new String[size];
+            kinds = new int[size];
+            matches = new GlobPattern[size][];
+            mismatches = new GlobPattern[size][];
+            int i = 0;
+            for (Map.Entry<String, MatchPair> entry : condition.entrySet()) {
+                String key = entry.getKey().intern();
+                keys[i] = key;
+                kinds[i] = kindOf(key);
+                matches[i] = compile(entry.getValue().matches);
+                mismatches[i] = compile(entry.getValue().mismatches);
+                i++;
             }
+        }
 
-            if (mismatches.size() > 0 && matches.size() == 0) {
-                for (String mismatch : mismatches) {
-                    if (UrlUtils.isMatchGlobPattern(mismatch, value, param)) {
-                        return false;
-                    }
+        private static int kindOf(String key) {
+            if (Constants.METHOD_KEY.equals(key) || Constants.METHODS_KEY.equals(key)) {
+                return METHOD;
+            } else if (Constants.PROTOCOL_KEY.equals(key)) {
+                return PROTOCOL;
+            } else if ("username".equals(key)) {
+                return USERNAME;
+            } else if ("password".equals(key)) {
+                return PASSWORD;
+            } else if ("host".equals(key)) {
+                return HOST;
+            } else if ("port".equals(key)) {
+                return PORT;
+            } else if (Constants.PATH_KEY.equals(key)) {
+                return PATH;
+            }
+            return PARAMETER;
+        }
+
+        private static GlobPattern[] compile(Set<String> patterns) {
+            GlobPattern[] compiled = new GlobPattern[patterns.size()];
+            int i = 0;
+            for (String pattern : patterns) {
+                compiled[i++] = new GlobPattern(pattern);
+            }
+            return compiled;
+        }
+
+        boolean isEmpty() {
+            return keys.length == 0;
+        }
+
+        /**
+         * 取出URL上各个key的值，与{@link URL#toMap()}的结果一致；invocation不为空时method取调用的方法名
+         */
+        void extract(URL url, Invocation invocation, String[] values) {
+            Map<String, String> parameters = url.getParameters();
+            for (int i = 0; i < keys.length; i++) {
+                String value = null;
+                switch (kinds[i]) {
+                    case METHOD:
+                        value = invocation != null ? invocation.getMethodName() : null;
+                        break;
+                    case PROTOCOL:
+                        value = url.getProtocol();
+                        break;
+                    case USERNAME:
+                        value = url.getUsername();
+                        break;
+                    case PASSWORD:
+                        value = url.getPassword();
+                        break;
+                    case HOST:
+                        value = url.getHost();
+                        break;
+                    case PORT:
+                        value = url.getPort() > 0 ? String.valueOf(url.getPort()) : null;
+                        break;
+                    case PATH:
+                        value = url.getPath();
+                        break;
+                    default:
+                        break;
                 }
-                return true;
+                if (value == null && (kinds[i] != METHOD || invocation == null)) {
+                    value = parameters.get(keys[i]);
+                }
+                values[i] = value;
             }
+        }
 
-            if (matches.size() > 0 && mismatches.size() > 0) {
-                //when both mismatches and matches contain the same value, then using mismatches first
-                for (String mismatch : mismatches) {
-                    if (UrlUtils.isMatchGlobPattern(mismatch, value, param)) {
+        boolean match(String[] values, URL param) {
+            boolean result = false;
+            for (int i = 0; i < keys.length; i++) {
+                String value = values[i];
+                if (value != null) {
+                    if (!isMatch(matches[i], mismatches[i], value, param)) {
                         return false;
                     }
-                }
-                for (String match : matches) {
-                    if (UrlUtils.isMatchGlobPattern(match, value, param)) {
-                        return true;
+                    result = true;
+                } else {
+                    //not pass the condition
+                    if (matches[i].length > 0) {
+                        return false;
                     }
+                    result = true;
                 }
+            }
+            return result;
+        }
+
+        private static boolean isMatch(GlobPattern[] matches, GlobPattern[] mismatches, String value, URL param) {
+            if (matches.length == 0 && mismatches.length == 0) {
                 return false;
             }
+            //when both mismatches and matches contain the same value, then using mismatches first
+            for (GlobPattern mismatch : mismatches) {
+                if (mismatch.isMatch(value, param)) {
+                    return false;
+                }
+            }
+            if (matches.length == 0) {
+                return true;
+            }
+            for (GlobPattern match : matches) {
+                if (match.isMatch(value, param)) {
+                    return true;
+                }
+            }
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 预先拆分好的通配符模式，语义同{@link UrlUtils#isMatchGlobPattern(String, String, URL)}
+     */
+    private static final class GlobPattern {
+        private static final int ANY = 0;
+        private static final int EXACT = 1;
+        private static final int PREFIX = 2;
+        private static final int SUFFIX = 3;
+        private static final int PREFIX_SUFFIX = 4;
+
+        final String pattern;
+        final int type;
+        final String prefix;
+        final String suffix;
+        /** 以$开头的模式引用消费者URL上的参数，只能在匹配时取值 */
+        final String reference;
+
+        GlobPattern(String pattern) {
+            this.pattern = pattern;
+            this.reference = pattern.startsWith("$") ? pattern.substring(1) : null;
+            int i = pattern.lastIndexOf('*');
+            if ("*".equals(pattern)) {
+                type = ANY;
+                prefix = suffix = null;
+            } else if (i == -1) {
+                type = EXACT;
+                prefix = suffix = null;
+            } else if (i == pattern.length() - 1) {
+                type = PREFIX;
+                prefix = pattern.substring(0, i);
+                suffix = null;
+            } else if (i == 0) {
+                type = SUFFIX;
+                prefix = null;
+                suffix = pattern.substring(1);
+            } else {
+                type = PREFIX_SUFFIX;
+                prefix = pattern.substring(0, i);
+                suffix = pattern.substring(i + 1);
+            }
+        }
+
+        boolean isMatch(String value, URL param) {
+            if (reference != null && param != null) {
+                return UrlUtils.isMatchGlobPattern(param.getRawParameter(reference), value);
+            }
+            if (type == ANY) {
+                return true;
+            }
+            if (value == null || value.length() == 0) {
+                return false;
+            }
+            switch (type) {
+                case EXACT:
+                    return value.equals(pattern);
+                case PREFIX:
+                    return value.startsWith(prefix);
+                case SUFFIX:
+                    return value.endsWith(suffix);
+                default:
+                    return value.startsWith(prefix) && value.endsWith(suffix);
+            }
+        }
+    }
+}
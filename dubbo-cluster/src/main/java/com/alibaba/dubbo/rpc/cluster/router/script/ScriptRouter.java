@@ -20,6 +20,7 @@ import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.logger.Logger;
 import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.utils.NamedThreadFactory;
 import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.Invoker;
 import com.alibaba.dubbo.rpc.RpcContext;
@@ -36,10 +37,23 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 脚本路由：
+ * 规则在创建路由时编译一次（引擎支持{@link Compilable}时），相同类型和内容的规则共用编译结果。
+ * 路由URL上配置timeout（毫秒）后，脚本在单独的线程中执行，超时或没有空闲线程时放弃本次路由，返回原列表。
  *
  */
 public class ScriptRouter implements Router {
@@ -47,15 +61,35 @@ public class ScriptRouter implements Router {
     private static final Logger logger = LoggerFactory.getLogger(ScriptRouter.class);
 
     private static final Map<String, ScriptEngine> engines = new ConcurrentHashMap<String, ScriptEngine>();
+
+    /** 编译结果缓存，key为脚本类型和规则 */
+    private static final ConcurrentMap<String, CompiledScript> COMPILED_SCRIPTS = new ConcurrentHashMap<String, CompiledScript>();
+
+    private static final int MAX_COMPILED_SCRIPTS = 256;
+
+    /** 有时间限制的脚本在这里执行，线程数有上限，超时的脚本无法强行停止，占满后新的执行直接放弃 */
+    private static final ExecutorService EVALUATE_EXECUTOR = new ThreadPoolExecutor(0,
+            Math.max(2, Runtime.getRuntime().availableProcessors()), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), new NamedThreadFactory("DubboScriptRouter", true));
+
     private final ScriptEngine engine;
+    /** 引擎不支持编译时为null，每次调用解释执行 */
+    private final CompiledScript function;
     private final int priority;
     private final String rule;
     private final URL url;
+    private final long timeout;
+
+    private final AtomicLong evaluateCount = new AtomicLong();
+    private final AtomicLong evaluateElapsed = new AtomicLong();
+    private final AtomicLong maxEvaluateElapsed = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
 
     public ScriptRouter(URL url) {
         this.url = url;
         String type = url.getParameter(Constants.TYPE_KEY);
         this.priority = url.getParameter(Constants.PRIORITY_KEY, 0);
+        this.timeout = url.getParameter(Constants.TIMEOUT_KEY, 0L);
         String rule = url.getParameterAndDecoded(Constants.RULE_KEY);
         if (type == null || type.length() == 0) {
             type = Constants.DEFAULT_SCRIPT_TYPE_KEY;
@@ -73,6 +107,32 @@ public class ScriptRouter implements Router {
         }
         this.engine = engine;
         this.rule = rule;
+        this.function = compile(type, engine, rule);
+    }
+
+    private static CompiledScript compile(String type, ScriptEngine engine, String rule) {
+        if (!(engine instanceof Compilable)) {
+            return null;
+        }
+        String key = type + ":" + rule;
+        CompiledScript function = COMPILED_SCRIPTS.get(key);
+        if (function == null) {
+            try {
+                function = ((Compilable) engine).compile(rule);
+            } catch (ScriptException e) {
+                // 规则有误时与原来一样在路由时报错并忽略规则
+                logger.error("compile route rule error, rule: " + rule, e);
+                return null;
+            }
+            if (COMPILED_SCRIPTS.size() >= MAX_COMPILED_SCRIPTS) {
+                COMPILED_SCRIPTS.clear();
+            }
+            CompiledScript old = COMPILED_SCRIPTS.putIfAbsent(key, function);
+            if (old != null) {
+                function = old;
+            }
+        }
+        return function;
     }
 
     public URL getUrl() {
@@ -81,15 +141,47 @@ public class ScriptRouter implements Router {
 
     @SuppressWarnings("unchecked")
     public <T> List<Invoker<T>> route(List<Invoker<T>> invokers, URL url, Invocation invocation) throws RpcException {
+        long start = System.nanoTime();
         try {
             List<Invoker<T>> invokersCopy = new ArrayList<Invoker<T>>(invokers);
-            Compilable compilable = (Compilable) engine;
-            Bindings bindings = engine.createBindings();
+            final Bindings bindings = engine.createBindings();
             bindings.put("invokers", invokersCopy);
             bindings.put("invocation", invocation);
             bindings.put("context", RpcContext.getContext());
-            CompiledScript function = compilable.compile(rule);
-            Object obj = function.eval(bindings);
+            Object obj;
+            if (timeout <= 0) {
+                obj = eval(bindings);
+            } else {
+                Future<Object> future;
+                try {
+                    future = EVALUATE_EXECUTOR.submit(new Callable<Object>() {
+                        public Object call() throws Exception {
+                            return eval(bindings);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    timeoutCount.incrementAndGet();
+                    logger.warn("no thread available to execute route rule, rule has been ignored. rule: " + rule + ", method:" + invocation.getMethodName());
+                    return invokers;
+                }
+                try {
+                    obj = future.get(timeout, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    timeoutCount.incrementAndGet();
+                    logger.warn("route rule execute timeout " + timeout + "ms, rule has been ignored. rule: " + rule + ", method:" + invocation.getMethodName());
+                    return invokers;
+                } catch (InterruptedException e) {
+                    future.cancel(true);
+                    Thread.currentThread().interrupt();
+                    return invokers;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof ScriptException) {
+                        throw (ScriptException) e.getCause();
+                    }
+                    throw new RpcException(e.getCause());
+                }
+            }
             if (obj instanceof Invoker[]) {
                 invokersCopy = Arrays.asList((Invoker<T>[]) obj);
             } else if (obj instanceof Object[]) {
@@ -105,9 +197,57 @@ public class ScriptRouter implements Router {
             //fail then ignore rule .invokers.
             logger.error("route error , rule has been ignored. rule: " + rule + ", method:" + invocation.getMethodName() + ", url: " + RpcContext.getContext().getUrl(), e);
             return invokers;
+        } finally {
+            recordElapsed(System.nanoTime() - start);
         }
     }
 
+    private Object eval(Bindings bindings) throws ScriptException {
+        if (function != null) {
+            return function.eval(bindings);
+        }
+        return engine.eval(rule, bindings);
+    }
+
+    private void recordElapsed(long elapsed) {
+        evaluateCount.incrementAndGet();
+        evaluateElapsed.addAndGet(elapsed);
+        for (long max = maxEvaluateElapsed.get(); elapsed > max; max = maxEvaluateElapsed.get()) {
+            if (maxEvaluateElapsed.compareAndSet(max, elapsed)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 执行次数，包括超时的次数
+     */
+    public long getEvaluateCount() {
+        return evaluateCount.get();
+    }
+
+    /**
+     * 平均每次执行的耗时，单位纳秒
+     */
+    public long getAverageEvaluateTime() {
+        long count = evaluateCount.get();
+        return count == 0 ? 0 : evaluateElapsed.get() / count;
+    }
+
+    /**
+     * 单次执行的最大耗时，单位纳秒
+     */
+    public long getMaxEvaluateTime() {
+        return maxEvaluateElapsed.get();
+    }
+
+    /**
+     * 超时或没有空闲线程而放弃路由的次数
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
     public int compareTo(Router o) {
         if (o == null || o.getClass() != ScriptRouter.class) {
             return 1;
@@ -116,4 +256,4 @@ public class ScriptRouter implements Router {
         return this.priority == c.priority ? rule.compareTo(c.rule) : (this.priority > c.priority ? 1 : -1);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.cluster.directory;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+import com.alibaba.dubbo.rpc.cluster.Router;
+import com.alibaba.dubbo.rpc.cluster.router.MockInvoker;
+import com.alibaba.dubbo.rpc.cluster.router.condition.ConditionRouter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StaticDirectoryTest {
+
+    private static final URL CONSUMER_URL = URL.valueOf("consumer://10.20.3.3/DemoService");
+
+    @Test
+    public void testRouteCache() {
+        List<Invoker<StaticDirectoryTest>> invokers = new ArrayList<Invoker<StaticDirectoryTest>>();
+        invokers.add(new MockInvoker<StaticDirectoryTest>(URL.valueOf("dubbo://10.20.3.3:20880/DemoService")));
+        invokers.add(new MockInvoker<StaticDirectoryTest>(URL.valueOf("dubbo://10.20.3.4:20880/DemoService")));
+        final AtomicInteger conditionRoutes = new AtomicInteger();
+        Router condition = new ConditionRouter(URL.valueOf("condition://0.0.0.0/DemoService?runtime=true&rule="
+                + URL.encode("method = sayHello => host = 10.20.3.3"))) {
+            @Override
+            public <T> List<Invoker<T>> route(List<Invoker<T>> invokers, URL url, Invocation invocation) throws RpcException {
+                conditionRoutes.incrementAndGet();
+                return super.route(invokers, url, invocation);
+            }
+        };
+        List<Router> routers = new ArrayList<Router>();
+        routers.add(condition);
+        StaticDirectory<StaticDirectoryTest> directory = new StaticDirectory<StaticDirectoryTest>(CONSUMER_URL, invokers, routers);
+        directory.setConsumerUrl(CONSUMER_URL);
+
+        RpcInvocation sayHello = new RpcInvocation("sayHello", new Class<?>[0], new Object[0]);
+        RpcInvocation echo = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(1, directory.list(sayHello).size());
+            Assert.assertEquals(2, directory.list(echo).size());
+        }
+        Assert.assertEquals(2, conditionRoutes.get());
+
+        // mock路由依赖附加参数，不同取值分别缓存
+        RpcInvocation mock = new RpcInvocation("sayHello", new Class<?>[0], new Object[0]);
+        mock.setAttachment(Constants.INVOCATION_NEED_MOCK, Boolean.TRUE.toString());
+        Assert.assertNull(directory.list(mock));
+        Assert.assertEquals(1, directory.list(sayHello).size());
+        Assert.assertEquals(3, conditionRoutes.get());
+
+        // 消费者URL变化后重新路由
+        directory.setConsumerUrl(CONSUMER_URL.addParameter("application", "test"));
+        Assert.assertEquals(1, directory.list(sayHello).size());
+        Assert.assertEquals(4, conditionRoutes.get());
+    }
+
+    @Test
+    public void testNotCacheableRouter() {
+        List<Invoker<StaticDirectoryTest>> invokers = new ArrayList<Invoker<StaticDirectoryTest>>();
+        invokers.add(new MockInvoker<StaticDirectoryTest>(URL.valueOf("dubbo://10.20.3.3:20880/DemoService")));
+        final AtomicInteger routes = new AtomicInteger();
+        Router router = new Router() {
+            public URL getUrl() {
+                return null;
+            }
+
+            public <T> List<Invoker<T>> route(List<Invoker<T>> invokers, URL url, Invocation invocation) throws RpcException {
+                routes.incrementAndGet();
+                return invokers;
+            }
+
+            public int compareTo(Router o) {
+                return -1;
+            }
+        };
+        List<Router> routers = new ArrayList<Router>();
+        routers.add(router);
+        StaticDirectory<StaticDirectoryTest> directory = new StaticDirectory<StaticDirectoryTest>(CONSUMER_URL, invokers, routers);
+        RpcInvocation invocation = new RpcInvocation("sayHello", new Class<?>[0], new Object[0]);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(1, directory.list(invocation).size());
+        }
+        Assert.assertEquals(10, routes.get());
+    }
+
+}
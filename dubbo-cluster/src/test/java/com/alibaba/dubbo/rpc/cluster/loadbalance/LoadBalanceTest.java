@@ -156,6 +156,149 @@ public class LoadBalanceTest {
         }
     }
 
+    @Test
+    public void testSmoothRoundRobinLoadBalance_select() {
+        int runs = 10000;
+        Map<Invoker, AtomicLong> counter = getInvokeCounter(runs, SmoothRoundRobinLoadBalance.NAME);
+        for (Invoker minvoker : counter.keySet()) {
+            Long count = counter.get(minvoker).get();
+            Assert.assertTrue("abs diff shoud < 1", Math.abs(count - runs / (0f + invokers.size())) < 1f);
+        }
+    }
+
+    @Test
+    public void testSmoothRoundRobinLoadBalance_weighted() {
+        Invoker<LoadBalanceTest> a = createWeightedInvoker(1, 5);
+        Invoker<LoadBalanceTest> b = createWeightedInvoker(2, 1);
+        Invoker<LoadBalanceTest> c = createWeightedInvoker(3, 1);
+        List<Invoker<LoadBalanceTest>> weightedInvokers = new ArrayList<Invoker<LoadBalanceTest>>();
+        weightedInvokers.add(a);
+        weightedInvokers.add(b);
+        weightedInvokers.add(c);
+
+        LoadBalance lb = ExtensionLoader.getExtensionLoader(LoadBalance.class).getExtension(SmoothRoundRobinLoadBalance.NAME);
+        List<Invoker<LoadBalanceTest>> expected = new ArrayList<Invoker<LoadBalanceTest>>();
+        expected.add(a);
+        expected.add(a);
+        expected.add(b);
+        expected.add(a);
+        expected.add(c);
+        expected.add(a);
+        expected.add(a);
+        for (int round = 0; round < 3; round++) {
+            for (Invoker<LoadBalanceTest> invoker : expected) {
+                Assert.assertSame(invoker, lb.select(weightedInvokers, a.getUrl(), invocation));
+            }
+        }
+
+        // invoker下线后，剩余的invoker按权重继续轮询
+        weightedInvokers.remove(a);
+        int countB = 0;
+        for (int i = 0; i < 10; i++) {
+            if (lb.select(weightedInvokers, b.getUrl(), invocation) == b) {
+                countB++;
+            }
+        }
+        Assert.assertEquals(5, countB);
+    }
+
+    @Test
+    public void testPeakEwmaLoadBalance_select() {
+        List<Invoker<LoadBalanceTest>> ewmaInvokers = new ArrayList<Invoker<LoadBalanceTest>>();
+        for (int i = 0; i < 5; i++) {
+            ewmaInvokers.add(createWeightedInvoker(21 + i, 100));
+        }
+        Invoker<LoadBalanceTest> slow = ewmaInvokers.get(0);
+        Invoker<LoadBalanceTest> busy = ewmaInvokers.get(1);
+        LoadBalance lb = ExtensionLoader.getExtensionLoader(LoadBalance.class).getExtension(PeakEwmaLoadBalance.NAME);
+
+        // 没有统计数据时随机选择
+        int runs = 1000;
+        Map<Invoker<LoadBalanceTest>, AtomicLong> counter = selectCounter(lb, ewmaInvokers, runs);
+        for (Invoker<LoadBalanceTest> invoker : ewmaInvokers) {
+            Assert.assertTrue("abs diff shoud < avg",
+                    Math.abs(counter.get(invoker).get() - runs / 5f) < runs / 5f);
+        }
+
+        // 响应慢的提供者和其他任何一个比较都会落选
+        for (Invoker<LoadBalanceTest> invoker : ewmaInvokers) {
+            RpcStatus.beginCount(invoker.getUrl(), invocation.getMethodName());
+            RpcStatus.endCount(invoker.getUrl(), invocation.getMethodName(), invoker == slow ? 1000 : 10, true);
+        }
+        counter = selectCounter(lb, ewmaInvokers, runs);
+        Assert.assertEquals(0, counter.get(slow).get());
+
+        // 活跃数高的提供者同样会落选，只有slow和busy两者比较时才会被选中
+        for (int i = 0; i < 200; i++) {
+            RpcStatus.beginCount(busy.getUrl(), invocation.getMethodName());
+        }
+        counter = selectCounter(lb, ewmaInvokers, runs);
+        Assert.assertTrue(counter.get(slow).get() + counter.get(busy).get() < runs / 5);
+        for (int i = 0; i < 200; i++) {
+            RpcStatus.endCount(busy.getUrl(), invocation.getMethodName(), 10, true);
+        }
+    }
+
+    @Test
+    public void testConsistentHashLoadBalance_boundedLoad() {
+        List<Invoker<LoadBalanceTest>> hashInvokers = new ArrayList<Invoker<LoadBalanceTest>>();
+        for (int i = 0; i < 5; i++) {
+            Invoker<LoadBalanceTest> invoker = EasyMock.createMock(Invoker.class);
+            URL url = URL.valueOf("test://127.0.0.1:" + (31 + i) + "/HashService?hash.load.factor=1.25");
+            EasyMock.expect(invoker.getUrl()).andReturn(url).anyTimes();
+            EasyMock.replay(invoker);
+            hashInvokers.add(invoker);
+        }
+        Invocation hashInvocation = EasyMock.createMock(Invocation.class);
+        EasyMock.expect(hashInvocation.getMethodName()).andReturn("method1").anyTimes();
+        EasyMock.expect(hashInvocation.getArguments()).andReturn(new Object[]{"key"}).anyTimes();
+        EasyMock.replay(hashInvocation);
+        LoadBalance lb = ExtensionLoader.getExtensionLoader(LoadBalance.class).getExtension(ConsistentHashLoadBalance.NAME);
+
+        // 路由产生的新列表不影响选择结果
+        Invoker<LoadBalanceTest> selected = lb.select(hashInvokers, null, hashInvocation);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(selected, lb.select(new ArrayList<Invoker<LoadBalanceTest>>(hashInvokers), null, hashInvocation));
+        }
+
+        // 超过平均活跃数的1.25倍后交给环上的下一个提供者
+        for (int i = 0; i < 10; i++) {
+            RpcStatus.beginCount(selected.getUrl(), "method1");
+        }
+        Invoker<LoadBalanceTest> spilled = lb.select(hashInvokers, null, hashInvocation);
+        Assert.assertNotSame(selected, spilled);
+        for (int i = 0; i < 10; i++) {
+            RpcStatus.endCount(selected.getUrl(), "method1", 1, true);
+        }
+        Assert.assertSame(selected, lb.select(hashInvokers, null, hashInvocation));
+
+        // 去掉一个其他提供者后，原来的选择不变
+        List<Invoker<LoadBalanceTest>> remain = new ArrayList<Invoker<LoadBalanceTest>>(hashInvokers);
+        remain.remove(spilled);
+        Assert.assertSame(selected, lb.select(remain, null, hashInvocation));
+    }
+
+    private Map<Invoker<LoadBalanceTest>, AtomicLong> selectCounter(LoadBalance lb, List<Invoker<LoadBalanceTest>> candidates, int runs) {
+        Map<Invoker<LoadBalanceTest>, AtomicLong> counter = new ConcurrentHashMap<Invoker<LoadBalanceTest>, AtomicLong>();
+        for (Invoker<LoadBalanceTest> invoker : candidates) {
+            counter.put(invoker, new AtomicLong(0));
+        }
+        for (int i = 0; i < runs; i++) {
+            counter.get(lb.select(candidates, null, invocation)).incrementAndGet();
+        }
+        return counter;
+    }
+
+    private Invoker<LoadBalanceTest> createWeightedInvoker(int port, int weight) {
+        Invoker<LoadBalanceTest> invoker = EasyMock.createMock(Invoker.class);
+        URL url = URL.valueOf("test://127.0.0.1:" + port + "/WeightedService?" + Constants.WEIGHT_KEY + "=" + weight);
+        EasyMock.expect(invoker.isAvailable()).andReturn(true).anyTimes();
+        EasyMock.expect(invoker.getInterface()).andReturn(LoadBalanceTest.class).anyTimes();
+        EasyMock.expect(invoker.getUrl()).andReturn(url).anyTimes();
+        EasyMock.replay(invoker);
+        return invoker;
+    }
+
     public Map<Invoker, AtomicLong> getInvokeCounter(int runs, String loadbalanceName) {
         Map<Invoker, AtomicLong> counter = new ConcurrentHashMap<Invoker, AtomicLong>();
         LoadBalance lb = ExtensionLoader.getExtensionLoader(LoadBalance.class).getExtension(loadbalanceName);
@@ -316,4 +316,30 @@ public class ConditionRouterTest {
         Assert.assertEquals(0, fileredInvokers.size());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testRoute_UrlAttributesAndGlob() {
+        Router router = new ConditionRouterFactory().getRouter(getRouteUrl(
+                "method = find* => port = 2088* & protocol != rmi & host = *.3 & zone = $zone & path = com.*Service"));
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        Invoker<String> invoker1 = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.3:20880/com.foo.BarService?zone=hz"));
+        Invoker<String> invoker2 = new MockInvoker<String>(URL.valueOf("rmi://10.20.3.3:20880/com.foo.BarService?zone=hz"));
+        Invoker<String> invoker3 = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.4:20880/com.foo.BarService?zone=hz"));
+        Invoker<String> invoker4 = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.3:20990/com.foo.BarService?zone=hz"));
+        Invoker<String> invoker5 = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.3:20881/com.foo.BarService?zone=sh"));
+        invokers.add(invoker1);
+        invokers.add(invoker2);
+        invokers.add(invoker3);
+        invokers.add(invoker4);
+        invokers.add(invoker5);
+        URL consumer = URL.valueOf("consumer://" + NetUtils.getLocalHost() + "/com.foo.BarService?zone=hz");
+        RpcInvocation invocation = new RpcInvocation();
+        invocation.setMethodName("findAll");
+        List<Invoker<String>> fileredInvokers = router.route(invokers, consumer, invocation);
+        Assert.assertEquals(1, fileredInvokers.size());
+        Assert.assertSame(invoker1, fileredInvokers.get(0));
+
+        invocation.setMethodName("save");
+        Assert.assertEquals(invokers, router.route(invokers, consumer, invocation));
+    }
+
+}
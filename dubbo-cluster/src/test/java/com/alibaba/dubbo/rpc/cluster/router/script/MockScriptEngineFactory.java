@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.cluster.router.script;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的脚本引擎，脚本"all"返回全部invokers，"first"返回第一个，"sleep:毫秒"休眠后返回全部invokers
+ */
+public class MockScriptEngineFactory implements ScriptEngineFactory {
+
+    public static final String NAME = "mockscript";
+
+    static final AtomicInteger COMPILE_COUNT = new AtomicInteger();
+
+    public String getEngineName() {
+        return NAME;
+    }
+
+    public String getEngineVersion() {
+        return "1.0";
+    }
+
+    public List<String> getExtensions() {
+        return Arrays.asList(NAME);
+    }
+
+    public List<String> getMimeTypes() {
+        return Arrays.asList(NAME);
+    }
+
+    public List<String> getNames() {
+        return Arrays.asList(NAME);
+    }
+
+    public String getLanguageName() {
+        return NAME;
+    }
+
+    public String getLanguageVersion() {
+        return "1.0";
+    }
+
+    public Object getParameter(String key) {
+        return null;
+    }
+
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        return null;
+    }
+
+    public String getOutputStatement(String toDisplay) {
+        return null;
+    }
+
+    public String getProgram(String... statements) {
+        return null;
+    }
+
+    public ScriptEngine getScriptEngine() {
+        return new MockScriptEngine(this);
+    }
+
+    private static class MockScriptEngine extends AbstractScriptEngine implements Compilable {
+
+        private final ScriptEngineFactory factory;
+
+        MockScriptEngine(ScriptEngineFactory factory) {
+            this.factory = factory;
+        }
+
+        public Object eval(String script, ScriptContext context) throws ScriptException {
+            return compile(script).eval(context);
+        }
+
+        public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+            return eval(read(reader), context);
+        }
+
+        public Bindings createBindings() {
+            return new SimpleBindings();
+        }
+
+        public ScriptEngineFactory getFactory() {
+            return factory;
+        }
+
+        public CompiledScript compile(final String script) throws ScriptException {
+            if (!"all".equals(script) && !"first".equals(script) && !script.startsWith("sleep:")) {
+                throw new ScriptException("Unsupported script: " + script);
+            }
+            COMPILE_COUNT.incrementAndGet();
+            return new CompiledScript() {
+                public Object eval(ScriptContext context) throws ScriptException {
+                    List<?> invokers = (List<?>) context.getAttribute("invokers");
+                    if ("first".equals(script)) {
+                        return invokers.subList(0, 1);
+                    }
+                    if (script.startsWith("sleep:")) {
+                        try {
+                            Thread.sleep(Long.parseLong(script.substring("sleep:".length())));
+                        } catch (InterruptedException e) {
+                            throw new ScriptException(e);
+                        }
+                    }
+                    return invokers;
+                }
+
+                public ScriptEngine getEngine() {
+                    return MockScriptEngine.this;
+                }
+            };
+        }
+
+        public CompiledScript compile(Reader reader) throws ScriptException {
+            return compile(read(reader));
+        }
+
+        private static String read(Reader reader) throws ScriptException {
+            StringBuilder buf = new StringBuilder();
+            BufferedReader in = new BufferedReader(reader);
+            try {
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    buf.append(line);
+                }
+            } catch (IOException e) {
+                throw new ScriptException(e);
+            }
+            return buf.toString();
+        }
+
+    }
+
+}
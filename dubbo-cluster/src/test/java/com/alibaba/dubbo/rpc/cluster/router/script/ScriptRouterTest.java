@@ -83,5 +83,51 @@ public class ScriptRouterTest {
         Assert.assertEquals(invoker2, fileredInvokers.get(0));
         Assert.assertEquals(invoker3, fileredInvokers.get(1));
     }
-    //TODO Add tests for abnormal scene
+
+    @Test
+    public void testRoute_CompiledOnce() {
+        URL url = URL.valueOf("script://mockscript?type=" + MockScriptEngineFactory.NAME)
+                .addParameterAndEncoded(Constants.RULE_KEY, "first");
+        int compiled = MockScriptEngineFactory.COMPILE_COUNT.get();
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        invokers.add(new MockInvoker<String>());
+        invokers.add(new MockInvoker<String>());
+        for (int i = 0; i < 3; i++) {
+            ScriptRouter router = (ScriptRouter) new ScriptRouterFactory().getRouter(url);
+            for (int j = 0; j < 10; j++) {
+                Assert.assertEquals(1, router.route(invokers, invokers.get(0).getUrl(), new RpcInvocation()).size());
+            }
+            Assert.assertEquals(10, router.getEvaluateCount());
+            Assert.assertTrue(router.getMaxEvaluateTime() >= router.getAverageEvaluateTime());
+        }
+        Assert.assertEquals(compiled + 1, MockScriptEngineFactory.COMPILE_COUNT.get());
+    }
+
+    @Test
+    public void testRoute_Timeout() {
+        URL url = URL.valueOf("script://mockscript?type=" + MockScriptEngineFactory.NAME + "&timeout=50");
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        invokers.add(new MockInvoker<String>());
+        invokers.add(new MockInvoker<String>());
+
+        ScriptRouter router = (ScriptRouter) new ScriptRouterFactory().getRouter(url.addParameterAndEncoded(Constants.RULE_KEY, "sleep:1000"));
+        long start = System.currentTimeMillis();
+        Assert.assertSame(invokers, router.route(invokers, invokers.get(0).getUrl(), new RpcInvocation()));
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+        Assert.assertEquals(1, router.getTimeoutCount());
+
+        router = (ScriptRouter) new ScriptRouterFactory().getRouter(url.addParameterAndEncoded(Constants.RULE_KEY, "first"));
+        Assert.assertEquals(1, router.route(invokers, invokers.get(0).getUrl(), new RpcInvocation()).size());
+        Assert.assertEquals(0, router.getTimeoutCount());
+    }
+
+    @Test
+    public void testRoute_IllegalRule() {
+        URL url = URL.valueOf("script://mockscript?type=" + MockScriptEngineFactory.NAME)
+                .addParameterAndEncoded(Constants.RULE_KEY, "illegal");
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        invokers.add(new MockInvoker<String>());
+        Router router = new ScriptRouterFactory().getRouter(url);
+        Assert.assertSame(invokers, router.route(invokers, invokers.get(0).getUrl(), new RpcInvocation()));
+    }
 }
\ No newline at end of file
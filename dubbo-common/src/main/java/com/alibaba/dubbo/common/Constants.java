@@ -126,6 +126,9 @@ public class Constants {
     /** 服务调用的默认超时时间，默认是1秒 */
     public static final int DEFAULT_TIMEOUT = 1000;
 
+    /** 客户端超时检测的默认精度，30毫秒 */
+    public static final int DEFAULT_TIMEOUT_TICK = 30;
+
     public static final int DEFAULT_CONNECT_TIMEOUT = 3000;
 
 //    public static final int DEFAULT_REGISTRY_CONNECT_TIMEOUT = 5000;
@@ -210,11 +213,34 @@ public class Constants {
     /** 表示在remoting层中，服务端处理客户端的请求的线程数 */
     public static final String IO_THREADS_KEY = "iothreads";
 
+    /** 表示在remoting层中，客户端IO线程数，相同IO模型和线程数的客户端共享同一组IO线程 */
+    public static final String CLIENT_IO_THREADS_KEY = "client.iothreads";
+
+    /** IO模型：nio或epoll，epoll仅在Linux且本地库可用时生效，否则退回nio */
+    public static final String IO_MODE_KEY = "iomode";
+
+    public static final String DEFAULT_IO_MODE = "nio";
+
+    /** 写缓冲区高水位，超过后通道变为不可写 */
+    public static final String WRITE_BUFFER_HIGH_WATER_MARK_KEY = "write.buffer.high";
+
+    /** 写缓冲区低水位，降到该值以下通道恢复可写 */
+    public static final String WRITE_BUFFER_LOW_WATER_MARK_KEY = "write.buffer.low";
+
+    /** 服务端accept队列长度 */
+    public static final String BACKLOG_KEY = "backlog";
+
     public static final String CORE_THREADS_KEY = "corethreads";
 
     /** 表示dubbo服务端处理客户端请求的线程池内的线程数量 */
     public static final String THREADS_KEY = "threads";
 
+    /** 服务或方法独占的业务线程数，大于0时该服务或方法的请求不再与同端口的其他服务共用线程池 */
+    public static final String ISOLATION_THREADS_KEY = "isolation.threads";
+
+    /** 服务或方法独占线程池的类型，默认与通道的线程池类型相同 */
+    public static final String ISOLATION_THREADPOOL_KEY = "isolation.threadpool";
+
     public static final String QUEUES_KEY = "queues";
 
     public static final String ALIVE_KEY = "alive";
@@ -223,6 +249,17 @@ public class Constants {
 
     public static final String BUFFER_KEY = "buffer";
 
+    /** 是否合并写：同一时间段内发出的多个请求/响应只flush一次，减少系统调用，默认关闭 */
+    public static final String WRITE_COALESCE_KEY = "write.coalesce";
+
+    /** 合并写的等待时间，单位微秒，默认0表示只合并IO线程同一轮处理到的消息 */
+    public static final String WRITE_COALESCE_DELAY_KEY = "write.coalesce.delay";
+
+    /** 合并写时待发送的字节数超过该值立即flush */
+    public static final String WRITE_COALESCE_BYTES_KEY = "write.coalesce.bytes";
+
+    public static final int DEFAULT_WRITE_COALESCE_BYTES = 64 * 1024;
+
     public static final String PAYLOAD_KEY = "payload";
 
     public static final String REFERENCE_FILTER_KEY = "reference.filter";
@@ -237,6 +274,12 @@ public class Constants {
 
     public static final String ACTIVES_KEY = "actives";
 
+    public static final String ACTIVES_FAIR_KEY = "actives.fair";
+
+    public static final String ACTIVES_FAILFAST_KEY = "actives.failfast";
+
+    public static final String ACTIVES_ADAPTIVE_KEY = "actives.adaptive";
+
     public static final String CONNECTIONS_KEY = "connections";
 
     public static final String ACCEPTS_KEY = "accepts";
@@ -253,6 +296,9 @@ public class Constants {
     /** 服务调用的默认超时时间 */
     public static final String TIMEOUT_KEY = "timeout";
 
+    /** 客户端超时检测的精度（时间轮的tick，单位毫秒），精度越高超时越准时，但时间轮线程唤醒越频繁 */
+    public static final String TIMEOUT_TICK_KEY = "timeout.tick";
+
     public static final String RETRIES_KEY = "retries";
 
     public static final String PROMPT_KEY = "prompt";
@@ -263,6 +309,16 @@ public class Constants {
 
     public static final String SERIALIZATION_KEY = "serialization";
 
+    /**
+     * Reuse the hessian2 reader/writer of the current thread between messages
+     */
+    public static final String HESSIAN2_REUSE_KEY = "hessian2.reuse";
+
+    /**
+     * Read and write the fields of hessian2 serialized classes with generated code instead of reflection
+     */
+    public static final String HESSIAN2_GENERATED_KEY = "hessian2.generated";
+
     public static final String EXTENSION_KEY = "extension";
 
     public static final String KEEP_ALIVE_KEY = "keepalive";
@@ -270,6 +326,12 @@ public class Constants {
     /** 表示url中用于声明优化序列化类的key，序列化类必须继承 {@link com.alibaba.dubbo.common.serialize.support.SerializationOptimizer} */
     public static final String OPTIMIZER_KEY = "optimizer";
 
+    /** 是否按服务接口自动注册kryo/fst序列化的类，参见{@link com.alibaba.dubbo.common.serialize.support.SerializableClassRegistry#registerInterface(Class)} */
+    public static final String SERIALIZATION_AUTO_REGISTER_KEY = "serialization.auto.register";
+
+    /** 服务提供者发布的自动注册类名和编号的摘要，消费者连接时和自己的比较 */
+    public static final String SERIALIZATION_AUTO_REGISTER_HASH_KEY = "serialization.auto.register.hash";
+
     public static final String EXCHANGER_KEY = "exchanger";
 
     public static final String TRANSPORTER_KEY = "transporter";
@@ -470,6 +532,21 @@ public class Constants {
      */
     public static final int DEFAULT_REGISTRY_RETRY_PERIOD = 5 * 1000;
 
+    /**
+     * Delay in milliseconds used to coalesce bursts of registry notifications, 0 means notify immediately
+     */
+    public static final String REGISTRY_NOTIFY_DELAY_KEY = "notify.delay";
+
+    /**
+     * Upper bound in milliseconds that a coalesced registry notification may be delayed
+     */
+    public static final String REGISTRY_NOTIFY_MAX_DELAY_KEY = "notify.max.delay";
+
+    /**
+     * Default value for the coalescing delay of registry notifications: disabled
+     */
+    public static final int DEFAULT_REGISTRY_NOTIFY_DELAY = 0;
+
     /**
      * Reconnection period in milliseconds for register center
      */
@@ -599,6 +676,16 @@ public class Constants {
 
     public static final long DEFAULT_TPS_LIMIT_INTERVAL = 60 * 1000;
 
+    public static final String TPS_LIMIT_BURST_KEY = "tps.burst";
+
+    public static final String TPS_LIMIT_STRATEGY_KEY = "tps.strategy";
+
+    public static final String TPS_LIMIT_SCOPE_KEY = "tps.scope";
+
+    public static final String DEFAULT_TPS_LIMIT_STRATEGY = "tokenbucket";
+
+    public static final String DEFAULT_TPS_LIMIT_SCOPE = "service";
+
     public static final String DECODE_IN_IO_THREAD_KEY = "decode.in.io";
 
     public static final boolean DEFAULT_DECODE_IN_IO_THREAD = true;
@@ -609,6 +696,9 @@ public class Constants {
 
     public static final String EXECUTOR_SERVICE_COMPONENT_KEY = ExecutorService.class.getName();
 
+    /** 服务或方法级别隔离的线程池，key为服务key，方法级别为服务key#方法名 */
+    public static final String ISOLATED_EXECUTOR_SERVICE_COMPONENT_KEY = EXECUTOR_SERVICE_COMPONENT_KEY + ".isolated";
+
     public static final String GENERIC_SERIALIZATION_NATIVE_JAVA = "nativejava";
 
     public static final String GENERIC_SERIALIZATION_DEFAULT = "true";
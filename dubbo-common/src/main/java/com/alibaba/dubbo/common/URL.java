@@ -90,6 +90,7 @@ public final class URL implements Serializable {
     private volatile transient String identity;
     private volatile transient String parameter;
     private volatile transient String string;
+    private volatile transient String serviceKey;
 
 
 
@@ -1259,6 +1260,10 @@ public final class URL implements Serializable {
      * @return
      */
     public String getServiceKey() {
+        // URL不可变，serviceKey只需计算一次
+        if (serviceKey != null) {
+            return serviceKey;
+        }
         // 获取接口的全限定类名，例如：com.alibaba.dubbo.demo.DemoService
         String inf = getServiceInterface();
         if (inf == null) return null;
@@ -1276,7 +1281,8 @@ public final class URL implements Serializable {
         if (version != null && version.length() > 0) {
             buf.append(":").append(version);
         }
-        return buf.toString();
+        serviceKey = buf.toString();
+        return serviceKey;
     }
 
     public String toServiceStringWithoutResolving() {
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.dubbo.common.serialize;
+
+import com.alibaba.dubbo.common.URL;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 在同一连接的多条消息之间共享状态的序列化。
+ * 状态由编解码器保存在连接的属性中，连接重建后重新创建，两端的状态随连接一起重置。
+ */
+public interface ConnectionScopedSerialization extends Serialization {
+
+    /**
+     * 为新连接创建状态
+     *
+     * @param url 连接的url
+     * @return 连接状态，线程安全
+     */
+    Object createConnectionState(URL url);
+
+    /**
+     * 在连接上序列化一条消息
+     */
+    ObjectOutput serialize(URL url, OutputStream output, Object connectionState) throws IOException;
+
+    /**
+     * 在连接上反序列化一条消息
+     */
+    ObjectInput deserialize(URL url, InputStream input, Object connectionState) throws IOException;
+
+}
@@ -16,19 +16,54 @@
  */
 package com.alibaba.dubbo.common.serialize.support;
 
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 序列化方式注册表
+ * <p>
+ * 除了通过{@link SerializationOptimizer}手工注册的类，还可以按服务接口自动注册，参见{@link #registerInterface(Class)}
  */
 public abstract class SerializableClassRegistry {
 
+    private static final Logger logger = LoggerFactory.getLogger(SerializableClassRegistry.class);
+
+    /**
+     * 自动注册的编号范围，避开kryo/fst内置和手工注册使用的小编号，并且不超过fst的short编号
+     */
+    public static final int AUTO_REGISTER_ID_BASE = 0x2000;
+
+    private static final int AUTO_REGISTER_ID_RANGE = 0x8000 - AUTO_REGISTER_ID_BASE;
+
     /**
      * 用于保存多个不同序列化方式的类
      */
     private static final Set<Class> registrations = new LinkedHashSet<Class>();
 
+    /** 进程内的自动注册状态 */
+    private static final AutoRegistry autoRegistry = new AutoRegistry();
+
     /**
      * only supposed to be called at startup time
      */
@@ -39,4 +74,222 @@ public abstract class SerializableClassRegistry {
     public static Set<Class> getRegisteredClasses() {
         return registrations;
     }
+
+    /**
+     * 返回按注册顺序排列的自动注册类，可以在任意时刻增加
+     */
+    public static List<Class> getAutoRegisteredClasses() {
+        return autoRegistry.classes;
+    }
+
+    /**
+     * 返回自动注册类的编号，未自动注册时返回-1
+     */
+    public static int getAutoRegisteredId(Class clazz) {
+        return autoRegistry.getRegisteredId(clazz);
+    }
+
+    /**
+     * 类的自动注册编号，只由类名决定，和注册顺序以及进程中注册过哪些类无关
+     */
+    public static int getAutoRegisterId(Class clazz) {
+        return getAutoRegisterId(clazz.getName());
+    }
+
+    /**
+     * 对类名取64位FNV-1a摘要，再映射到自动注册的编号范围
+     */
+    static int getAutoRegisterId(String className) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < className.length(); i++) {
+            hash ^= className.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return AUTO_REGISTER_ID_BASE + (int) ((hash >>> 1) % AUTO_REGISTER_ID_RANGE);
+    }
+
+    /**
+     * 扫描服务接口方法的参数、返回值和异常类型，以及这些类型的字段和泛型参数，自动注册其中的非JDK具体类。
+     * <p>
+     * 编号只由类名决定，不做探测：接口内编号相同的类两端都不注册；编号已被其他接口的类占用的类也不注册，
+     * 这两种情况下的类仍然按类名序列化。返回该接口的类中在本进程已注册的"类名=编号"列表的摘要，
+     * 两端对同一接口的摘要不同时，说明有类只在一端按编号序列化，可能被对端解释为另一个类或者无法识别。
+     * <p>
+     * 编号在一端注册、在另一端未注册的类（例如只在提供者的其他接口中声明、作为本接口声明类型的子类传递的类）
+     * 不会反映在摘要中，这类类需要两端都通过{@link SerializationOptimizer}注册，或者两端注册相同的接口。
+     *
+     * @return 该接口已注册类的"类名=编号"列表的摘要，没有注册的类时为"0"
+     */
+    public static String registerInterface(Class<?> interfaceClass) {
+        return autoRegistry.registerInterface(interfaceClass);
+    }
+
+    /**
+     * 自动注册的状态，和进程中的其他状态分开，以便在测试中模拟两端
+     */
+    static class AutoRegistry {
+
+        /** 自动注册的类及其编号 */
+        private final ConcurrentMap<Class, Integer> ids = new ConcurrentHashMap<Class, Integer>();
+
+        /** 编号到自动注册的类，只在注册时使用 */
+        private final Map<Integer, Class> classesById = new HashMap<Integer, Class>();
+
+        /** 按注册顺序排列的自动注册类，只会追加，序列化工厂据此补齐新注册的类 */
+        private volatile List<Class> classes = Collections.emptyList();
+
+        /** 已经扫描过的接口及其注册结果的摘要 */
+        private final ConcurrentMap<Class<?>, String> interfaceHashes = new ConcurrentHashMap<Class<?>, String>();
+
+        int getRegisteredId(Class clazz) {
+            Integer id = ids.get(clazz);
+            return id == null ? -1 : id;
+        }
+
+        /**
+         * 类的编号，测试中可以覆盖以构造编号冲突
+         */
+        int getId(Class clazz) {
+            return getAutoRegisterId(clazz);
+        }
+
+        String registerInterface(Class<?> interfaceClass) {
+            String hash = interfaceHashes.get(interfaceClass);
+            if (hash != null) {
+                return hash;
+            }
+            synchronized (this) {
+                hash = interfaceHashes.get(interfaceClass);
+                if (hash != null) {
+                    return hash;
+                }
+                hash = register(interfaceClass.getName(), scan(interfaceClass).values());
+                interfaceHashes.put(interfaceClass, hash);
+                return hash;
+            }
+        }
+
+        /**
+         * 注册一组按类名排序的类，返回其中已注册类的摘要
+         */
+        synchronized String register(String owner, Collection<Class> candidates) {
+            // 接口内编号相同的类，两端看到的是同一组类，因此都不注册
+            Map<Integer, List<Class>> byId = new HashMap<Integer, List<Class>>();
+            for (Class clazz : candidates) {
+                int id = getId(clazz);
+                List<Class> list = byId.get(id);
+                if (list == null) {
+                    list = new ArrayList<Class>();
+                    byId.put(id, list);
+                }
+                list.add(clazz);
+            }
+
+            List<Class> added = new ArrayList<Class>();
+            StringBuilder registered = new StringBuilder();
+            StringBuilder skipped = new StringBuilder();
+            int count = 0;
+            for (Class clazz : candidates) {
+                int id = getId(clazz);
+                if (!ids.containsKey(clazz)) {
+                    Class used = classesById.get(id);
+                    if (byId.get(id).size() > 1 || used != null) {
+                        skipped.append(skipped.length() == 0 ? "" : ", ").append(clazz.getName()).append(" (id ").append(id)
+                                .append(" used by ").append(used != null ? used.getName() : "another class of the interface").append(')');
+                        continue;
+                    }
+                    classesById.put(id, clazz);
+                    ids.put(clazz, id);
+                    added.add(clazz);
+                }
+                registered.append(registered.length() == 0 ? "" : ", ").append(clazz.getName()).append('=').append(id);
+                count++;
+            }
+            if (!added.isEmpty()) {
+                List<Class> list = new ArrayList<Class>(classes);
+                list.addAll(added);
+                classes = Collections.unmodifiableList(list);
+            }
+
+            logger.info("Auto registered " + count + " serializable classes of " + owner + ": [" + registered + "]");
+            if (skipped.length() > 0) {
+                logger.warn("Serializable classes of " + owner + " are not auto registered because of id conflicts, "
+                        + "register them by SerializationOptimizer if needed: [" + skipped + "]");
+            }
+            return Integer.toHexString(registered.toString().hashCode());
+        }
+    }
+
+    /**
+     * 按类名排序，保证两端的注册顺序相同
+     */
+    private static Map<String, Class> scan(Class<?> interfaceClass) {
+        Map<String, Class> classes = new TreeMap<String, Class>();
+        Set<Type> visited = new HashSet<Type>();
+        for (Method method : interfaceClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            for (Type type : method.getGenericParameterTypes()) {
+                scan(type, classes, visited);
+            }
+            scan(method.getGenericReturnType(), classes, visited);
+            for (Type type : method.getGenericExceptionTypes()) {
+                scan(type, classes, visited);
+            }
+        }
+        return classes;
+    }
+
+    private static void scan(Type type, Map<String, Class> classes, Set<Type> visited) {
+        if (!visited.add(type)) {
+            return;
+        }
+        if (type instanceof ParameterizedType) {
+            scan(((ParameterizedType) type).getRawType(), classes, visited);
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                scan(argument, classes, visited);
+            }
+        } else if (type instanceof GenericArrayType) {
+            scan(((GenericArrayType) type).getGenericComponentType(), classes, visited);
+        } else if (type instanceof WildcardType) {
+            for (Type bound : ((WildcardType) type).getUpperBounds()) {
+                scan(bound, classes, visited);
+            }
+            for (Type bound : ((WildcardType) type).getLowerBounds()) {
+                scan(bound, classes, visited);
+            }
+        } else if (type instanceof TypeVariable) {
+            for (Type bound : ((TypeVariable) type).getBounds()) {
+                scan(bound, classes, visited);
+            }
+        } else if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            if (clazz.isArray()) {
+                scan(clazz.getComponentType(), classes, visited);
+                return;
+            }
+            if (clazz.isPrimitive() || isJdkClass(clazz)) {
+                return;
+            }
+            if (!clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers())) {
+                classes.put(clazz.getName(), clazz);
+            }
+            for (Class<?> c = clazz; c != null && !isJdkClass(c); c = c.getSuperclass()) {
+                if (c.getGenericSuperclass() != null) {
+                    scan(c.getGenericSuperclass(), classes, visited);
+                }
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                        scan(field.getGenericType(), classes, visited);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isJdkClass(Class<?> clazz) {
+        String name = clazz.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.");
+    }
 }
@@ -24,12 +24,16 @@ import org.nustaq.serialization.FSTObjectOutput;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
 
 public class FstFactory {
 
     private static final FstFactory factory = new FstFactory();
 
-    private final FSTConfiguration conf = FSTConfiguration.createDefaultConfiguration();
+    private volatile FSTConfiguration conf;
+
+    /** 创建conf时的自动注册类，注册表中的列表变化后重新创建conf */
+    private volatile List<Class> autoClasses;
 
 
     public static FstFactory getDefaultFactory() {
@@ -37,16 +41,43 @@ public class FstFactory {
     }
 
     public FstFactory() {
-        for (Class clazz : SerializableClassRegistry.getRegisteredClasses()) {
-            conf.registerClass(clazz);
-        }
+        autoClasses = SerializableClassRegistry.getAutoRegisteredClasses();
+        conf = createConfiguration(autoClasses);
     }
 
     public FSTObjectOutput getObjectOutput(OutputStream outputStream) {
-        return conf.getObjectOutput(outputStream);
+        return getConfiguration().getObjectOutput(outputStream);
     }
 
     public FSTObjectInput getObjectInput(InputStream inputStream) {
-        return conf.getObjectInput(inputStream);
+        return getConfiguration().getObjectInput(inputStream);
+    }
+
+    /**
+     * fst的类注册表不能在使用中修改，有新的自动注册类时换用新的conf，已取出的流不受影响
+     */
+    private FSTConfiguration getConfiguration() {
+        List<Class> classes = SerializableClassRegistry.getAutoRegisteredClasses();
+        if (classes != autoClasses) {
+            synchronized (this) {
+                if (classes != autoClasses) {
+                    conf = createConfiguration(classes);
+                    autoClasses = classes;
+                }
+            }
+        }
+        return conf;
+    }
+
+    private static FSTConfiguration createConfiguration(List<Class> autoClasses) {
+        FSTConfiguration conf = FSTConfiguration.createDefaultConfiguration();
+        for (Class clazz : SerializableClassRegistry.getRegisteredClasses()) {
+            conf.registerClass(clazz);
+        }
+        // 自动注册的类使用固定编号；fst不能修改已注册类的编号，手工注册过的类保持原编号
+        for (Class clazz : autoClasses) {
+            conf.getClassRegistry().registerClass(clazz, SerializableClassRegistry.getAutoRegisteredId(clazz), conf);
+        }
+        return conf;
     }
 }
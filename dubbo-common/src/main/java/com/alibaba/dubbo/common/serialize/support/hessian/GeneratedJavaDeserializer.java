@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.serialize.support.hessian;
+
+import com.alibaba.com.caucho.hessian.io.AbstractHessianInput;
+import com.alibaba.com.caucho.hessian.io.HessianProtocolException;
+import com.alibaba.com.caucho.hessian.io.IOExceptionWrapper;
+import com.alibaba.com.caucho.hessian.io.JavaDeserializer;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 字段值由{@link HessianFieldAccessor}生成的代码读取的JavaDeserializer，按map方式读取时仍使用反射
+ */
+public class GeneratedJavaDeserializer extends JavaDeserializer {
+
+    private final HessianFieldAccessor accessor;
+
+    private final Method readResolve;
+
+    public GeneratedJavaDeserializer(Class<?> cl, HessianFieldAccessor accessor) {
+        super(cl);
+        this.accessor = accessor;
+        this.readResolve = getReadResolve(cl);
+        if (readResolve != null) {
+            readResolve.setAccessible(true);
+        }
+    }
+
+    @Override
+    public Object readObject(AbstractHessianInput in, Object obj, String[] fieldNames) throws IOException {
+        try {
+            int ref = in.addRef(obj);
+
+            for (int i = 0; i < fieldNames.length; i++) {
+                int index = accessor.getIndex(fieldNames[i]);
+                if (index < 0) {
+                    in.readObject();
+                    continue;
+                }
+                try {
+                    accessor.readField(index, obj, in);
+                } catch (Exception e) {
+                    throw accessor.readError(index, e);
+                }
+            }
+
+            Object resolve = resolve(obj);
+
+            if (obj != resolve)
+                in.setRef(ref, resolve);
+
+            return resolve;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOExceptionWrapper(obj.getClass().getName() + ":" + e, e);
+        }
+    }
+
+    @Override
+    protected Object instantiate() throws Exception {
+        Object obj;
+        try {
+            obj = accessor.newInstance();
+        } catch (RuntimeException e) {
+            throw new HessianProtocolException("'" + getType().getName() + "' could not be instantiated", e);
+        }
+        return obj != null ? obj : super.instantiate();
+    }
+
+    private Object resolve(Object obj) throws Exception {
+        try {
+            if (readResolve != null)
+                return readResolve.invoke(obj, new Object[0]);
+        } catch (InvocationTargetException e) {
+            if (e.getTargetException() != null)
+                throw e;
+        }
+
+        return obj;
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.serialize.support.hessian;
+
+import com.alibaba.com.caucho.hessian.io.AbstractHessianOutput;
+import com.alibaba.com.caucho.hessian.io.JavaSerializer;
+
+import java.io.IOException;
+
+/**
+ * 字段值由{@link HessianFieldAccessor}生成的代码写出的JavaSerializer，writeReplace和类定义的处理不变
+ */
+public class GeneratedJavaSerializer extends JavaSerializer {
+
+    private final HessianFieldAccessor accessor;
+
+    public GeneratedJavaSerializer(Class<?> cl, ClassLoader loader, HessianFieldAccessor accessor) {
+        super(cl, loader);
+        this.accessor = accessor;
+    }
+
+    @Override
+    public void writeInstance(Object obj, AbstractHessianOutput out) throws IOException {
+        accessor.writeFields(obj, out);
+    }
+
+}
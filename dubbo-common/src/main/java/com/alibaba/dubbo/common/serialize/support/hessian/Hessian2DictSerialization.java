@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.dubbo.common.serialize.support.hessian;
+
+import com.alibaba.com.caucho.hessian.io.ClassDefinitionDictionary;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.serialize.ConnectionScopedSerialization;
+import com.alibaba.dubbo.common.serialize.ObjectInput;
+import com.alibaba.dubbo.common.serialize.ObjectOutput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 在长连接上缓存类定义的Hessian2序列化，参见{@link ClassDefinitionDictionary}。
+ * 类定义第一次在连接上使用时完整写出，对端确认后只写引用；使用独立的序列化编号，不支持的对端会直接报错。
+ * 脱离连接使用时每条消息独立，和普通Hessian2一样完整写出类定义。
+ */
+public class Hessian2DictSerialization extends Hessian2Serialization implements ConnectionScopedSerialization {
+
+    public static final byte ID = 10;
+
+    @Override
+    public byte getContentTypeId() {
+        return ID;
+    }
+
+    @Override
+    public String getContentType() {
+        return "x-application/hessian2-dict";
+    }
+
+    public Object createConnectionState(URL url) {
+        return new ClassDefinitionDictionary();
+    }
+
+    @Override
+    public ObjectOutput serialize(URL url, OutputStream out) throws IOException {
+        return serialize(url, out, new ClassDefinitionDictionary());
+    }
+
+    @Override
+    public ObjectInput deserialize(URL url, InputStream is) throws IOException {
+        return deserialize(url, is, new ClassDefinitionDictionary());
+    }
+
+    public ObjectOutput serialize(URL url, OutputStream out, Object connectionState) throws IOException {
+        Hessian2ObjectOutput output = (Hessian2ObjectOutput) super.serialize(url, out);
+        output.startClassDictionary((ClassDefinitionDictionary) connectionState);
+        return output;
+    }
+
+    public ObjectInput deserialize(URL url, InputStream is, Object connectionState) throws IOException {
+        Hessian2ObjectInput input = (Hessian2ObjectInput) super.deserialize(url, is);
+        input.startClassDictionary((ClassDefinitionDictionary) connectionState);
+        return input;
+    }
+
+}
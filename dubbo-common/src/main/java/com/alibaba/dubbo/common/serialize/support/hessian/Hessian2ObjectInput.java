@@ -16,7 +16,10 @@
  */
 package com.alibaba.dubbo.common.serialize.support.hessian;
 
+import com.alibaba.com.caucho.hessian.io.ClassDefinitionDictionary;
 import com.alibaba.com.caucho.hessian.io.Hessian2Input;
+import com.alibaba.com.caucho.hessian.io.SerializerFactory;
+import com.alibaba.dubbo.common.serialize.Cleanable;
 import com.alibaba.dubbo.common.serialize.ObjectInput;
 
 import java.io.IOException;
@@ -26,12 +29,41 @@ import java.lang.reflect.Type;
 /**
  * Hessian2 Object input.
  */
-public class Hessian2ObjectInput implements ObjectInput {
+public class Hessian2ObjectInput implements ObjectInput, Cleanable {
+    /** 当前线程空闲的可复用实例，使用时取出，cleanup后放回 */
+    private static final ThreadLocal<Hessian2ObjectInput> CACHED = new ThreadLocal<Hessian2ObjectInput>();
+
     private final Hessian2Input mH2i;
+    private final boolean reusable;
 
     public Hessian2ObjectInput(InputStream is) {
+        this(is, false);
+    }
+
+    private Hessian2ObjectInput(InputStream is, boolean reusable) {
         mH2i = new Hessian2Input(is);
         mH2i.setSerializerFactory(Hessian2SerializerFactory.SERIALIZER_FACTORY);
+        this.reusable = reusable;
+    }
+
+    /**
+     * 取出当前线程空闲的实例并绑定到新的流上，没有空闲实例（例如嵌套使用或上次未cleanup）时新建
+     */
+    static Hessian2ObjectInput reuse(InputStream is) {
+        Hessian2ObjectInput cached = CACHED.get();
+        if (cached == null) {
+            return new Hessian2ObjectInput(is, true);
+        }
+        CACHED.set(null);
+        cached.mH2i.init(is);
+        return cached;
+    }
+
+    /**
+     * 复用的实例可能来自另一种工厂，每次使用前重新设置
+     */
+    void setSerializerFactory(SerializerFactory serializerFactory) {
+        mH2i.setSerializerFactory(serializerFactory);
     }
 
     public boolean readBool() throws IOException {
@@ -84,4 +116,20 @@ public class Hessian2ObjectInput implements ObjectInput {
         return readObject(cls);
     }
 
-}
\ No newline at end of file
+    /**
+     * 在连接上共享类定义，需在读写任何数据前调用
+     */
+    void startClassDictionary(ClassDefinitionDictionary dictionary) throws IOException {
+        mH2i.startClassDictionary(dictionary);
+    }
+
+    /**
+     * 释放对流和对象图的引用，可复用的实例放回当前线程
+     */
+    public void cleanup() {
+        if (reusable) {
+            mH2i.init(null);
+            CACHED.set(this);
+        }
+    }
+}
@@ -16,7 +16,10 @@
  */
 package com.alibaba.dubbo.common.serialize.support.hessian;
 
+import com.alibaba.com.caucho.hessian.io.ClassDefinitionDictionary;
 import com.alibaba.com.caucho.hessian.io.Hessian2Output;
+import com.alibaba.com.caucho.hessian.io.SerializerFactory;
+import com.alibaba.dubbo.common.serialize.Cleanable;
 import com.alibaba.dubbo.common.serialize.ObjectOutput;
 
 import java.io.IOException;
@@ -25,12 +28,41 @@ import java.io.OutputStream;
 /**
  * Hessian2 Object output.
  */
-public class Hessian2ObjectOutput implements ObjectOutput {
+public class Hessian2ObjectOutput implements ObjectOutput, Cleanable {
+    /** 当前线程空闲的可复用实例，使用时取出，cleanup后放回 */
+    private static final ThreadLocal<Hessian2ObjectOutput> CACHED = new ThreadLocal<Hessian2ObjectOutput>();
+
     private final Hessian2Output mH2o;
+    private final boolean reusable;
 
     public Hessian2ObjectOutput(OutputStream os) {
+        this(os, false);
+    }
+
+    private Hessian2ObjectOutput(OutputStream os, boolean reusable) {
         mH2o = new Hessian2Output(os);
         mH2o.setSerializerFactory(Hessian2SerializerFactory.SERIALIZER_FACTORY);
+        this.reusable = reusable;
+    }
+
+    /**
+     * 取出当前线程空闲的实例并绑定到新的流上，没有空闲实例（例如嵌套使用或上次未cleanup）时新建
+     */
+    static Hessian2ObjectOutput reuse(OutputStream os) {
+        Hessian2ObjectOutput cached = CACHED.get();
+        if (cached == null) {
+            return new Hessian2ObjectOutput(os, true);
+        }
+        CACHED.set(null);
+        cached.mH2o.init(os);
+        return cached;
+    }
+
+    /**
+     * 复用的实例可能来自另一种工厂，每次使用前重新设置
+     */
+    void setSerializerFactory(SerializerFactory serializerFactory) {
+        mH2o.setSerializerFactory(serializerFactory);
     }
 
     public void writeBool(boolean v) throws IOException {
@@ -80,4 +112,21 @@ public class Hessian2ObjectOutput implements ObjectOutput {
     public void flushBuffer() throws IOException {
         mH2o.flushBuffer();
     }
-}
\ No newline at end of file
+
+    /**
+     * 在连接上共享类定义，需在读写任何数据前调用
+     */
+    void startClassDictionary(ClassDefinitionDictionary dictionary) throws IOException {
+        mH2o.startClassDictionary(dictionary);
+    }
+
+    /**
+     * 释放对流和对象图的引用，可复用的实例放回当前线程
+     */
+    public void cleanup() {
+        if (reusable) {
+            mH2o.init(null);
+            CACHED.set(this);
+        }
+    }
+}
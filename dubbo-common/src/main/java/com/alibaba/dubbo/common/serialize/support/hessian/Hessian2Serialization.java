@@ -16,6 +16,8 @@
  */
 package com.alibaba.dubbo.common.serialize.support.hessian;
 
+import com.alibaba.com.caucho.hessian.io.SerializerFactory;
+import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.serialize.ObjectInput;
 import com.alibaba.dubbo.common.serialize.ObjectOutput;
@@ -37,12 +39,39 @@ public class Hessian2Serialization implements Serialization {
         return "x-application/hessian2";
     }
 
+    /**
+     * 开启hessian2.reuse后，复用当前线程的Hessian2Output，调用方需在使用完后调用{@link com.alibaba.dubbo.common.serialize.Cleanable#cleanup()}归还
+     */
     public ObjectOutput serialize(URL url, OutputStream out) throws IOException {
-        return new Hessian2ObjectOutput(out);
+        Hessian2ObjectOutput output;
+        if (url != null && url.getParameter(Constants.HESSIAN2_REUSE_KEY, false)) {
+            output = Hessian2ObjectOutput.reuse(out);
+        } else {
+            output = new Hessian2ObjectOutput(out);
+        }
+        output.setSerializerFactory(getSerializerFactory(url));
+        return output;
     }
 
     public ObjectInput deserialize(URL url, InputStream is) throws IOException {
-        return new Hessian2ObjectInput(is);
+        Hessian2ObjectInput input;
+        if (url != null && url.getParameter(Constants.HESSIAN2_REUSE_KEY, false)) {
+            input = Hessian2ObjectInput.reuse(is);
+        } else {
+            input = new Hessian2ObjectInput(is);
+        }
+        input.setSerializerFactory(getSerializerFactory(url));
+        return input;
+    }
+
+    /**
+     * 开启hessian2.generated后，字段用生成的代码读写，序列化结果不变，可以和未开启的一端互通
+     */
+    private static SerializerFactory getSerializerFactory(URL url) {
+        if (url != null && url.getParameter(Constants.HESSIAN2_GENERATED_KEY, false)) {
+            return Hessian2SerializerFactory.GENERATED_SERIALIZER_FACTORY;
+        }
+        return Hessian2SerializerFactory.SERIALIZER_FACTORY;
     }
 
 }
\ No newline at end of file
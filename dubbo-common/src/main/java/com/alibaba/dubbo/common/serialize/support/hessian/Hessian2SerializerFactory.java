@@ -16,13 +16,29 @@
  */
 package com.alibaba.dubbo.common.serialize.support.hessian;
 
+import com.alibaba.com.caucho.hessian.io.Deserializer;
+import com.alibaba.com.caucho.hessian.io.Serializer;
 import com.alibaba.com.caucho.hessian.io.SerializerFactory;
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+
+import java.io.Serializable;
 
 public class Hessian2SerializerFactory extends SerializerFactory {
 
-    public static final SerializerFactory SERIALIZER_FACTORY = new Hessian2SerializerFactory();
+    private static final Logger logger = LoggerFactory.getLogger(Hessian2SerializerFactory.class);
+
+    public static final SerializerFactory SERIALIZER_FACTORY = new Hessian2SerializerFactory(false);
+
+    /**
+     * 普通类的字段用生成的代码读写，参见{@link HessianFieldAccessor}，序列化结果和SERIALIZER_FACTORY相同
+     */
+    public static final SerializerFactory GENERATED_SERIALIZER_FACTORY = new Hessian2SerializerFactory(true);
 
-    private Hessian2SerializerFactory() {
+    private final boolean generated;
+
+    private Hessian2SerializerFactory(boolean generated) {
+        this.generated = generated;
     }
 
     @Override
@@ -30,4 +46,39 @@ public class Hessian2SerializerFactory extends SerializerFactory {
         return Thread.currentThread().getContextClassLoader();
     }
 
+    @Override
+    protected Serializer getDefaultSerializer(Class cl) {
+        if (generated && _defaultSerializer == null
+                && (Serializable.class.isAssignableFrom(cl) || isAllowNonSerializable())) {
+            HessianFieldAccessor accessor = getAccessor(cl);
+            if (accessor != null) {
+                return new GeneratedJavaSerializer(cl, getClassLoader(), accessor);
+            }
+        }
+        return super.getDefaultSerializer(cl);
+    }
+
+    @Override
+    protected Deserializer getDefaultDeserializer(Class cl) {
+        if (generated) {
+            HessianFieldAccessor accessor = getAccessor(cl);
+            if (accessor != null) {
+                return new GeneratedJavaDeserializer(cl, accessor);
+            }
+        }
+        return super.getDefaultDeserializer(cl);
+    }
+
+    /**
+     * 生成失败时退回反射方式
+     */
+    private static HessianFieldAccessor getAccessor(Class<?> cl) {
+        try {
+            return HessianFieldAccessor.getAccessor(cl);
+        } catch (Throwable t) {
+            logger.warn("Failed to generate hessian field accessor for " + cl.getName() + ", use reflection instead: " + t.getMessage(), t);
+            return null;
+        }
+    }
+
 }
@@ -0,0 +1,536 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.serialize.support.hessian;
+
+import com.alibaba.com.caucho.hessian.io.AbstractHessianInput;
+import com.alibaba.com.caucho.hessian.io.AbstractHessianOutput;
+import com.alibaba.com.caucho.hessian.io.HessianFieldException;
+import com.alibaba.com.caucho.hessian.io.IOExceptionWrapper;
+import com.alibaba.dubbo.common.bytecode.ClassGenerator;
+import com.alibaba.dubbo.common.utils.ClassHelper;
+import com.alibaba.dubbo.common.utils.ReflectUtils;
+import sun.misc.Unsafe;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用ClassGenerator为一个类生成的字段读写器，替代JavaSerializer/JavaDeserializer中逐个字段的反射读写。
+ * <p>
+ * 字段顺序和JavaSerializer一致（先基本类型后复合类型），以保证和反射方式的序列化结果完全相同。
+ * 生成的类不在目标类的包中，public类中类型为public的public字段直接访问，其余字段（包括private字段和被子类同名字段隐藏的父类字段）
+ * 通过Unsafe按字段偏移量读写；Unsafe不可用时，以及char字段和final字段的读取，仍然通过反射完成。
+ * 不调用getXxx/setXxx方法，以免属性方法中的转换或校验逻辑改变序列化结果。
+ */
+public abstract class HessianFieldAccessor {
+
+    private static final AtomicLong ACCESSOR_CLASS_COUNTER = new AtomicLong(0);
+
+    /** 读写不能直接访问的字段，不可用时这些字段通过反射读写 */
+    private static final Unsafe UNSAFE = getUnsafe();
+
+    private static final ConcurrentMap<Class<?>, HessianFieldAccessor> ACCESSORS = new ConcurrentHashMap<Class<?>, HessianFieldAccessor>();
+
+    /** 按JavaSerializer的顺序排列的字段 */
+    protected Field[] fields;
+
+    /** fields对应的字段类型，供生成的代码读取复合类型字段时使用 */
+    protected Class<?>[] types;
+
+    /** fields中各字段的偏移量，UNSAFE不可用时为null */
+    private long[] offsets;
+
+    /** 各字段是否由生成的代码读写 */
+    private boolean[] generated;
+
+    /** 字段名到fields下标的映射，同名字段取子类中的那个，和JavaDeserializer一致 */
+    private Map<String, Integer> indexes;
+
+    protected HessianFieldAccessor() {
+    }
+
+    /**
+     * 返回类对应的字段读写器，类不是public时无法生成，返回null
+     */
+    public static HessianFieldAccessor getAccessor(Class<?> cl) {
+        if (!Modifier.isPublic(cl.getModifiers()) || cl.isInterface() || cl.isArray() || cl.isPrimitive()
+                || ClassGenerator.isDynamicClass(cl)) {
+            return null;
+        }
+        HessianFieldAccessor accessor = ACCESSORS.get(cl);
+        if (accessor == null) {
+            accessor = makeAccessor(cl);
+            HessianFieldAccessor old = ACCESSORS.putIfAbsent(cl, accessor);
+            if (old != null) {
+                accessor = old;
+            }
+        }
+        return accessor;
+    }
+
+    /**
+     * 依次写出所有字段的值
+     */
+    public abstract void writeFields(Object obj, AbstractHessianOutput out) throws IOException;
+
+    /**
+     * 读取下标为index的字段的值并设置到obj上
+     */
+    public abstract void readField(int index, Object obj, AbstractHessianInput in) throws IOException;
+
+    /**
+     * 通过public无参构造器创建实例，没有这样的构造器时返回null
+     */
+    public abstract Object newInstance();
+
+    /**
+     * 返回字段名对应的下标，没有该字段时返回-1
+     */
+    public int getIndex(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index.intValue();
+    }
+
+    public Field getField(int index) {
+        return fields[index];
+    }
+
+    /**
+     * 字段是否由生成的代码读写，为false时通过反射读写
+     */
+    public boolean isGenerated(int index) {
+        return generated[index];
+    }
+
+    protected final boolean booleanAt(Object o, int index) {
+        return UNSAFE.getBoolean(o, offsets[index]);
+    }
+
+    protected final byte byteAt(Object o, int index) {
+        return UNSAFE.getByte(o, offsets[index]);
+    }
+
+    protected final short shortAt(Object o, int index) {
+        return UNSAFE.getShort(o, offsets[index]);
+    }
+
+    protected final int intAt(Object o, int index) {
+        return UNSAFE.getInt(o, offsets[index]);
+    }
+
+    protected final long longAt(Object o, int index) {
+        return UNSAFE.getLong(o, offsets[index]);
+    }
+
+    protected final float floatAt(Object o, int index) {
+        return UNSAFE.getFloat(o, offsets[index]);
+    }
+
+    protected final double doubleAt(Object o, int index) {
+        return UNSAFE.getDouble(o, offsets[index]);
+    }
+
+    protected final Object objectAt(Object o, int index) {
+        return UNSAFE.getObject(o, offsets[index]);
+    }
+
+    protected final void putBoolean(Object o, int index, boolean value) {
+        UNSAFE.putBoolean(o, offsets[index], value);
+    }
+
+    protected final void putByte(Object o, int index, byte value) {
+        UNSAFE.putByte(o, offsets[index], value);
+    }
+
+    protected final void putShort(Object o, int index, short value) {
+        UNSAFE.putShort(o, offsets[index], value);
+    }
+
+    protected final void putInt(Object o, int index, int value) {
+        UNSAFE.putInt(o, offsets[index], value);
+    }
+
+    protected final void putLong(Object o, int index, long value) {
+        UNSAFE.putLong(o, offsets[index], value);
+    }
+
+    protected final void putFloat(Object o, int index, float value) {
+        UNSAFE.putFloat(o, offsets[index], value);
+    }
+
+    protected final void putDouble(Object o, int index, double value) {
+        UNSAFE.putDouble(o, offsets[index], value);
+    }
+
+    /**
+     * Unsafe不检查类型，和反射一样先确认值可以赋给该字段
+     */
+    protected final void putObject(Object o, int index, Object value) throws IOException {
+        if (value != null && !types[index].isInstance(value)) {
+            throw readError(index, value, new ClassCastException(value.getClass().getName()));
+        }
+        UNSAFE.putObject(o, offsets[index], value);
+    }
+
+    /**
+     * 用反射写出不能直接访问的字段，写法和JavaSerializer中对应的FieldSerializer相同
+     */
+    protected void writeReflect(int index, Object obj, AbstractHessianOutput out) throws IOException {
+        Field field = fields[index];
+        Class<?> type = types[index];
+        Object value;
+        try {
+            value = field.get(obj);
+        } catch (IllegalAccessException e) {
+            throw new IOExceptionWrapper(e.getMessage() + "\n Java field: " + field, e);
+        }
+        try {
+            if (type == int.class || type == byte.class || type == short.class) {
+                out.writeInt(((Number) value).intValue());
+            } else if (type == long.class) {
+                out.writeLong(((Long) value).longValue());
+            } else if (type == double.class || type == float.class) {
+                out.writeDouble(((Number) value).doubleValue());
+            } else if (type == boolean.class) {
+                out.writeBoolean(((Boolean) value).booleanValue());
+            } else if (type == String.class) {
+                out.writeString((String) value);
+            } else if (isDate(type)) {
+                if (value == null) {
+                    out.writeNull();
+                } else {
+                    out.writeUTCDate(((java.util.Date) value).getTime());
+                }
+            } else {
+                out.writeObject(value);
+            }
+        } catch (IOException e) {
+            throw fieldIOException(index, e);
+        } catch (RuntimeException e) {
+            throw fieldRuntimeException(index, e);
+        }
+    }
+
+    /**
+     * 用反射读取不能直接访问的字段，读法和JavaDeserializer中对应的FieldDeserializer相同
+     */
+    protected void readReflect(int index, Object obj, AbstractHessianInput in) throws IOException {
+        Field field = fields[index];
+        Class<?> type = types[index];
+        Object value;
+        if (type == String.class) {
+            value = in.readString();
+        } else if (type == byte.class) {
+            value = Byte.valueOf((byte) in.readInt());
+        } else if (type == short.class) {
+            value = Short.valueOf((short) in.readInt());
+        } else if (type == int.class) {
+            value = Integer.valueOf(in.readInt());
+        } else if (type == long.class) {
+            value = Long.valueOf(in.readLong());
+        } else if (type == float.class) {
+            value = Float.valueOf((float) in.readDouble());
+        } else if (type == double.class) {
+            value = Double.valueOf(in.readDouble());
+        } else if (type == boolean.class) {
+            value = Boolean.valueOf(in.readBoolean());
+        } else if (type == java.sql.Date.class || type == java.sql.Timestamp.class || type == java.sql.Time.class) {
+            value = toSqlDate(type, (java.util.Date) in.readObject());
+        } else {
+            value = in.readObject(type);
+        }
+        try {
+            field.set(obj, value);
+        } catch (Exception e) {
+            throw readError(index, value, e);
+        }
+    }
+
+    protected IOException fieldIOException(int index, IOException e) {
+        return new IOExceptionWrapper(e.getMessage() + "\n Java field: " + fields[index], e);
+    }
+
+    protected RuntimeException fieldRuntimeException(int index, RuntimeException e) {
+        return new RuntimeException(e.getMessage() + "\n Java field: " + fields[index], e);
+    }
+
+    /**
+     * 生成的代码读取字段失败时的异常
+     */
+    IOException readError(int index, Throwable e) {
+        if (e instanceof HessianFieldException)
+            return (HessianFieldException) e;
+        Field field = fields[index];
+        return new HessianFieldException(field.getDeclaringClass().getName() + "." + field.getName() + ": " + e.getMessage(), e);
+    }
+
+    /**
+     * 反射设置字段失败时的异常，和JavaDeserializer的格式一致
+     */
+    private IOException readError(int index, Object value, Throwable e) {
+        Field field = fields[index];
+        String fieldName = field.getDeclaringClass().getName() + "." + field.getName();
+        if (e instanceof HessianFieldException)
+            return (HessianFieldException) e;
+        else if (e instanceof IOException)
+            return new HessianFieldException(fieldName + ": " + e.getMessage(), e);
+        if (value != null)
+            return new HessianFieldException(fieldName + ": " + value.getClass().getName() + " (" + value + ")"
+                    + " cannot be assigned to '" + field.getType().getName() + "'", e);
+        else
+            return new HessianFieldException(fieldName + ": " + field.getType().getName() + " cannot be assigned from null", e);
+    }
+
+    protected static Object toSqlDate(Class<?> type, java.util.Date date) {
+        if (date == null)
+            return null;
+        if (type == java.sql.Date.class)
+            return new java.sql.Date(date.getTime());
+        if (type == java.sql.Timestamp.class)
+            return new java.sql.Timestamp(date.getTime());
+        return new java.sql.Time(date.getTime());
+    }
+
+    private static boolean isDate(Class<?> type) {
+        return type == java.util.Date.class || type == java.sql.Date.class
+                || type == java.sql.Timestamp.class || type == java.sql.Time.class;
+    }
+
+    private static HessianFieldAccessor makeAccessor(Class<?> c) {
+        String name = c.getName();
+
+        // 字段顺序和JavaSerializer一致
+        List<Field> primitiveFields = new ArrayList<Field>();
+        List<Field> compoundFields = new ArrayList<Field>();
+        // 按子类到父类的顺序，用于确定同名字段
+        List<Field> declaredFields = new ArrayList<Field>();
+        for (Class<?> cl = c; cl != null; cl = cl.getSuperclass()) {
+            for (Field field : cl.getDeclaredFields()) {
+                if (Modifier.isTransient(field.getModifiers()) || Modifier.isStatic(field.getModifiers()))
+                    continue;
+                try {
+                    field.setAccessible(true);
+                } catch (Throwable e) {
+                    // 和JavaSerializer一样忽略，访问失败时在读写时报错
+                }
+                if (field.getType().isPrimitive()
+                        || (field.getType().getName().startsWith("java.lang.") && !field.getType().equals(Object.class)))
+                    primitiveFields.add(field);
+                else
+                    compoundFields.add(field);
+                declaredFields.add(field);
+            }
+        }
+        List<Field> fields = new ArrayList<Field>(primitiveFields);
+        fields.addAll(compoundFields);
+
+        Map<String, Integer> indexes = new HashMap<String, Integer>();
+        Set<Field> hidden = new HashSet<Field>();
+        for (Field field : declaredFields) {
+            if (indexes.containsKey(field.getName()))
+                hidden.add(field);
+            else
+                indexes.put(field.getName(), fields.indexOf(field));
+        }
+
+        StringBuilder c1 = new StringBuilder("public void writeFields(Object o, ")
+                .append(AbstractHessianOutput.class.getName()).append(" out) throws java.io.IOException { ")
+                .append(name).append(" w = (").append(name).append(")$1;");
+        StringBuilder c2 = new StringBuilder("public void readField(int i, Object o, ")
+                .append(AbstractHessianInput.class.getName()).append(" in) throws java.io.IOException { ")
+                .append(name).append(" w = (").append(name).append(")$2;");
+
+        boolean[] generated = new boolean[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            Class<?> type = field.getType();
+            // 被隐藏的字段不会按名字读取，只需要写出
+            String getter = type == char.class ? null : getter(field, i, hidden.contains(field));
+            String setter = type == char.class || hidden.contains(field) ? null : setter(field, i);
+            generated[i] = getter != null && (setter != null || hidden.contains(field));
+
+            if (getter == null)
+                c1.append(" writeReflect(").append(i).append(", $1, $2);");
+            else
+                c1.append(' ').append(write(i, type, getter));
+
+            if (setter != null)
+                c2.append(" if( $1 == ").append(i).append(" ){ ").append(read(i, type, setter)).append(" return; }");
+        }
+        c1.append(" }");
+        c2.append(" readReflect($1, $2, $3); }");
+
+        String c3 = "public Object newInstance(){ return null; }";
+        if (!Modifier.isAbstract(c.getModifiers()) && (c.getEnclosingClass() == null || Modifier.isStatic(c.getModifiers()))) {
+            try {
+                Constructor<?> constructor = c.getConstructor();
+                if (Modifier.isPublic(constructor.getModifiers()))
+                    c3 = "public Object newInstance(){ return new " + name + "(); }";
+            } catch (NoSuchMethodException e) {
+                // 由JavaDeserializer选择构造器
+            }
+        }
+
+        ClassGenerator cc = ClassGenerator.newInstance(ClassHelper.getClassLoader(c));
+        cc.setClassName(HessianFieldAccessor.class.getName() + ACCESSOR_CLASS_COUNTER.getAndIncrement());
+        cc.setSuperClass(HessianFieldAccessor.class);
+        cc.addDefaultConstructor();
+        cc.addMethod(c1.toString());
+        cc.addMethod(c2.toString());
+        cc.addMethod(c3);
+        try {
+            Class<?> ac = cc.toClass();
+            HessianFieldAccessor accessor = (HessianFieldAccessor) ac.newInstance();
+            accessor.fields = fields.toArray(new Field[fields.size()]);
+            accessor.types = new Class<?>[fields.size()];
+            for (int i = 0; i < fields.size(); i++)
+                accessor.types[i] = fields.get(i).getType();
+            accessor.indexes = indexes;
+            accessor.generated = generated;
+            if (UNSAFE != null) {
+                accessor.offsets = new long[fields.size()];
+                for (int i = 0; i < fields.size(); i++)
+                    accessor.offsets[i] = UNSAFE.objectFieldOffset(fields.get(i));
+            }
+            return accessor;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            cc.release();
+        }
+    }
+
+    /**
+     * 生成写出一个字段的代码，和JavaSerializer.getFieldSerializer的分类一致
+     */
+    private static String write(int index, Class<?> type, String getter) {
+        if (type == int.class || type == byte.class || type == short.class)
+            return "$2.writeInt((int) " + getter + ");";
+        if (type == long.class)
+            return "$2.writeLong(" + getter + ");";
+        if (type == double.class || type == float.class)
+            return "$2.writeDouble((double) " + getter + ");";
+        if (type == boolean.class)
+            return "$2.writeBoolean(" + getter + ");";
+        if (type == String.class)
+            return "$2.writeString(" + getter + ");";
+        if (isDate(type))
+            return "{ java.util.Date d" + index + " = " + getter + "; if( d" + index + " == null ) $2.writeNull(); else $2.writeUTCDate(d" + index + ".getTime()); }";
+        return "try{ $2.writeObject(" + getter + "); }"
+                + "catch(java.io.IOException e" + index + "){ throw fieldIOException(" + index + ", e" + index + "); }"
+                + "catch(RuntimeException r" + index + "){ throw fieldRuntimeException(" + index + ", r" + index + "); }";
+    }
+
+    /**
+     * 生成读取一个字段的代码，和JavaDeserializer.getFieldMap的分类一致
+     */
+    private static String read(int index, Class<?> type, String setter) {
+        String value;
+        if (type == String.class)
+            value = "$3.readString()";
+        else if (type == byte.class)
+            value = "(byte) $3.readInt()";
+        else if (type == short.class)
+            value = "(short) $3.readInt()";
+        else if (type == int.class)
+            value = "$3.readInt()";
+        else if (type == long.class)
+            value = "$3.readLong()";
+        else if (type == float.class)
+            value = "(float) $3.readDouble()";
+        else if (type == double.class)
+            value = "$3.readDouble()";
+        else if (type == boolean.class)
+            value = "$3.readBoolean()";
+        else if (type == java.sql.Date.class || type == java.sql.Timestamp.class || type == java.sql.Time.class)
+            value = "(" + type.getName() + ") toSqlDate(types[" + index + "], (java.util.Date) $3.readObject())";
+        else if (setter.startsWith("w."))
+            value = "(" + ReflectUtils.getName(type) + ") $3.readObject(types[" + index + "])";
+        else
+            // 通过Unsafe设置时由putObject检查类型，字段类型可能不能在生成的类中访问
+            value = "$3.readObject(types[" + index + "])";
+        return String.format(setter, value);
+    }
+
+    /**
+     * 返回读取字段值的表达式，不能直接访问时返回null
+     */
+    private static String getter(Field field, int index, boolean hidden) {
+        if (!hidden && isAccessible(field))
+            return "w." + field.getName();
+        if (UNSAFE == null)
+            return null;
+        Class<?> type = field.getType();
+        if (type.isPrimitive())
+            return type.getName() + "At($1, " + index + ")";
+        if (type == String.class || isDate(type))
+            return "((" + type.getName() + ") objectAt($1, " + index + "))";
+        return "objectAt($1, " + index + ")";
+    }
+
+    /**
+     * 返回设置字段值的语句模板，值的位置为%s，不能直接访问时返回null
+     */
+    private static String setter(Field field, int index) {
+        if (Modifier.isFinal(field.getModifiers()))
+            return null;
+        if (isAccessible(field))
+            return "w." + field.getName() + " = %s;";
+        if (UNSAFE == null)
+            return null;
+        Class<?> type = field.getType();
+        if (type.isPrimitive())
+            return "put" + Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1)
+                    + "($2, " + index + ", %s);";
+        return "putObject($2, " + index + ", %s);";
+    }
+
+    /**
+     * 生成的类可以直接访问的字段：public类中类型为public的public字段
+     */
+    private static boolean isAccessible(Field field) {
+        Class<?> type = field.getType();
+        while (type.isArray())
+            type = type.getComponentType();
+        return Modifier.isPublic(field.getModifiers()) && Modifier.isPublic(field.getDeclaringClass().getModifiers())
+                && Modifier.isPublic(type.getModifiers());
+    }
+
+    private static Unsafe getUnsafe() {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (Unsafe) field.get(null);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+}
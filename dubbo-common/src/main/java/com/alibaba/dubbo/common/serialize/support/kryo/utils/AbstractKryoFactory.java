@@ -22,6 +22,7 @@ import com.alibaba.dubbo.common.serialize.support.kryo.CompatibleKryo;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.pool.KryoFactory;
 import com.esotericsoftware.kryo.serializers.DefaultSerializers;
+import com.esotericsoftware.kryo.util.ObjectMap;
 import de.javakaffee.kryoserializers.ArraysAsListSerializer;
 import de.javakaffee.kryoserializers.BitSetSerializer;
 import de.javakaffee.kryoserializers.GregorianCalendarSerializer;
@@ -48,6 +49,7 @@ import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
@@ -57,6 +59,9 @@ import java.util.regex.Pattern;
 
 public abstract class AbstractKryoFactory implements KryoFactory {
 
+    /** kryo context中记录已补齐的自动注册类数量的key */
+    private static final String AUTO_REGISTERED_KEY = "dubbo.auto.registered";
+
     private final Set<Class> registrations = new LinkedHashSet<Class>();
 
     private boolean registrationRequired;
@@ -137,9 +142,30 @@ public abstract class AbstractKryoFactory implements KryoFactory {
             kryo.register(clazz);
         }
 
+        registerAutoClasses(kryo);
+
         return kryo;
     }
 
+    /**
+     * 补齐SerializableClassRegistry中新增的自动注册类，kryo实例每次取出时调用，已是最新时只有一次context查找。
+     * 自动注册的类使用固定编号，已手工注册过的类也以该编号为准
+     */
+    public void registerAutoClasses(Kryo kryo) {
+        List<Class> classes = SerializableClassRegistry.getAutoRegisteredClasses();
+        ObjectMap context = kryo.getContext();
+        Integer registered = (Integer) context.get(AUTO_REGISTERED_KEY);
+        int from = registered == null ? 0 : registered;
+        if (from == classes.size()) {
+            return;
+        }
+        for (int i = from; i < classes.size(); i++) {
+            Class clazz = classes.get(i);
+            kryo.register(clazz, SerializableClassRegistry.getAutoRegisteredId(clazz));
+        }
+        context.put(AUTO_REGISTERED_KEY, classes.size());
+    }
+
     public void setRegistrationRequired(boolean registrationRequired) {
         this.registrationRequired = registrationRequired;
     }
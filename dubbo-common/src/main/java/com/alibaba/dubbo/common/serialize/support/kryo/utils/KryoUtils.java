@@ -27,7 +27,9 @@ public class KryoUtils {
     private static AbstractKryoFactory kryoFactory = new ThreadLocalKryoFactory();
 
     public static Kryo get() {
-        return kryoFactory.getKryo();
+        Kryo kryo = kryoFactory.getKryo();
+        kryoFactory.registerAutoClasses(kryo);
+        return kryo;
     }
 
     public static void release(Kryo kryo) {
@@ -31,6 +31,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 线程池拒绝策略，该类扩展了ThreadPoolExecutor.AbortPolicy，记录日志，然后抛出异常信息
@@ -50,6 +51,9 @@ public class AbortPolicyWithReport extends ThreadPoolExecutor.AbortPolicy {
 
 
 
+    /** 被拒绝的任务数 */
+    private final AtomicLong rejectedCount = new AtomicLong();
+
     private static volatile long lastPrintTime = 0;
 
     private static Semaphore guard = new Semaphore(1);
@@ -66,17 +70,24 @@ public class AbortPolicyWithReport extends ThreadPoolExecutor.AbortPolicy {
      */
     @Override
     public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+        rejectedCount.incrementAndGet();
         String msg = String.format("Thread pool is EXHAUSTED!" +
                         " Thread Name: %s, Pool Size: %d (active: %d, core: %d, max: %d, largest: %d), Task: %d (completed: %d)," +
+                        " Queue: %d (remaining: %d)," +
                         " Executor status:(isShutdown:%s, isTerminated:%s, isTerminating:%s), in %s://%s:%d!",
                 threadName, e.getPoolSize(), e.getActiveCount(), e.getCorePoolSize(), e.getMaximumPoolSize(), e.getLargestPoolSize(),
-                e.getTaskCount(), e.getCompletedTaskCount(), e.isShutdown(), e.isTerminated(), e.isTerminating(),
+                e.getTaskCount(), e.getCompletedTaskCount(), e.getQueue().size(), e.getQueue().remainingCapacity(),
+                e.isShutdown(), e.isTerminated(), e.isTerminating(),
                 url.getProtocol(), url.getIp(), url.getPort());
         logger.warn(msg);
         dumpJStack();
         throw new RejectedExecutionException(msg);
     }
 
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
     private void dumpJStack() {
         long now = System.currentTimeMillis();
 
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.threadpool.support.eager;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 优先创建线程的线程池，配合{@link TaskQueue}使用，同时统计任务在队列中的等待时间。
+ */
+public class EagerThreadPoolExecutor extends ThreadPoolExecutor {
+
+    /** 已提交但还未执行完的任务数，包括正在执行和排队中的任务 */
+    private final AtomicInteger submittedTaskCount = new AtomicInteger();
+
+    private final AtomicLong queueWaitTasks = new AtomicLong();
+
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+    /** 再次入队失败后才调用的拒绝策略，避免AbortPolicyWithReport为能够入队的任务打印线程栈 */
+    private volatile RejectedExecutionHandler rejectHandler;
+
+    public EagerThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                   TaskQueue workQueue, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, new RetryOfferPolicy());
+        if (handler == null) {
+            throw new NullPointerException();
+        }
+        this.rejectHandler = handler;
+    }
+
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException();
+        }
+        this.rejectHandler = handler;
+    }
+
+    @Override
+    public RejectedExecutionHandler getRejectedExecutionHandler() {
+        return rejectHandler;
+    }
+
+    public int getSubmittedTaskCount() {
+        return submittedTaskCount.get();
+    }
+
+    /**
+     * 任务在队列中的平均等待时间，单位纳秒
+     */
+    public long getAverageQueueWaitTime() {
+        long tasks = queueWaitTasks.get();
+        return tasks == 0 ? 0 : queueWaitNanos.get() / tasks;
+    }
+
+    /**
+     * 任务在队列中的最长等待时间，单位纳秒
+     */
+    public long getMaxQueueWaitTime() {
+        return maxQueueWaitNanos.get();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        QueuedTask task = new QueuedTask(command);
+        submittedTaskCount.incrementAndGet();
+        try {
+            super.execute(task);
+        } catch (RuntimeException e) {
+            submittedTaskCount.decrementAndGet();
+            throw e;
+        } catch (Error e) {
+            submittedTaskCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean retryOffer(Runnable task) {
+        try {
+            return ((TaskQueue) getQueue()).retryOffer(task, 0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 线程数已达上限且队列已满时先再尝试入队一次，仍然失败才交给配置的拒绝策略
+     */
+    private static final class RetryOfferPolicy implements RejectedExecutionHandler {
+
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            EagerThreadPoolExecutor eager = (EagerThreadPoolExecutor) executor;
+            if (!executor.isShutdown() && eager.retryOffer(r)) {
+                return;
+            }
+            eager.rejectHandler.rejectedExecution(r, executor);
+        }
+
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        if (r instanceof QueuedTask) {
+            long wait = System.nanoTime() - ((QueuedTask) r).submitTime;
+            queueWaitTasks.incrementAndGet();
+            queueWaitNanos.addAndGet(wait);
+            long max;
+            while (wait > (max = maxQueueWaitNanos.get())) {
+                if (maxQueueWaitNanos.compareAndSet(max, wait)) {
+                    break;
+                }
+            }
+        }
+        super.beforeExecute(t, r);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        submittedTaskCount.decrementAndGet();
+        super.afterExecute(r, t);
+    }
+
+    /**
+     * 记录提交时间的任务
+     */
+    private static final class QueuedTask implements Runnable {
+
+        private final Runnable task;
+
+        private final long submitTime = System.nanoTime();
+
+        QueuedTask(Runnable task) {
+            this.task = task;
+        }
+
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.threadpool.support.eager;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EagerThreadPoolExecutor}的任务队列：没有空闲线程且线程数未达上限时拒绝入队，使线程池先创建新线程。
+ */
+public class TaskQueue extends LinkedBlockingQueue<Runnable> {
+
+    private static final long serialVersionUID = -2635853580887179627L;
+
+    private transient volatile EagerThreadPoolExecutor executor;
+
+    public TaskQueue(int capacity) {
+        super(capacity);
+    }
+
+    public void setExecutor(EagerThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        EagerThreadPoolExecutor executor = this.executor;
+        if (executor == null) {
+            throw new RejectedExecutionException("The task queue does not have executor!");
+        }
+        int poolSize = executor.getPoolSize();
+        // 有空闲线程，直接入队由空闲线程处理
+        if (executor.getSubmittedTaskCount() <= poolSize) {
+            return super.offer(runnable);
+        }
+        // 线程数未达上限，返回false让线程池创建新线程
+        if (poolSize < executor.getMaximumPoolSize()) {
+            return false;
+        }
+        return super.offer(runnable);
+    }
+
+    /**
+     * 线程池拒绝任务后再尝试入队一次，期间可能已有任务执行完毕
+     */
+    public boolean retryOffer(Runnable runnable, long timeout, TimeUnit unit) throws InterruptedException {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor is shutdown!");
+        }
+        return super.offer(runnable, timeout, unit);
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.timer;
+
+/**
+ * {@link Timer#newTimeout(TimerTask, long, java.util.concurrent.TimeUnit)}返回的句柄，可以通过它取消尚未执行的定时任务
+ */
+public interface Timeout {
+
+    /**
+     * 返回创建该句柄的{@link Timer}
+     */
+    Timer timer();
+
+    /**
+     * 返回该句柄关联的{@link TimerTask}
+     */
+    TimerTask task();
+
+    /**
+     * 关联的任务已经到期并执行时返回true
+     */
+    boolean isExpired();
+
+    /**
+     * 关联的任务已经被取消时返回true
+     */
+    boolean isCancelled();
+
+    /**
+     * 取消关联的任务，如果任务已经执行或已被取消，则返回false
+     *
+     * @return 取消成功返回true
+     */
+    boolean cancel();
+
+}
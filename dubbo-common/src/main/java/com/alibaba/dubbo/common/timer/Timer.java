@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.timer;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时器：在后台线程中调度{@link TimerTask}，用于替代为每类定时任务单独起一个扫描线程的做法
+ */
+public interface Timer {
+
+    /**
+     * 在指定延迟后执行一次task
+     *
+     * @param task  待执行的任务
+     * @param delay 延迟时间
+     * @param unit  延迟时间单位
+     * @return 任务句柄，可用于取消任务
+     * @throws IllegalStateException 如果定时器已经停止
+     */
+    Timeout newTimeout(TimerTask task, long delay, TimeUnit unit);
+
+    /**
+     * 停止定时器，释放工作线程，并返回所有尚未执行的任务
+     */
+    Set<Timeout> stop();
+
+    /**
+     * 定时器是否已经停止
+     */
+    boolean isStop();
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.dubbo.common.serialize.serialization;
+
+import com.alibaba.com.caucho.hessian.io.ClassDefinitionDictionary;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.model.person.BigPerson;
+import com.alibaba.dubbo.common.model.person.PersonInfo;
+import com.alibaba.dubbo.common.model.person.PersonStatus;
+import com.alibaba.dubbo.common.model.person.Phone;
+import com.alibaba.dubbo.common.serialize.ObjectInput;
+import com.alibaba.dubbo.common.serialize.ObjectOutput;
+import com.alibaba.dubbo.common.serialize.support.hessian.Hessian2DictSerialization;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class Hessian2DictSerializationTest {
+
+    Hessian2DictSerialization serialization = new Hessian2DictSerialization();
+    URL url = new URL("protocl", "1.1.1.1", 1234);
+    BigPerson bigPerson;
+    // two ends of one connection
+    Object consumer;
+    Object provider;
+
+    @Before
+    public void setUp() {
+        bigPerson = new BigPerson();
+        bigPerson.setPersonId("superman111");
+        bigPerson.setLoginName("superman");
+        bigPerson.setStatus(PersonStatus.ENABLED);
+        bigPerson.setEmail("sm@1.com");
+        bigPerson.setPenName("pname");
+        PersonInfo pi = new PersonInfo();
+        List<Phone> phones = new ArrayList<Phone>();
+        phones.add(new Phone("86", "0571", "87654321", "001"));
+        phones.add(new Phone("86", "0571", "87654322", "002"));
+        pi.setPhones(phones);
+        pi.setName("superman");
+        bigPerson.setInfoProfile(pi);
+
+        consumer = serialization.createConnectionState(url);
+        provider = serialization.createConnectionState(url);
+    }
+
+    private byte[] write(Object state, Object data) throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ObjectOutput output = serialization.serialize(url, bout, state);
+        output.writeObject(data);
+        output.flushBuffer();
+        return bout.toByteArray();
+    }
+
+    private Object read(Object state, byte[] bytes) throws Exception {
+        ObjectInput input = serialization.deserialize(url, new ByteArrayInputStream(bytes), state);
+        return input.readObject(BigPerson.class);
+    }
+
+    @Test
+    public void testDefinitionsSentAsReferenceAfterAck() throws Exception {
+        byte[] first = write(consumer, bigPerson);
+        byte[] second = write(consumer, bigPerson);
+        // not yet acknowledged by the peer, definitions are sent again
+        assertEquals(first.length, second.length);
+
+        // decoding out of order is fine
+        assertEquals(bigPerson, read(provider, second));
+        assertEquals(bigPerson, read(provider, first));
+
+        // any message from the provider carries the acknowledgement
+        read(consumer, write(provider, null));
+        assertEquals(((ClassDefinitionDictionary) consumer).getOutgoingCount(),
+                ((ClassDefinitionDictionary) consumer).getPeerCount());
+
+        byte[] third = write(consumer, bigPerson);
+        assertTrue(third.length < first.length / 2);
+        assertEquals(bigPerson, read(provider, third));
+    }
+
+    @Test
+    public void testStateless() throws Exception {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ObjectOutput output = serialization.serialize(url, bout);
+        output.writeObject(bigPerson);
+        output.flushBuffer();
+        ObjectInput input = serialization.deserialize(url, new ByteArrayInputStream(bout.toByteArray()));
+        assertEquals(bigPerson, input.readObject(BigPerson.class));
+    }
+
+    @Test
+    public void testOutOfSync() throws Exception {
+        read(provider, write(consumer, bigPerson));
+        read(consumer, write(provider, null));
+        byte[] bytes = write(consumer, bigPerson);
+        // a new connection state (e.g. after reconnect on one side only) must fail fast
+        try {
+            read(serialization.createConnectionState(url), bytes);
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+}
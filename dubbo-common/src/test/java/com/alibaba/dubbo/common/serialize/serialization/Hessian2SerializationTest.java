@@ -16,17 +16,33 @@
  */
 package com.alibaba.dubbo.common.serialize.serialization;
 
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.serialize.Cleanable;
 import com.alibaba.dubbo.common.serialize.ObjectInput;
 import com.alibaba.dubbo.common.serialize.ObjectOutput;
 import com.alibaba.dubbo.common.serialize.support.hessian.Hessian2Serialization;
+import com.alibaba.dubbo.common.serialize.support.hessian.HessianFieldAccessor;
 
 import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -208,4 +224,387 @@ public class Hessian2SerializationTest extends AbstractSerializationPersionFailT
     @Test
     public void test_MediaContent_badStream() throws Exception {
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_reuse() throws Exception {
+        URL reuseUrl = url.addParameter(Constants.HESSIAN2_REUSE_KEY, true);
+        Map<String, Object> shared = new HashMap<String, Object>();
+        shared.put("k", "v");
+        List<Object> data = new ArrayList<Object>();
+        data.add(shared);
+        data.add(shared);
+
+        byte[][] bytes = new byte[2][];
+        ObjectOutput[] outputs = new ObjectOutput[2];
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            outputs[i] = serialization.serialize(reuseUrl, bout);
+            outputs[i].writeObject(data);
+            outputs[i].flushBuffer();
+            ((Cleanable) outputs[i]).cleanup();
+            bytes[i] = bout.toByteArray();
+        }
+        assertSame(outputs[0], outputs[1]);
+        // references of the previous message must not leak into the next one
+        assertArrayEquals(bytes[0], bytes[1]);
+
+        ObjectInput[] inputs = new ObjectInput[2];
+        for (int i = 0; i < 2; i++) {
+            inputs[i] = serialization.deserialize(reuseUrl, new ByteArrayInputStream(bytes[i]));
+            List<?> result = (List<?>) inputs[i].readObject();
+            ((Cleanable) inputs[i]).cleanup();
+            assertEquals(data, result);
+            assertSame(result.get(0), result.get(1));
+        }
+        assertSame(inputs[0], inputs[1]);
+
+        // nested use without cleanup gets a separate instance
+        ObjectOutput nested = serialization.serialize(reuseUrl, new ByteArrayOutputStream());
+        assertNotSame(nested, serialization.serialize(reuseUrl, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void test_generated() throws Exception {
+        URL generatedUrl = url.addParameter(Constants.HESSIAN2_GENERATED_KEY, true);
+        GeneratedBean bean = new GeneratedBean();
+        bean.setB((byte) 1);
+        bean.setS((short) 2);
+        bean.setI(3);
+        bean.setL(4L);
+        bean.setF(5.5F);
+        bean.setD(6.5D);
+        bean.setZ(true);
+        bean.setC('c');
+        bean.setName("name");
+        bean.setDate(new Date(1000L));
+        bean.setTimestamp(new Timestamp(2000L));
+        bean.setList(Arrays.asList("a", "b"));
+        bean.setHidden("hidden");
+        bean.publicField = 7;
+        bean.noSetter = "noSetter";
+
+        List<Object> data = new ArrayList<Object>();
+        data.add(bean);
+        data.add(bigPerson);
+        data.add(mediaContent);
+
+        ByteArrayOutputStream reflect = new ByteArrayOutputStream();
+        ObjectOutput objectOutput = serialization.serialize(url, reflect);
+        objectOutput.writeObject(data);
+        objectOutput.flushBuffer();
+
+        ByteArrayOutputStream generated = new ByteArrayOutputStream();
+        objectOutput = serialization.serialize(generatedUrl, generated);
+        objectOutput.writeObject(data);
+        objectOutput.flushBuffer();
+
+        // same bytes as the reflective serializer, so both ends can differ in the setting
+        assertArrayEquals(reflect.toByteArray(), generated.toByteArray());
+
+        ObjectInput objectInput = serialization.deserialize(generatedUrl, new ByteArrayInputStream(generated.toByteArray()));
+        List<?> result = (List<?>) objectInput.readObject();
+        assertEquals(data, result);
+        GeneratedBean copy = (GeneratedBean) result.get(0);
+        // fields hidden by a subclass field are restored exactly like the reflective deserializer does
+        objectInput = serialization.deserialize(url, new ByteArrayInputStream(reflect.toByteArray()));
+        GeneratedBean reflectCopy = (GeneratedBean) ((List<?>) objectInput.readObject()).get(0);
+        assertEquals(((GeneratedBase) reflectCopy).hidden, ((GeneratedBase) copy).hidden);
+        assertEquals(reflectCopy.getHidden(), copy.getHidden());
+        assertEquals(7, copy.publicField);
+        assertEquals("noSetter", copy.noSetter);
+        // generation failures silently fall back to reflection, make sure the accessor is really generated
+        assertNotNull(HessianFieldAccessor.getAccessor(GeneratedBean.class));
+    }
+
+    @Test
+    public void test_generated_propertyMethodsNotUsed() throws Exception {
+        URL generatedUrl = url.addParameter(Constants.HESSIAN2_GENERATED_KEY, true);
+        PropertyBean bean = new PropertyBean();
+        bean.value = "value";
+        bean.count = -1;
+
+        ByteArrayOutputStream reflect = new ByteArrayOutputStream();
+        ObjectOutput objectOutput = serialization.serialize(url, reflect);
+        objectOutput.writeObject(bean);
+        objectOutput.flushBuffer();
+
+        ByteArrayOutputStream generated = new ByteArrayOutputStream();
+        objectOutput = serialization.serialize(generatedUrl, generated);
+        objectOutput.writeObject(bean);
+        objectOutput.flushBuffer();
+
+        // the getter transforms the value, the bytes must still hold the raw field
+        assertArrayEquals(reflect.toByteArray(), generated.toByteArray());
+
+        // the setter rejects the value, the field must still be restored without calling it
+        ObjectInput objectInput = serialization.deserialize(generatedUrl, new ByteArrayInputStream(generated.toByteArray()));
+        PropertyBean copy = (PropertyBean) objectInput.readObject();
+        assertEquals("value", copy.value);
+        assertEquals(-1, copy.count);
+        assertNotNull(HessianFieldAccessor.getAccessor(PropertyBean.class));
+    }
+
+    @Test
+    public void test_generated_privateFields() throws Exception {
+        URL generatedUrl = url.addParameter(Constants.HESSIAN2_GENERATED_KEY, true);
+        List<PrivateBean> data = new ArrayList<PrivateBean>();
+        for (int i = 0; i < 100; i++) {
+            data.add(new PrivateBean(i));
+        }
+
+        // private fields are what typical DTOs use, they must not fall back to reflection
+        HessianFieldAccessor accessor = HessianFieldAccessor.getAccessor(PrivateBean.class);
+        assertNotNull(accessor);
+        for (String name : new String[]{"b", "s", "i", "l", "f", "d", "z", "name", "date", "list", "inner"}) {
+            assertTrue(name, accessor.isGenerated(accessor.getIndex(name)));
+        }
+
+        long[] elapsed = new long[2];
+        byte[][] bytes = new byte[2][];
+        URL[] urls = new URL[]{url, generatedUrl};
+        for (int round = 0; round < 200; round++) {
+            for (int k = 0; k < 2; k++) {
+                long start = System.nanoTime();
+                ByteArrayOutputStream bout = new ByteArrayOutputStream();
+                ObjectOutput objectOutput = serialization.serialize(urls[k], bout);
+                objectOutput.writeObject(data);
+                objectOutput.flushBuffer();
+                ObjectInput objectInput = serialization.deserialize(urls[k], new ByteArrayInputStream(bout.toByteArray()));
+                assertEquals(data, objectInput.readObject());
+                elapsed[k] += System.nanoTime() - start;
+                bytes[k] = bout.toByteArray();
+            }
+        }
+        assertArrayEquals(bytes[0], bytes[1]);
+        System.out.println("hessian2 private fields, reflect: " + elapsed[0] / 1000000 + "ms, generated: " + elapsed[1] / 1000000 + "ms");
+    }
+
+    public static class PrivateBean implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private byte b;
+        private short s;
+        private int i;
+        private long l;
+        private float f;
+        private double d;
+        private boolean z;
+        private String name;
+        private Date date;
+        private List<String> list;
+        private Inner inner;
+
+        public PrivateBean() {
+        }
+
+        PrivateBean(int i) {
+            this.b = (byte) i;
+            this.s = (short) (i * 2);
+            this.i = i * 3;
+            this.l = i * 4L;
+            this.f = i + 0.5F;
+            this.d = i + 0.25D;
+            this.z = i % 2 == 0;
+            this.name = "name" + i;
+            this.date = new Date(i * 1000L);
+            this.list = Arrays.asList("a" + i, "b" + i);
+            this.inner = new Inner();
+            this.inner.value = i;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PrivateBean)) {
+                return false;
+            }
+            PrivateBean other = (PrivateBean) o;
+            return b == other.b && s == other.s && i == other.i && l == other.l && f == other.f && d == other.d
+                    && z == other.z && name.equals(other.name) && date.equals(other.date) && list.equals(other.list)
+                    && inner.value == other.inner.value;
+        }
+
+        @Override
+        public int hashCode() {
+            return i;
+        }
+    }
+
+    // not accessible from the generated accessor
+    static class Inner implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private int value;
+    }
+
+    public static class PropertyBean implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String value;
+        private int count;
+
+        public String getValue() {
+            return value == null ? null : value.toUpperCase();
+        }
+
+        public void setValue(String value) {
+            throw new IllegalStateException("setter must not be called");
+        }
+
+        public int getCount() {
+            return Math.max(count, 0);
+        }
+
+        public void setCount(int count) {
+            if (count < 0) {
+                throw new IllegalArgumentException("count < 0");
+            }
+            this.count = count;
+        }
+    }
+
+    public static class GeneratedBase implements Serializable {
+        private static final long serialVersionUID = 1L;
+        String hidden;
+    }
+
+    public static class GeneratedBean extends GeneratedBase {
+        private static final long serialVersionUID = 1L;
+        private byte b;
+        private short s;
+        private int i;
+        private long l;
+        private float f;
+        private double d;
+        private boolean z;
+        private char c;
+        private String name;
+        private Date date;
+        private Timestamp timestamp;
+        private List<String> list;
+        private String hidden;
+        private transient String ignored = "ignored";
+        public int publicField;
+        String noSetter;
+
+        public byte getB() {
+            return b;
+        }
+
+        public void setB(byte b) {
+            this.b = b;
+        }
+
+        public short getS() {
+            return s;
+        }
+
+        public void setS(short s) {
+            this.s = s;
+        }
+
+        public int getI() {
+            return i;
+        }
+
+        public void setI(int i) {
+            this.i = i;
+        }
+
+        public long getL() {
+            return l;
+        }
+
+        public void setL(long l) {
+            this.l = l;
+        }
+
+        public float getF() {
+            return f;
+        }
+
+        public void setF(float f) {
+            this.f = f;
+        }
+
+        public double getD() {
+            return d;
+        }
+
+        public void setD(double d) {
+            this.d = d;
+        }
+
+        public boolean isZ() {
+            return z;
+        }
+
+        public void setZ(boolean z) {
+            this.z = z;
+        }
+
+        public char getC() {
+            return c;
+        }
+
+        public void setC(char c) {
+            this.c = c;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Date getDate() {
+            return date;
+        }
+
+        public void setDate(Date date) {
+            this.date = date;
+        }
+
+        public Timestamp getTimestamp() {
+            return timestamp;
+        }
+
+        public void setTimestamp(Timestamp timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        public List<String> getList() {
+            return list;
+        }
+
+        public void setList(List<String> list) {
+            this.list = list;
+        }
+
+        public String getHidden() {
+            return hidden;
+        }
+
+        public void setHidden(String hidden) {
+            this.hidden = hidden;
+            super.hidden = hidden;
+        }
+
+        public String getNoSetter() {
+            return noSetter;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof GeneratedBean))
+                return false;
+            GeneratedBean o = (GeneratedBean) obj;
+            return b == o.b && s == o.s && i == o.i && l == o.l && f == o.f && d == o.d && z == o.z && c == o.c
+                    && name.equals(o.name) && date.equals(o.date) && timestamp.equals(o.timestamp)
+                    && list.equals(o.list) && hidden.equals(o.hidden) && ignored.equals(o.ignored);
+        }
+
+        @Override
+        public int hashCode() {
+            return i;
+        }
+    }
+}
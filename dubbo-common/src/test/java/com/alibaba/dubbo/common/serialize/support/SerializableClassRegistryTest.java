@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.serialize.support;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.model.media.Image;
+import com.alibaba.dubbo.common.model.media.Media;
+import com.alibaba.dubbo.common.model.media.MediaContent;
+import com.alibaba.dubbo.common.model.person.BigPerson;
+import com.alibaba.dubbo.common.model.person.FullAddress;
+import com.alibaba.dubbo.common.model.person.PersonInfo;
+import com.alibaba.dubbo.common.model.person.PersonStatus;
+import com.alibaba.dubbo.common.model.person.Phone;
+import com.alibaba.dubbo.common.serialize.ObjectInput;
+import com.alibaba.dubbo.common.serialize.ObjectOutput;
+import com.alibaba.dubbo.common.serialize.Serialization;
+import com.alibaba.dubbo.common.serialize.support.fst.FstSerialization;
+import com.alibaba.dubbo.common.serialize.support.kryo.KryoSerialization;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SerializableClassRegistryTest {
+
+    public interface PersonService {
+        BigPerson find(String id);
+
+        Map<String, List<PersonInfo>> infos(List<? extends FullAddress> addresses);
+    }
+
+    @Test
+    public void testRegisterInterface() throws Exception {
+        String hash = SerializableClassRegistry.registerInterface(PersonService.class);
+        assertEquals(hash, SerializableClassRegistry.registerInterface(PersonService.class));
+
+        List<Class> classes = SerializableClassRegistry.getAutoRegisteredClasses();
+        Map<String, Integer> ids = new TreeMap<String, Integer>();
+        for (Class clazz : new Class[]{BigPerson.class, PersonInfo.class, Phone.class, FullAddress.class,
+                PersonStatus.class}) {
+            assertTrue(clazz.getName(), classes.contains(clazz));
+            int id = SerializableClassRegistry.getAutoRegisteredId(clazz);
+            assertEquals(SerializableClassRegistry.getAutoRegisterId(clazz), id);
+            assertTrue(id >= SerializableClassRegistry.AUTO_REGISTER_ID_BASE && id < 0x8000);
+            ids.put(clazz.getName(), id);
+        }
+        assertEquals(ids.size(), new HashSet<Integer>(ids.values()).size());
+        // the hash covers every class of the interface with its id, not only the conflicts
+        StringBuilder registered = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            registered.append(registered.length() == 0 ? "" : ", ").append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        assertEquals(Integer.toHexString(registered.toString().hashCode()), hash);
+        assertFalse(classes.contains(String.class));
+        assertFalse(classes.contains(List.class));
+        assertEquals(-1, SerializableClassRegistry.getAutoRegisteredId(String.class));
+
+        BigPerson person = new BigPerson("id");
+        person.setInfoProfile(new PersonInfo());
+        person.getInfoProfile().setFullAddress(new FullAddress("CN", "zj", "hz", "wensanlu", "310000"));
+        assertRoundTrip(new KryoSerialization(), person);
+        assertRoundTrip(new FstSerialization(), person);
+    }
+
+    @Test
+    public void testSameIdsInAnyOrder() throws Exception {
+        // a provider exporting both services and a consumer referring only to one of them
+        SerializableClassRegistry.AutoRegistry provider = new SerializableClassRegistry.AutoRegistry();
+        provider.registerInterface(PersonService.class);
+        String providerHash = provider.registerInterface(MediaService.class);
+        SerializableClassRegistry.AutoRegistry consumer = new SerializableClassRegistry.AutoRegistry();
+        String consumerHash = consumer.registerInterface(MediaService.class);
+
+        assertEquals(providerHash, consumerHash);
+        for (Class clazz : new Class[]{MediaContent.class, Media.class, Image.class, Media.Player.class, Image.Size.class}) {
+            assertEquals(SerializableClassRegistry.getAutoRegisterId(clazz), provider.getRegisteredId(clazz));
+            assertEquals(provider.getRegisteredId(clazz), consumer.getRegisteredId(clazz));
+        }
+    }
+
+    @Test
+    public void testConflictSkippedOnBothSides() throws Exception {
+        List<Class> classes = Arrays.<Class>asList(FullAddress.class, Phone.class, PersonInfo.class);
+        List<Class> reversed = new ArrayList<Class>(classes);
+        Collections.reverse(reversed);
+
+        SerializableClassRegistry.AutoRegistry one = new ConflictingRegistry();
+        SerializableClassRegistry.AutoRegistry other = new ConflictingRegistry();
+        assertEquals(one.register("one", classes), other.register("other", reversed));
+
+        // neither side keeps one of the conflicting classes
+        for (SerializableClassRegistry.AutoRegistry registry : new SerializableClassRegistry.AutoRegistry[]{one, other}) {
+            assertEquals(-1, registry.getRegisteredId(FullAddress.class));
+            assertEquals(-1, registry.getRegisteredId(Phone.class));
+            assertEquals(SerializableClassRegistry.getAutoRegisterId(PersonInfo.class), registry.getRegisteredId(PersonInfo.class));
+        }
+    }
+
+    public interface MediaService {
+        MediaContent get(String id);
+
+        Map<String, List<MediaContent>> media(List<? extends Image> images);
+    }
+
+    /**
+     * FullAddress和Phone使用相同的编号
+     */
+    private static class ConflictingRegistry extends SerializableClassRegistry.AutoRegistry {
+        @Override
+        int getId(Class clazz) {
+            return clazz == Phone.class ? super.getId(FullAddress.class) : super.getId(clazz);
+        }
+    }
+
+    private void assertRoundTrip(Serialization serialization, BigPerson person) throws Exception {
+        URL url = new URL("dubbo", "localhost", 20880);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutput objectOutput = serialization.serialize(url, out);
+        objectOutput.writeObject(person);
+        objectOutput.flushBuffer();
+
+        // registered classes are written by id instead of name
+        assertFalse(new String(out.toByteArray(), "ISO-8859-1").contains(FullAddress.class.getName()));
+
+        ObjectInput objectInput = serialization.deserialize(url, new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(person, objectInput.readObject());
+    }
+}
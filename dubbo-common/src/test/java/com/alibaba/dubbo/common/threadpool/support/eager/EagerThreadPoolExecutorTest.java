@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.threadpool.support.eager;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.threadpool.ThreadPool;
+import com.alibaba.dubbo.common.utils.NamedThreadFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EagerThreadPoolExecutorTest {
+
+    @Test
+    public void testEagerGrowth() throws Exception {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/demo?threadpool=eager&threadname=eager-test&threads=5&queues=10&dump.directory=/tmp");
+        EagerThreadPoolExecutor executor = (EagerThreadPoolExecutor) ExtensionLoader.getExtensionLoader(ThreadPool.class)
+                .getExtension("eager").getExecutor(url);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(15);
+        Runnable task = new Runnable() {
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        };
+        try {
+            // 先创建线程直到达到最大线程数，不进入队列
+            for (int i = 0; i < 5; i++) {
+                executor.execute(task);
+            }
+            Assert.assertEquals(5, executor.getPoolSize());
+            Assert.assertEquals(0, executor.getQueue().size());
+
+            // 之后才进入有界队列
+            for (int i = 0; i < 10; i++) {
+                executor.execute(task);
+            }
+            Assert.assertEquals(5, executor.getPoolSize());
+            Assert.assertEquals(10, executor.getQueue().size());
+            Assert.assertEquals(15, executor.getSubmittedTaskCount());
+
+            try {
+                executor.execute(task);
+                Assert.fail();
+            } catch (RejectedExecutionException expected) {
+                Assert.assertTrue(expected.getMessage().contains("Queue: 10 (remaining: 0)"));
+            }
+            Assert.assertEquals(15, executor.getSubmittedTaskCount());
+
+            Thread.sleep(10);
+            release.countDown();
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            Assert.assertEquals(0, executor.getSubmittedTaskCount());
+            Assert.assertTrue(executor.getMaxQueueWaitTime() >= TimeUnit.MILLISECONDS.toNanos(10));
+            Assert.assertTrue(executor.getAverageQueueWaitTime() > 0);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRetryOfferBeforeReject() throws Exception {
+        // 第一次入队总是失败，模拟队列刚满时又有任务执行完
+        TaskQueue taskQueue = new TaskQueue(10) {
+            @Override
+            public boolean offer(Runnable runnable) {
+                return false;
+            }
+        };
+        final AtomicInteger rejected = new AtomicInteger();
+        RejectedExecutionHandler handler = new RejectedExecutionHandler() {
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException();
+            }
+        };
+        EagerThreadPoolExecutor executor = new EagerThreadPoolExecutor(1, 1, 60000, TimeUnit.MILLISECONDS,
+                taskQueue, new NamedThreadFactory("eager-test", true), handler);
+        taskQueue.setExecutor(executor);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        };
+        try {
+            executor.execute(task);
+            // 线程数已达上限，再次入队成功时不调用拒绝策略
+            executor.execute(task);
+            Assert.assertEquals(0, rejected.get());
+            Assert.assertEquals(1, executor.getQueue().size());
+            Assert.assertSame(handler, executor.getRejectedExecutionHandler());
+
+            release.countDown();
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            executor.shutdown();
+            try {
+                executor.execute(task);
+                Assert.fail();
+            } catch (RejectedExecutionException expected) {
+            }
+            Assert.assertEquals(1, rejected.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReuseIdleThread() throws Exception {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/demo?threadname=eager-test&threads=5&queues=10");
+        EagerThreadPoolExecutor executor = (EagerThreadPoolExecutor) new EagerThreadPool().getExecutor(url);
+        try {
+            for (int i = 0; i < 10; i++) {
+                final CountDownLatch done = new CountDownLatch(1);
+                executor.execute(new Runnable() {
+                    public void run() {
+                        done.countDown();
+                    }
+                });
+                Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+                // 等待afterExecute执行完，线程重新空闲
+                while (executor.getSubmittedTaskCount() > 0) {
+                    Thread.sleep(1);
+                }
+            }
+            // 顺序提交的任务总是由空闲线程执行，不会创建多余的线程
+            Assert.assertEquals(1, executor.getPoolSize());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
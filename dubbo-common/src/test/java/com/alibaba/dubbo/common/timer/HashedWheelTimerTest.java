@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.common.timer;
+
+import com.alibaba.dubbo.common.utils.NamedThreadFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @Before
+    public void setUp() {
+        timer = new HashedWheelTimer(new NamedThreadFactory("timer-test", true), 10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @After
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Timeout timeout = timer.newTimeout(new TimerTask() {
+            public void run(Timeout timeout) {
+                latch.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(timeout.isExpired());
+        assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test
+    public void testExpireAfterSeveralRounds() throws Exception {
+        // 8个槽 * 10ms = 80ms一圈，200ms需要转两圈以上
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        timer.newTimeout(new TimerTask() {
+            public void run(Timeout timeout) {
+                latch.countDown();
+            }
+        }, 200, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 190);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        Timeout timeout = timer.newTimeout(new TimerTask() {
+            public void run(Timeout timeout) {
+                counter.incrementAndGet();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        Thread.sleep(150);
+        assertEquals(0, counter.get());
+        assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test
+    public void testStopReturnsUnprocessed() {
+        timer.newTimeout(new TimerTask() {
+            public void run(Timeout timeout) {
+            }
+        }, 10, TimeUnit.SECONDS);
+        Set<Timeout> unprocessed = timer.stop();
+        assertEquals(1, unprocessed.size());
+        assertTrue(timer.isStop());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNewTimeoutAfterStop() {
+        timer.stop();
+        timer.newTimeout(new TimerTask() {
+            public void run(Timeout timeout) {
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+    }
+
+}
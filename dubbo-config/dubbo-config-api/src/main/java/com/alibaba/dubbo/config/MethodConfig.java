@@ -17,6 +17,7 @@
 package com.alibaba.dubbo.config;
 
 import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.threadpool.ThreadPool;
 import com.alibaba.dubbo.config.support.Parameter;
 
 import java.util.List;
@@ -45,6 +46,12 @@ public class MethodConfig extends AbstractMethodConfig {
     // thread limits for method invocations
     private Integer executes;
 
+    /** 方法独占的业务线程池类型，配置了threads时生效 */
+    private String threadpool;
+
+    /** 方法独占的业务线程数，大于0时该方法的请求使用单独的线程池 */
+    private Integer threads;
+
     // if it's deprecated
     private Boolean deprecated;
 
@@ -124,6 +131,25 @@ public class MethodConfig extends AbstractMethodConfig {
         this.executes = executes;
     }
 
+    @Parameter(key = Constants.ISOLATION_THREADPOOL_KEY)
+    public String getThreadpool() {
+        return threadpool;
+    }
+
+    public void setThreadpool(String threadpool) {
+        checkExtension(ThreadPool.class, "threadpool", threadpool);
+        this.threadpool = threadpool;
+    }
+
+    @Parameter(key = Constants.ISOLATION_THREADS_KEY)
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Integer threads) {
+        this.threads = threads;
+    }
+
     public Boolean getDeprecated() {
         return deprecated;
     }
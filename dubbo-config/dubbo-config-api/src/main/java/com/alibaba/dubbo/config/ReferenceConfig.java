@@ -21,6 +21,7 @@ import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.Version;
 import com.alibaba.dubbo.common.bytecode.Wrapper;
 import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.serialize.support.SerializableClassRegistry;
 import com.alibaba.dubbo.common.utils.ConfigUtils;
 import com.alibaba.dubbo.common.utils.NetUtils;
 import com.alibaba.dubbo.common.utils.ReflectUtils;
@@ -332,6 +333,13 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
         //attributes are stored by system context.
         StaticContext.getSystemContext().putAll(attributes);
 
+        // 启动时按接口自动注册序列化类（编号只由类名决定），连接时再和提供者发布的"类名=编号"列表摘要比较
+        String autoRegister = map.containsKey(Constants.SERIALIZATION_AUTO_REGISTER_KEY) ? map.get(Constants.SERIALIZATION_AUTO_REGISTER_KEY)
+                : map.get(Constants.DEFAULT_KEY_PREFIX + Constants.SERIALIZATION_AUTO_REGISTER_KEY);
+        if (!ProtocolUtils.isGeneric(getGeneric()) && Boolean.parseBoolean(autoRegister)) {
+            SerializableClassRegistry.registerInterface(interfaceClass);
+        }
+
 
 
 
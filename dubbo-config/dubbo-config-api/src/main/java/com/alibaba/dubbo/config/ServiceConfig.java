@@ -21,6 +21,8 @@ import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.Version;
 import com.alibaba.dubbo.common.bytecode.Wrapper;
 import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.serialize.support.SerializableClassRegistry;
+import com.alibaba.dubbo.common.threadpool.ThreadPool;
 import com.alibaba.dubbo.common.utils.ClassHelper;
 import com.alibaba.dubbo.common.utils.ConfigUtils;
 import com.alibaba.dubbo.common.utils.NamedThreadFactory;
@@ -116,6 +118,12 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
     /** 用于标记是否为泛化服务类型，"true"表示是，"false"表示否 */
     private volatile String generic;
 
+    /** 服务独占的业务线程池类型，配置了threads时生效 */
+    private String threadpool;
+
+    /** 服务独占的业务线程数，大于0时该服务的请求不再与同端口的其他服务共用线程池 */
+    private Integer threads;
+
 
 
 
@@ -528,6 +536,11 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
         // 组装 URL：这个通过这个url就可以知道该服务是由谁提供的，使用的是什么协议等信息
         URL url = new URL(name, host, port, (contextPath == null || contextPath.length() == 0 ? "" : contextPath + "/") + path, map);
 
+        // 按接口自动注册序列化类，并发布该接口"类名=编号"列表的摘要供消费者校验
+        if (!ProtocolUtils.isGeneric(generic) && url.getParameter(Constants.SERIALIZATION_AUTO_REGISTER_KEY, false)) {
+            url = url.addParameter(Constants.SERIALIZATION_AUTO_REGISTER_HASH_KEY, SerializableClassRegistry.registerInterface(interfaceClass));
+        }
+
 
         // 到此为止，就将服务暴露所需要的信息都封装在URL里了
 
@@ -1008,6 +1021,25 @@ public class ServiceConfig<T> extends AbstractServiceConfig {
             throw new IllegalArgumentException("Unsupported generic type " + generic);
         }
     }
+
+    @Parameter(key = Constants.ISOLATION_THREADPOOL_KEY)
+    public String getThreadpool() {
+        return threadpool;
+    }
+
+    public void setThreadpool(String threadpool) {
+        checkExtension(ThreadPool.class, "threadpool", threadpool);
+        this.threadpool = threadpool;
+    }
+
+    @Parameter(key = Constants.ISOLATION_THREADS_KEY)
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public void setThreads(Integer threads) {
+        this.threads = threads;
+    }
     public List<URL> getExportedUrls() {
         return urls;
     }
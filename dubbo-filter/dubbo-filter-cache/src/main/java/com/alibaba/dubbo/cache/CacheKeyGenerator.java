@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.cache;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.Adaptive;
+import com.alibaba.dubbo.common.extension.SPI;
+import com.alibaba.dubbo.rpc.Invocation;
+
+/**
+ * CacheKeyGenerator
+ */
+@SPI("default")
+public interface CacheKeyGenerator {
+
+    /**
+     * 生成调用结果的缓存key，返回null表示本次调用不使用缓存
+     *
+     * @param url        服务URL，可以读取方法级参数
+     * @param invocation 调用
+     * @return 缓存key，需要正确实现equals和hashCode
+     */
+    @Adaptive("cache.key.generator")
+    Object generate(URL url, Invocation invocation);
+
+}
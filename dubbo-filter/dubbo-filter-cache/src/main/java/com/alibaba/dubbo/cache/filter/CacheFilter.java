@@ -18,10 +18,10 @@ package com.alibaba.dubbo.cache.filter;
 
 import com.alibaba.dubbo.cache.Cache;
 import com.alibaba.dubbo.cache.CacheFactory;
+import com.alibaba.dubbo.cache.CacheKeyGenerator;
 import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.extension.Activate;
 import com.alibaba.dubbo.common.utils.ConfigUtils;
-import com.alibaba.dubbo.common.utils.StringUtils;
 import com.alibaba.dubbo.rpc.Filter;
 import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.Invoker;
@@ -37,16 +37,22 @@ public class CacheFilter implements Filter {
 
     private CacheFactory cacheFactory;
 
+    private CacheKeyGenerator cacheKeyGenerator;
+
     public void setCacheFactory(CacheFactory cacheFactory) {
         this.cacheFactory = cacheFactory;
     }
 
+    public void setCacheKeyGenerator(CacheKeyGenerator cacheKeyGenerator) {
+        this.cacheKeyGenerator = cacheKeyGenerator;
+    }
+
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
-        if (cacheFactory != null && ConfigUtils.isNotEmpty(invoker.getUrl().getMethodParameter(invocation.getMethodName(), Constants.CACHE_KEY))) {
+        if (cacheFactory != null && cacheKeyGenerator != null && ConfigUtils.isNotEmpty(invoker.getUrl().getMethodParameter(invocation.getMethodName(), Constants.CACHE_KEY))) {
             Cache cache = cacheFactory.getCache(invoker.getUrl().addParameter(Constants.METHOD_KEY, invocation.getMethodName()));
             if (cache != null) {
-                String key = StringUtils.toArgumentString(invocation.getArguments());
-                if (cache != null && key != null) {
+                Object key = cacheKeyGenerator.generate(invoker.getUrl(), invocation);
+                if (key != null) {
                     Object value = cache.get(key);
                     if (value != null) {
                         return new RpcResult(value);
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.cache.status;
+
+import com.alibaba.dubbo.cache.support.tinylfu.TinyLfuCache;
+import com.alibaba.dubbo.common.extension.Activate;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.common.status.StatusChecker;
+import com.alibaba.dubbo.common.store.DataStore;
+
+import java.util.Map;
+
+/**
+ * CacheStatusChecker
+ */
+@Activate
+public class CacheStatusChecker implements StatusChecker {
+
+    public Status check() {
+        DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+        Map<String, Object> caches = dataStore.get(TinyLfuCache.COMPONENT_KEY);
+
+        StringBuilder msg = new StringBuilder();
+        for (Object value : caches.values()) {
+            TinyLfuCache cache = (TinyLfuCache) value;
+            long hit = cache.getHitCount();
+            long miss = cache.getMissCount();
+            if (msg.length() > 0) {
+                msg.append(";");
+            }
+            msg.append(cache.getName()
+                    + " size:" + cache.size()
+                    + ", max:" + cache.getMaximumSize()
+                    + ", hit:" + hit
+                    + ", miss:" + miss
+                    + ", eviction:" + cache.getEvictionCount()
+                    + ", hit rate:" + (hit + miss == 0 ? 0 : hit * 100 / (hit + miss)) + "%");
+        }
+        return msg.length() == 0 ? new Status(Status.Level.UNKNOWN) : new Status(Status.Level.OK, msg.toString());
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.cache.support.key;
+
+import com.alibaba.dubbo.cache.CacheKeyGenerator;
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 处理cache.key参数：按方法配置参与生成key的参数下标，如cache.key=0,2，不配置时使用全部参数
+ */
+public abstract class AbstractCacheKeyGenerator implements CacheKeyGenerator {
+
+    public static final String CACHE_KEY_INDEXES_KEY = "cache.key";
+
+    private static final int[] ALL_ARGUMENTS = new int[0];
+
+    /**
+     * cache.key配置值到参数下标的解析结果
+     */
+    private static final ConcurrentMap<String, int[]> INDEXES = new ConcurrentHashMap<String, int[]>();
+
+    public Object generate(URL url, Invocation invocation) {
+        Object[] args = invocation.getArguments();
+        if (args == null) {
+            args = new Object[0];
+        }
+        String value = url.getMethodParameter(invocation.getMethodName(), CACHE_KEY_INDEXES_KEY);
+        int[] indexes = value == null || value.length() == 0 ? ALL_ARGUMENTS : getIndexes(value);
+        return doGenerate(args, indexes == ALL_ARGUMENTS ? null : indexes);
+    }
+
+    /**
+     * @param args    调用参数
+     * @param indexes 参与生成key的参数下标，null表示全部参数；下标可能超出参数个数，需要忽略
+     */
+    protected abstract Object doGenerate(Object[] args, int[] indexes);
+
+    private static int[] getIndexes(String value) {
+        int[] indexes = INDEXES.get(value);
+        if (indexes == null) {
+            String[] parts = Constants.COMMA_SPLIT_PATTERN.split(value.trim());
+            indexes = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                try {
+                    indexes[i] = Integer.parseInt(parts[i].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalStateException("Illegal " + CACHE_KEY_INDEXES_KEY + " value: " + value
+                            + ", expect comma separated argument indexes, e.g. 0,2", e);
+                }
+                if (indexes[i] < 0) {
+                    throw new IllegalStateException("Illegal " + CACHE_KEY_INDEXES_KEY + " value: " + value
+                            + ", argument index must not be negative");
+                }
+            }
+            INDEXES.putIfAbsent(value, indexes);
+        }
+        return indexes;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.cache.support.key;
+
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+
+import com.alibaba.fastjson.JSON;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 默认的缓存key生成：字符串、基本类型包装类和枚举直接作为key的一部分，不做任何转换；
+ * 只有一个参数时直接使用参数本身作为key，不产生额外对象；其他复杂类型才序列化为JSON字符串。
+ */
+public class DefaultCacheKeyGenerator extends AbstractCacheKeyGenerator {
+
+    public static final String NAME = "default";
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultCacheKeyGenerator.class);
+
+    /**
+     * null参数和无参数调用的key
+     */
+    private static final CompositeKey NULL_KEY = new CompositeKey(new Object[]{null});
+
+    private static final CompositeKey EMPTY_KEY = new CompositeKey(new Object[0]);
+
+    protected Object doGenerate(Object[] args, int[] indexes) {
+        int length = indexes == null ? args.length : indexes.length;
+        if (length == 1) {
+            int index = indexes == null ? 0 : indexes[0];
+            Object arg = index < args.length ? args[index] : null;
+            return arg == null ? NULL_KEY : toKeyPart(arg);
+        }
+        if (length == 0) {
+            return EMPTY_KEY;
+        }
+        Object[] parts = new Object[length];
+        for (int i = 0; i < length; i++) {
+            int index = indexes == null ? i : indexes[i];
+            Object arg = index < args.length ? args[index] : null;
+            parts[i] = arg == null ? null : toKeyPart(arg);
+        }
+        return new CompositeKey(parts);
+    }
+
+    private static Object toKeyPart(Object arg) {
+        if (isSimple(arg.getClass())) {
+            return arg;
+        }
+        try {
+            // 复杂类型的equals不可靠，也可能在调用后被修改，序列化为字符串作为key
+            return JSON.toJSONString(arg);
+        } catch (Exception e) {
+            logger.warn(e.getMessage(), e);
+            return String.valueOf(arg);
+        }
+    }
+
+    private static boolean isSimple(Class<?> cls) {
+        return cls == String.class || cls == Integer.class || cls == Long.class || cls == Boolean.class
+                || cls == Short.class || cls == Byte.class || cls == Character.class
+                || cls == Double.class || cls == Float.class || cls.isEnum();
+    }
+
+    /**
+     * 多个参数组成的key，hashCode在创建时计算
+     */
+    static final class CompositeKey implements Serializable {
+
+        private static final long serialVersionUID = 4381906346212436318L;
+
+        private final Object[] parts;
+
+        private final int hash;
+
+        CompositeKey(Object[] parts) {
+            this.parts = parts;
+            this.hash = Arrays.hashCode(parts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CompositeKey)) {
+                return false;
+            }
+            CompositeKey other = (CompositeKey) obj;
+            return hash == other.hash && Arrays.equals(parts, other.parts);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(parts);
+        }
+
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.cache.support.key;
+
+import com.alibaba.dubbo.common.utils.StringUtils;
+
+/**
+ * 以前的key生成方式：所有参数序列化后拼成一个字符串
+ */
+public class JsonCacheKeyGenerator extends AbstractCacheKeyGenerator {
+
+    public static final String NAME = "json";
+
+    protected Object doGenerate(Object[] args, int[] indexes) {
+        if (indexes == null) {
+            return StringUtils.toArgumentString(args);
+        }
+        Object[] selected = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            selected[i] = indexes[i] < args.length ? args[indexes[i]] : null;
+        }
+        return StringUtils.toArgumentString(selected);
+    }
+
+}
@@ -0,0 +1,496 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.cache.support.tinylfu;
+
+import com.alibaba.dubbo.cache.Cache;
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.store.DataStore;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * W-TinyLFU缓存：新数据先进入一个很小的LRU窗口，被挤出窗口后，只有估算访问频率高于主区中将被淘汰的数据时才能留下，
+ * 主区按SLRU（probation/protected两段）维护，一次性的扫描访问不会冲掉热点数据。
+ * <p>
+ * 数据保存在ConcurrentHashMap中，读不加锁；访问记录先写入按线程分段的有损缓冲区，新增和删除写入队列，
+ * 由抢到淘汰锁的线程批量更新淘汰顺序，调用线程不会在锁上等待。
+ * <p>
+ * 参数：cache.size最大条数，默认1000；cache.write.expire写入后过期的毫秒数，默认0不过期。
+ */
+public class TinyLfuCache implements Cache {
+
+    /**
+     * 所有TinyLfuCache登记在{@link DataStore}中的组件名
+     */
+    public static final String COMPONENT_KEY = TinyLfuCache.class.getName();
+
+    private static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    private static final int READ_BUFFER_STRIPES = ceilingPowerOfTwo(NCPU);
+
+    private static final int READ_BUFFER_SIZE = 16;
+
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    // 节点所在的队列
+    private static final int NEW = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+    private static final int DEAD = 4;
+
+    private final String name;
+
+    private final int maximumSize;
+
+    private final long expireMillis;
+
+    private final ConcurrentMap<Object, Node> data = new ConcurrentHashMap<Object, Node>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final ReadBuffer[] readBuffers;
+
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<Runnable>();
+
+    private final StripedCounter hitCount = new StripedCounter(READ_BUFFER_STRIPES);
+
+    private final StripedCounter missCount = new StripedCounter(READ_BUFFER_STRIPES);
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    // 以下字段由evictionLock保护
+    private final FrequencySketch sketch;
+
+    private final NodeDeque window = new NodeDeque();
+
+    private final NodeDeque probation = new NodeDeque();
+
+    private final NodeDeque protectedDeque = new NodeDeque();
+
+    private final int windowMaximum;
+
+    private final int protectedMaximum;
+
+    private int windowSize;
+
+    private int protectedSize;
+
+    private int size;
+
+    public TinyLfuCache(URL url) {
+        this(cacheName(url), url.getParameter("cache.size", 1000),
+                url.getMethodParameter(url.getParameter(Constants.METHOD_KEY, ""), "cache.write.expire", 0));
+        DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+        dataStore.put(COMPONENT_KEY, name, this);
+    }
+
+    TinyLfuCache(String name, int maximumSize, long expireMillis) {
+        this.name = name;
+        this.maximumSize = Math.max(maximumSize, 1);
+        this.expireMillis = expireMillis;
+        this.windowMaximum = Math.max(1, this.maximumSize / 100);
+        this.protectedMaximum = (this.maximumSize - windowMaximum) * 80 / 100;
+        this.sketch = new FrequencySketch(this.maximumSize);
+        this.readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    private static String cacheName(URL url) {
+        return url.getAddress() + "." + url.getServiceKey() + "." + url.getParameter(Constants.METHOD_KEY, "");
+    }
+
+    static int ceilingPowerOfTwo(int x) {
+        int n = 1;
+        while (n < x) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    public void put(Object key, Object value) {
+        if (key == null || value == null) {
+            return;
+        }
+        long expireAt = expireMillis > 0 ? System.currentTimeMillis() + expireMillis : 0;
+        Node node = new Node(key, value, expireAt);
+        Node prior = data.putIfAbsent(key, node);
+        if (prior == null) {
+            afterWrite(new AddTask(node));
+        } else {
+            prior.value = value;
+            prior.expireAt = expireAt;
+            afterRead(prior);
+        }
+    }
+
+    public Object get(Object key) {
+        Node node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        if (node.expireAt != 0 && node.expireAt <= System.currentTimeMillis()) {
+            if (data.remove(key, node)) {
+                afterWrite(new RemoveTask(node));
+            }
+            missCount.increment();
+            return null;
+        }
+        Object value = node.value;
+        hitCount.increment();
+        afterRead(node);
+        return value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 因容量淘汰和过期删除的条数
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private void afterRead(Node node) {
+        ReadBuffer buffer = readBuffers[StripedCounter.threadHash() & (READ_BUFFER_STRIPES - 1)];
+        if (buffer.offer(node)) {
+            scheduleDrain();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        scheduleDrain();
+    }
+
+    /**
+     * 抢不到锁说明其他线程正在处理，它释放锁后会再检查写队列，新写入的任务不会被遗漏
+     */
+    private void scheduleDrain() {
+        while (evictionLock.tryLock()) {
+            try {
+                drainBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+            if (writeBuffer.isEmpty()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 立即处理所有缓冲的访问记录和写入
+     */
+    void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void drainBuffers() {
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            task.run();
+        }
+        for (ReadBuffer buffer : readBuffers) {
+            buffer.drain();
+        }
+    }
+
+    private void onAccess(Node node) {
+        sketch.increment(node.key);
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToBack(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedDeque.addLast(node);
+                protectedSize++;
+                // protected区满时，最久未访问的降级回probation
+                while (protectedSize > protectedMaximum) {
+                    Node demoted = protectedDeque.pollFirst();
+                    protectedSize--;
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            case PROTECTED:
+                protectedDeque.moveToBack(node);
+                break;
+            default:
+                // 尚未加入队列或已删除
+        }
+    }
+
+    private void evictEntries() {
+        while (windowSize > windowMaximum) {
+            Node node = window.pollFirst();
+            windowSize--;
+            node.queue = PROBATION;
+            probation.addLast(node);
+        }
+        while (size > maximumSize) {
+            Node victim = probation.peekFirst();
+            Node candidate = probation.peekLast();
+            if (victim == null) {
+                victim = protectedDeque.peekFirst() != null ? protectedDeque.peekFirst() : window.peekFirst();
+                evict(victim);
+            } else if (victim == candidate) {
+                evict(victim);
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                // 刚从窗口进入的数据访问频率更高，淘汰probation中最久未访问的
+                evict(victim);
+            } else {
+                evict(candidate);
+            }
+        }
+    }
+
+    private void evict(Node node) {
+        unlink(node);
+        data.remove(node.key, node);
+        evictionCount.incrementAndGet();
+    }
+
+    private void unlink(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                windowSize--;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedDeque.remove(node);
+                protectedSize--;
+                break;
+            default:
+                node.queue = DEAD;
+                return;
+        }
+        node.queue = DEAD;
+        size--;
+    }
+
+    private static final class Node {
+
+        final Object key;
+
+        volatile Object value;
+
+        volatile long expireAt;
+
+        // 以下字段由evictionLock保护
+        int queue = NEW;
+
+        Node prev;
+
+        Node next;
+
+        Node(Object key, Object value, long expireAt) {
+            this.key = key;
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+    }
+
+    /**
+     * 侵入式双向链表，头部是最久未访问的节点
+     */
+    private static final class NodeDeque {
+
+        private Node first;
+
+        private Node last;
+
+        Node peekFirst() {
+            return first;
+        }
+
+        Node peekLast() {
+            return last;
+        }
+
+        void addLast(Node node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        Node pollFirst() {
+            Node node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void moveToBack(Node node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+    }
+
+    /**
+     * 单个线程分段的访问记录环形缓冲区，写满或CAS失败时直接丢弃记录，只影响淘汰顺序的精确度
+     */
+    private final class ReadBuffer {
+
+        private final AtomicLong writeCounter = new AtomicLong();
+
+        private final AtomicReferenceArray<Node> buffer = new AtomicReferenceArray<Node>(READ_BUFFER_SIZE);
+
+        // 只在持有evictionLock时修改
+        private volatile long readCounter;
+
+        /**
+         * @return 缓冲区已满，需要处理
+         */
+        boolean offer(Node node) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            long pending = tail - head;
+            if (pending >= READ_BUFFER_SIZE) {
+                return true;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) tail & READ_BUFFER_MASK, node);
+                return pending + 1 >= READ_BUFFER_SIZE;
+            }
+            return false;
+        }
+
+        void drain() {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) head & READ_BUFFER_MASK;
+                Node node = buffer.get(index);
+                if (node == null) {
+                    // 写入方已占位但尚未发布，下次再处理
+                    break;
+                }
+                buffer.lazySet(index, null);
+                onAccess(node);
+            }
+            readCounter = head;
+        }
+
+    }
+
+    private final class AddTask implements Runnable {
+
+        private final Node node;
+
+        AddTask(Node node) {
+            this.node = node;
+        }
+
+        public void run() {
+            sketch.increment(node.key);
+            if (node.queue != NEW) {
+                // 加入队列前已被删除
+                return;
+            }
+            node.queue = WINDOW;
+            window.addLast(node);
+            windowSize++;
+            size++;
+            evictEntries();
+        }
+
+    }
+
+    private final class RemoveTask implements Runnable {
+
+        private final Node node;
+
+        RemoveTask(Node node) {
+            this.node = node;
+        }
+
+        public void run() {
+            // 过期删除和容量淘汰可能同时发生，只计数一次
+            if (node.queue != DEAD) {
+                unlink(node);
+                evictionCount.incrementAndGet();
+            }
+        }
+
+    }
+
+}
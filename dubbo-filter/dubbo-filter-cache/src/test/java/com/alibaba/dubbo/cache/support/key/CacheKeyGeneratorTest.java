@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.cache.support.key;
+
+import com.alibaba.dubbo.cache.CacheKeyGenerator;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+
+public class CacheKeyGeneratorTest {
+
+    private final CacheKeyGenerator generator = ExtensionLoader.getExtensionLoader(CacheKeyGenerator.class).getAdaptiveExtension();
+
+    private final URL url = URL.valueOf("test://127.0.0.1:20880/DemoService?cache=lru");
+
+    private static RpcInvocation invocation(Object... args) {
+        Class<?>[] types = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            types[i] = args[i] == null ? Object.class : args[i].getClass();
+        }
+        return new RpcInvocation("find", types, args);
+    }
+
+    @Test
+    public void testSingleSimpleArgumentIsKey() {
+        String arg = "hello";
+        Assert.assertSame(arg, generator.generate(url, invocation(arg)));
+        Integer number = 12345;
+        Assert.assertSame(number, generator.generate(url, invocation(number)));
+        Assert.assertEquals(generator.generate(url, invocation((Object) null)), generator.generate(url, invocation((Object) null)));
+        Assert.assertEquals(generator.generate(url, invocation()), generator.generate(url, invocation()));
+    }
+
+    @Test
+    public void testCompositeKey() {
+        Object key = generator.generate(url, invocation("a", 1, true));
+        Assert.assertEquals(key, generator.generate(url, invocation("a", 1, true)));
+        Assert.assertEquals(key.hashCode(), generator.generate(url, invocation("a", 1, true)).hashCode());
+        Assert.assertFalse(key.equals(generator.generate(url, invocation("a", 2, true))));
+        Assert.assertFalse(key.equals(generator.generate(url, invocation("a", 1, null))));
+    }
+
+    @Test
+    public void testComplexArgument() {
+        Object key = generator.generate(url, invocation(Collections.singletonMap("k", "v"), new Date(0)));
+        Assert.assertEquals(key, generator.generate(url, invocation(Collections.singletonMap("k", "v"), new Date(0))));
+        Assert.assertFalse(key.equals(generator.generate(url, invocation(Collections.singletonMap("k", "x"), new Date(0)))));
+    }
+
+    @Test
+    public void testKeyIndexes() {
+        URL indexed = url.addParameter("find.cache.key", "1");
+        Assert.assertEquals("b", generator.generate(indexed, invocation("a", "b", "c")));
+        Assert.assertEquals(generator.generate(indexed, invocation("x", "b", "y")), generator.generate(indexed, invocation("a", "b", "c")));
+
+        indexed = url.addParameter("find.cache.key", "0,2");
+        Assert.assertEquals(generator.generate(indexed, invocation("a", "x", "c")), generator.generate(indexed, invocation("a", "y", "c")));
+        Assert.assertFalse(generator.generate(indexed, invocation("a", "x", "c")).equals(generator.generate(indexed, invocation("a", "x", "d"))));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIllegalKeyIndexes() {
+        generator.generate(url.addParameter("find.cache.key", "a,b"), invocation("a", "b"));
+    }
+
+    @Test
+    public void testJsonGenerator() {
+        URL json = url.addParameter("find.cache.key.generator", JsonCacheKeyGenerator.NAME);
+        Assert.assertEquals("a,1,{\"k\":\"v\"}", generator.generate(json, invocation("a", 1, Collections.singletonMap("k", "v"))));
+        Assert.assertEquals("1", generator.generate(json.addParameter("find.cache.key", "1"), invocation("a", 1)));
+    }
+
+}
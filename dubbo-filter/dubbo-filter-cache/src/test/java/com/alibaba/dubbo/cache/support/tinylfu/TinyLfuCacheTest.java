@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.cache.support.tinylfu;
+
+import com.alibaba.dubbo.cache.Cache;
+import com.alibaba.dubbo.cache.CacheFactory;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.common.status.StatusChecker;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TinyLfuCacheTest {
+
+    @Test
+    public void testPutAndGet() {
+        TinyLfuCache cache = new TinyLfuCache("test", 100, 0);
+        Assert.assertNull(cache.get("a"));
+        cache.put("a", "1");
+        Assert.assertEquals("1", cache.get("a"));
+        cache.put("a", "2");
+        Assert.assertEquals("2", cache.get("a"));
+        cache.put("b", null);
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testMaximumSize() {
+        TinyLfuCache cache = new TinyLfuCache("test", 100, 0);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals(900, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testFrequentKeysSurviveScan() {
+        TinyLfuCache cache = new TinyLfuCache("test", 100, 0);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get("hot" + i) == null) {
+                    cache.put("hot" + i, i);
+                }
+            }
+        }
+        // 大量只访问一次的数据不能把热点数据挤出去
+        for (int i = 0; i < 10000; i++) {
+            cache.put("scan" + i, i);
+        }
+        cache.cleanUp();
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot" + i) != null) {
+                hot++;
+            }
+        }
+        Assert.assertTrue("hot keys left: " + hot, hot >= 45);
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        TinyLfuCache cache = new TinyLfuCache("test", 100, 50);
+        cache.put("a", "1");
+        Assert.assertEquals("1", cache.get("a"));
+        Thread.sleep(100);
+        Assert.assertNull(cache.get("a"));
+        cache.cleanUp();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final TinyLfuCache cache = new TinyLfuCache("test", 500, 0);
+        final CountDownLatch latch = new CountDownLatch(8);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        for (int t = 0; t < 8; t++) {
+            final int seed = t;
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 100000; i++) {
+                            int key = random.nextInt(2000);
+                            if (cache.get(key) == null) {
+                                cache.put(key, key);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        latch.await();
+        Assert.assertNull(error.get());
+        cache.cleanUp();
+        Assert.assertTrue(cache.size() <= 500);
+        Assert.assertEquals(800000, cache.getHitCount() + cache.getMissCount());
+    }
+
+    @Test
+    public void testFactoryAndStatus() {
+        URL url = URL.valueOf("test://127.0.0.1:20880/DemoService?method=sayHello&cache=tinylfu&cache.size=10");
+        Cache cache = ExtensionLoader.getExtensionLoader(CacheFactory.class).getAdaptiveExtension().getCache(url);
+        Assert.assertTrue(cache instanceof TinyLfuCache);
+        cache.put("k", "v");
+        Assert.assertEquals("v", cache.get("k"));
+
+        Status status = ExtensionLoader.getExtensionLoader(StatusChecker.class).getExtension("cache").check();
+        Assert.assertEquals(Status.Level.OK, status.getLevel());
+        Assert.assertTrue(status.getMessage(), status.getMessage().contains("DemoService.sayHello size:1, max:10, hit:1, miss:0"));
+    }
+
+}
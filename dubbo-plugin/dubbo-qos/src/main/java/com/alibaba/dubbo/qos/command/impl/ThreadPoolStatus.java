@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.qos.command.impl;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.store.DataStore;
+import com.alibaba.dubbo.common.threadpool.support.AbortPolicyWithReport;
+import com.alibaba.dubbo.qos.command.BaseCommand;
+import com.alibaba.dubbo.qos.command.CommandContext;
+import com.alibaba.dubbo.qos.command.annotation.Cmd;
+import com.alibaba.dubbo.qos.textui.TTable;
+
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Cmd(name = "threadpool", summary = "show provider thread pools", example = {
+        "threadpool"
+})
+public class ThreadPoolStatus implements BaseCommand {
+    @Override
+    public String execute(CommandContext commandContext, String[] args) {
+        DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+
+        TTable tTable = new TTable(new TTable.ColumnDefine[]{
+                new TTable.ColumnDefine(TTable.Align.LEFT),
+                new TTable.ColumnDefine(TTable.Align.RIGHT),
+                new TTable.ColumnDefine(TTable.Align.RIGHT),
+                new TTable.ColumnDefine(TTable.Align.RIGHT),
+                new TTable.ColumnDefine(TTable.Align.RIGHT),
+                new TTable.ColumnDefine(TTable.Align.RIGHT),
+                new TTable.ColumnDefine(TTable.Align.RIGHT)
+        });
+
+        //Header
+        tTable.addRow("Thread Pool", "ACTIVE", "POOL", "MAX", "QUEUED", "COMPLETED", "REJECTED");
+
+        //Content
+        addRows(tTable, "port ", dataStore.get(Constants.EXECUTOR_SERVICE_COMPONENT_KEY));
+        addRows(tTable, "", dataStore.get(Constants.ISOLATED_EXECUTOR_SERVICE_COMPONENT_KEY));
+
+        return tTable.rendering();
+    }
+
+    private void addRows(TTable tTable, String prefix, Map<String, Object> executors) {
+        for (Map.Entry<String, Object> entry : executors.entrySet()) {
+            if (!(entry.getValue() instanceof ThreadPoolExecutor)) {
+                continue;
+            }
+            ThreadPoolExecutor tp = (ThreadPoolExecutor) entry.getValue();
+            String rejected = "-";
+            if (tp.getRejectedExecutionHandler() instanceof AbortPolicyWithReport) {
+                rejected = String.valueOf(((AbortPolicyWithReport) tp.getRejectedExecutionHandler()).getRejectedCount());
+            }
+            tTable.addRow(prefix + entry.getKey(), tp.getActiveCount(), tp.getPoolSize(), tp.getMaximumPoolSize(),
+                    tp.getQueue().size(), tp.getCompletedTaskCount(), rejected);
+        }
+    }
+}
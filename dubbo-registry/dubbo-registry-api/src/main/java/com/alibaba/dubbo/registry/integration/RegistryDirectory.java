@@ -43,7 +43,7 @@ import com.alibaba.dubbo.rpc.protocol.InvokerWrapper;
 import com.alibaba.dubbo.rpc.support.RpcUtils;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -133,6 +133,14 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
      * The initial value is null and the midway may be assigned to null, please use the local variable reference
      */
     private volatile Set<URL> cachedInvokerUrls;
+    /** 提供者URL到合并后URL的缓存，仅在notify中访问，配置规则变化时清空 */
+    private Map<URL, URL> mergedUrls = new HashMap<URL, URL>();
+    /** 上次刷新时各方法未经路由的Invoker列表，用于增量更新 */
+    private Map<String, List<Invoker<T>>> unroutedMethodInvokerMap;
+    /** 上次刷新时路由后、合并分组前的methodInvokerMap */
+    private Map<String, List<Invoker<T>>> routedMethodInvokerMap;
+    /** 计算routedMethodInvokerMap时使用的路由列表 */
+    private List<Router> routedRouters;
 
 
     /**
@@ -317,6 +325,8 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         if (configuratorUrls != null && configuratorUrls.size() > 0) {
             // 将 url 转成 Configurator
             this.configurators = toConfigurators(configuratorUrls);
+            // 配置规则变化，合并结果需重新计算
+            this.mergedUrls = new HashMap<URL, URL>();
         }
 
         // 2、routers
@@ -341,6 +351,8 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
 
         // 刷新 Invoker 列表
         refreshInvoker(invokerUrls);
+        // 提供者或路由规则可能已变化，丢弃缓存的运行时路由结果
+        clearRouteCache();
     }
     /**
      * 将替代网址转换为映射，以便在重新引用时使用。 每次发送所有规则，网址将重新组合并计算
@@ -444,13 +456,13 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
 
             // 将 url 转成 Invoker
             Map<String, Invoker<T>> newUrlInvokerMap = toInvokers(invokerUrls);
-            // 将 newUrlInvokerMap 转成方法名到 Invoker 列表的映射
-            Map<String, List<Invoker<T>>> newMethodInvokerMap = toMethodInvokers(newUrlInvokerMap);
             // 转换出错，直接打印异常，并返回
             if (newUrlInvokerMap == null || newUrlInvokerMap.size() == 0) {
                 logger.error(new IllegalStateException("urls to invokers error .invokerUrls.size :" + invokerUrls.size() + ", invoker.size :0. urls :" + invokerUrls.toString()));
                 return;
             }
+            // 将 newUrlInvokerMap 转成方法名到 Invoker 列表的映射，只处理相对上次新增和删除的 Invoker
+            Map<String, List<Invoker<T>>> newMethodInvokerMap = toMethodInvokers(newUrlInvokerMap, oldUrlInvokerMap);
 
             // 合并多个组的 Invoker
             this.methodInvokerMap = multiGroup ? toMergeMethodInvokerMap(newMethodInvokerMap) : newMethodInvokerMap;
@@ -475,6 +487,9 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
             return newUrlInvokerMap;
         }
         Set<String> keys = new HashSet<String>();
+        Map<URL, URL> localMergedUrls = this.mergedUrls;
+        Map<URL, URL> newMergedUrls = new HashMap<URL, URL>();
+        Map<String, String> providerParameters = new HashMap<String, String>();
         String queryProtocols = this.queryMap.get(Constants.PROTOCOL_KEY);
         for (URL providerUrl : urls) {
             // If protocol is configured at the reference side, only the matching protocol is selected
@@ -499,7 +514,17 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
                         + ", supported protocol: " + ExtensionLoader.getExtensionLoader(Protocol.class).getSupportedExtensions()));
                 continue;
             }
-            URL url = mergeUrl(providerUrl);
+            // 提供者URL和配置规则都没有变化时，合并结果可以直接复用
+            URL url = localMergedUrls.get(providerUrl);
+            if (url == null) {
+                url = mergeUrl(providerUrl);
+            }
+            newMergedUrls.put(providerUrl, url);
+            for (Map.Entry<String, String> entry : url.getParameters().entrySet()) {
+                if (!providerParameters.containsKey(entry.getKey())) {
+                    providerParameters.put(entry.getKey(), entry.getValue());
+                }
+            }
 
             String key = url.toFullString(); // The parameter urls are sorted
             if (keys.contains(key)) { // Repeated url
@@ -531,58 +556,154 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
             }
         }
         keys.clear();
+        this.mergedUrls = newMergedUrls;
+        // The combination of directoryUrl and override is at the end of notify, which can't be handled here
+        this.overrideDirectoryUrl = this.overrideDirectoryUrl.addParametersIfAbsent(providerParameters); // Merge the provider side parameters
         return newUrlInvokerMap;
     }
     /**
-     * Transform the invokers list into a mapping relationship with a method
+     * Transform the invokers list into a mapping relationship with a method.
+     * 与上次刷新相比只有少量提供者变化时，只对受影响的方法列表做写时复制并重新路由，其余列表直接复用
      *
      * @param invokersMap Invoker Map
+     * @param oldInvokersMap 上次刷新的 Invoker Map，可能为null
      * @return Mapping relation between Invoker and method
      */
-    private Map<String, List<Invoker<T>>> toMethodInvokers(Map<String, Invoker<T>> invokersMap) {
-        Map<String, List<Invoker<T>>> newMethodInvokerMap = new HashMap<String, List<Invoker<T>>>();
-        // According to the methods classification declared by the provider URL, the methods is compatible with the registry to execute the filtered methods
-        List<Invoker<T>> invokersList = new ArrayList<Invoker<T>>();
-        if (invokersMap != null && invokersMap.size() > 0) {
+    private Map<String, List<Invoker<T>>> toMethodInvokers(Map<String, Invoker<T>> invokersMap, Map<String, Invoker<T>> oldInvokersMap) {
+        List<Router> routers = getRouters();
+        boolean routersChanged = routers != this.routedRouters;
+        Map<String, List<Invoker<T>>> oldUnrouted = this.unroutedMethodInvokerMap;
+        Map<String, List<Invoker<T>>> oldRouted = this.routedMethodInvokerMap;
+        boolean incremental = oldUnrouted != null && oldRouted != null && oldInvokersMap != null;
+        List<Invoker<T>> added = new ArrayList<Invoker<T>>();
+        List<Invoker<T>> removed = new ArrayList<Invoker<T>>();
+        if (incremental) {
+            for (Map.Entry<String, Invoker<T>> entry : invokersMap.entrySet()) {
+                if (oldInvokersMap.get(entry.getKey()) != entry.getValue()) {
+                    added.add(entry.getValue());
+                }
+            }
+            for (Map.Entry<String, Invoker<T>> entry : oldInvokersMap.entrySet()) {
+                if (invokersMap.get(entry.getKey()) != entry.getValue()) {
+                    removed.add(entry.getValue());
+                }
+            }
+            if (added.isEmpty() && removed.isEmpty() && !routersChanged) {
+                return oldRouted;
+            }
+            // 变化过多时全量重建更划算
+            incremental = added.size() + removed.size() <= invokersMap.size() / 2 + 1;
+        }
+
+        Map<String, List<Invoker<T>>> unrouted;
+        // 未经路由的列表发生变化的方法，null 表示全部变化
+        Set<String> changed = null;
+        if (incremental) {
+            unrouted = new HashMap<String, List<Invoker<T>>>(oldUnrouted);
+            changed = new HashSet<String>();
+            for (Invoker<T> invoker : removed) {
+                for (String method : getInvokerMethods(invoker)) {
+                    List<Invoker<T>> methodInvokers = copyOnWrite(unrouted, oldUnrouted, changed, method);
+                    methodInvokers.remove(invoker);
+                    if (methodInvokers.isEmpty() && !Constants.ANY_VALUE.equals(method)) {
+                        unrouted.remove(method);
+                    }
+                }
+            }
+            for (Invoker<T> invoker : added) {
+                for (String method : getInvokerMethods(invoker)) {
+                    copyOnWrite(unrouted, oldUnrouted, changed, method).add(invoker);
+                }
+            }
+        } else {
+            // According to the methods classification declared by the provider URL, the methods is compatible with the registry to execute the filtered methods
+            unrouted = new HashMap<String, List<Invoker<T>>>();
+            unrouted.put(Constants.ANY_VALUE, new ArrayList<Invoker<T>>());
             for (Invoker<T> invoker : invokersMap.values()) {
-                String parameter = invoker.getUrl().getParameter(Constants.METHODS_KEY);
-                if (parameter != null && parameter.length() > 0) {
-                    String[] methods = Constants.COMMA_SPLIT_PATTERN.split(parameter);
-                    if (methods != null && methods.length > 0) {
-                        for (String method : methods) {
-                            if (method != null && method.length() > 0
-                                    && !Constants.ANY_VALUE.equals(method)) {
-                                List<Invoker<T>> methodInvokers = newMethodInvokerMap.get(method);
-                                if (methodInvokers == null) {
-                                    methodInvokers = new ArrayList<Invoker<T>>();
-                                    newMethodInvokerMap.put(method, methodInvokers);
-                                }
-                                methodInvokers.add(invoker);
-                            }
-                        }
+                for (String method : getInvokerMethods(invoker)) {
+                    List<Invoker<T>> methodInvokers = unrouted.get(method);
+                    if (methodInvokers == null) {
+                        methodInvokers = new ArrayList<Invoker<T>>();
+                        unrouted.put(method, methodInvokers);
                     }
+                    methodInvokers.add(invoker);
                 }
-                invokersList.add(invoker);
             }
         }
-        List<Invoker<T>> newInvokersList = route(invokersList, null);
+
+        Map<String, List<Invoker<T>>> newMethodInvokerMap = new HashMap<String, List<Invoker<T>>>();
+        boolean anyChanged = changed == null || routersChanged || changed.contains(Constants.ANY_VALUE);
+        List<Invoker<T>> newInvokersList = anyChanged
+                ? sortInvokers(route(unrouted.get(Constants.ANY_VALUE), null))
+                : oldRouted.get(Constants.ANY_VALUE);
+        Set<String> routedMethods = new HashSet<String>();
+        if (serviceMethods != null) {
+            routedMethods.addAll(Arrays.asList(serviceMethods));
+        }
+        for (Map.Entry<String, List<Invoker<T>>> entry : unrouted.entrySet()) {
+            String method = entry.getKey();
+            if (Constants.ANY_VALUE.equals(method) || routedMethods.contains(method)) {
+                continue;
+            }
+            // 未声明在服务接口中的方法不经过路由
+            List<Invoker<T>> methodInvokers = changed == null || changed.contains(method) ? null : oldRouted.get(method);
+            newMethodInvokerMap.put(method, methodInvokers != null ? methodInvokers : sortInvokers(entry.getValue()));
+        }
         newMethodInvokerMap.put(Constants.ANY_VALUE, newInvokersList);
-        if (serviceMethods != null && serviceMethods.length > 0) {
-            for (String method : serviceMethods) {
-                List<Invoker<T>> methodInvokers = newMethodInvokerMap.get(method);
-                if (methodInvokers == null || methodInvokers.size() == 0) {
-                    methodInvokers = newInvokersList;
+        for (String method : routedMethods) {
+            List<Invoker<T>> methodInvokers = unrouted.get(method);
+            boolean useAny = methodInvokers == null || methodInvokers.size() == 0;
+            boolean dirty = changed == null || routersChanged || (useAny ? anyChanged : changed.contains(method));
+            List<Invoker<T>> routed = dirty ? null : oldRouted.get(method);
+            if (routed == null) {
+                routed = sortInvokers(route(useAny ? newInvokersList : methodInvokers, method));
+            }
+            newMethodInvokerMap.put(method, routed);
+        }
+        newMethodInvokerMap = Collections.unmodifiableMap(newMethodInvokerMap);
+        this.unroutedMethodInvokerMap = unrouted;
+        this.routedMethodInvokerMap = newMethodInvokerMap;
+        this.routedRouters = routers;
+        return newMethodInvokerMap;
+    }
+    /**
+     * 提供者声明的方法，始终包含 {@link Constants#ANY_VALUE}
+     */
+    private static List<String> getInvokerMethods(Invoker<?> invoker) {
+        List<String> result = new ArrayList<String>();
+        String parameter = invoker.getUrl().getParameter(Constants.METHODS_KEY);
+        if (parameter != null && parameter.length() > 0) {
+            for (String method : Constants.COMMA_SPLIT_PATTERN.split(parameter)) {
+                if (method != null && method.length() > 0
+                        && !Constants.ANY_VALUE.equals(method) && !result.contains(method)) {
+                    result.add(method);
                 }
-                newMethodInvokerMap.put(method, route(methodInvokers, method));
             }
         }
-        // sort and unmodifiable
-        for (String method : new HashSet<String>(newMethodInvokerMap.keySet())) {
-            List<Invoker<T>> methodInvokers = newMethodInvokerMap.get(method);
-            Collections.sort(methodInvokers, InvokerComparator.getComparator());
-            newMethodInvokerMap.put(method, Collections.unmodifiableList(methodInvokers));
-        }
-        return Collections.unmodifiableMap(newMethodInvokerMap);
+        result.add(Constants.ANY_VALUE);
+        return result;
+    }
+    /**
+     * 一次刷新中每个方法的列表最多复制一次，上次发布的列表不会被修改
+     */
+    private static <T> List<Invoker<T>> copyOnWrite(Map<String, List<Invoker<T>>> map, Map<String, List<Invoker<T>>> oldMap,
+                                                    Set<String> changed, String method) {
+        List<Invoker<T>> methodInvokers = map.get(method);
+        if (methodInvokers == null) {
+            methodInvokers = new ArrayList<Invoker<T>>();
+            map.put(method, methodInvokers);
+        } else if (!changed.contains(method) && methodInvokers == oldMap.get(method)) {
+            methodInvokers = new ArrayList<Invoker<T>>(methodInvokers);
+            map.put(method, methodInvokers);
+        }
+        changed.add(method);
+        return methodInvokers;
+    }
+    /** sort and unmodifiable */
+    private static <T> List<Invoker<T>> sortInvokers(List<Invoker<T>> invokers) {
+        List<Invoker<T>> sorted = invokers == null ? new ArrayList<Invoker<T>>() : new ArrayList<Invoker<T>>(invokers);
+        Collections.sort(sorted, InvokerComparator.getComparator());
+        return Collections.unmodifiableList(sorted);
     }
     private Map<String, List<Invoker<T>>> toMergeMethodInvokerMap(Map<String, List<Invoker<T>>> methodMap) {
         Map<String, List<Invoker<T>>> result = new HashMap<String, List<Invoker<T>>>();
@@ -631,9 +752,6 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
 
         providerUrl = providerUrl.addParameter(Constants.CHECK_KEY, String.valueOf(false)); // Do not check whether the connection is successful or not, always create Invoker!
 
-        // The combination of directoryUrl and override is at the end of notify, which can't be handled here
-        this.overrideDirectoryUrl = this.overrideDirectoryUrl.addParametersIfAbsent(providerUrl.getParameters()); // Merge the provider side parameters
-
         if ((providerUrl.getPath() == null || providerUrl.getPath().length() == 0)
                 && "dubbo".equals(providerUrl.getProtocol())) { // Compatible version 1.0
             //fix by tony.chenl DUBBO-44
@@ -678,6 +796,9 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
             localUrlInvokerMap.clear();
         }
         methodInvokerMap = null;
+        unroutedMethodInvokerMap = null;
+        routedMethodInvokerMap = null;
+        routedRouters = null;
     }
     /**
      * Check whether the invoker in the cache needs to be destroyed
@@ -694,9 +815,9 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         // check deleted invoker
         List<String> deleted = null;
         if (oldUrlInvokerMap != null) {
-            Collection<Invoker<T>> newInvokers = newUrlInvokerMap.values();
             for (Map.Entry<String, Invoker<T>> entry : oldUrlInvokerMap.entrySet()) {
-                if (!newInvokers.contains(entry.getValue())) {
+                // 按key比较，避免在values集合上线性查找
+                if (newUrlInvokerMap.get(entry.getKey()) != entry.getValue()) {
                     if (deleted == null) {
                         deleted = new ArrayList<String>();
                     }
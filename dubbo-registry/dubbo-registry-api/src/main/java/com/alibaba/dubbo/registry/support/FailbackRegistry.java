@@ -22,8 +22,10 @@ import com.alibaba.dubbo.common.utils.ConcurrentHashSet;
 import com.alibaba.dubbo.common.utils.NamedThreadFactory;
 import com.alibaba.dubbo.registry.NotifyListener;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,10 +33,12 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * FailbackRegistry. (SPI, Prototype, ThreadSafe)
@@ -63,6 +67,21 @@ public abstract class FailbackRegistry extends AbstractRegistry {
     /** 用于判断该注册中心是否可用，如果注册中心挂掉了那就不可用了 */
     private AtomicBoolean destroyed = new AtomicBoolean(false);
 
+    // ===== 通知合并 =====
+
+    /** 合并通知的等待时间，在该时间内没有新的变更才会通知监听器，0表示不合并 */
+    private final int notifyDelay;
+    /** 合并通知最长的等待时间，避免持续变更时监听器一直得不到通知 */
+    private final int notifyMaxDelay;
+    /** 执行合并后通知的计时器，仅在开启合并时创建 */
+    private final ScheduledExecutorService notifyExecutor;
+    /** 每个订阅对应的待合并通知 */
+    private final ConcurrentMap<URL, ConcurrentMap<NotifyListener, NotifyBatch>> notifyBatches = new ConcurrentHashMap<URL, ConcurrentMap<NotifyListener, NotifyBatch>>();
+    /** 被合并掉的通知次数 */
+    private final AtomicLong mergedNotifyCount = new AtomicLong();
+    /** 合并后实际通知监听器的次数 */
+    private final AtomicLong delayedNotifyCount = new AtomicLong();
+
     public FailbackRegistry(URL url) {
         super(url);
         int retryPeriod = url.getParameter(Constants.REGISTRY_RETRY_PERIOD_KEY, Constants.DEFAULT_REGISTRY_RETRY_PERIOD);
@@ -76,6 +95,9 @@ public abstract class FailbackRegistry extends AbstractRegistry {
                 }
             }
         }, retryPeriod, retryPeriod, TimeUnit.MILLISECONDS);
+        this.notifyDelay = Math.max(url.getParameter(Constants.REGISTRY_NOTIFY_DELAY_KEY, Constants.DEFAULT_REGISTRY_NOTIFY_DELAY), 0);
+        this.notifyMaxDelay = Math.max(url.getParameter(Constants.REGISTRY_NOTIFY_MAX_DELAY_KEY, notifyDelay * 5), notifyDelay);
+        this.notifyExecutor = notifyDelay > 0 ? Executors.newScheduledThreadPool(1, new NamedThreadFactory("DubboRegistryNotifyTimer", true)) : null;
     }
 
     /**
@@ -160,6 +182,7 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         }
         super.subscribe(url, listener);
         removeFailedSubscribed(url, listener);
+        removeNotifyBatch(url, listener);
         try {
             // Sending a subscription request to the server side
             doSubscribe(url, listener);
@@ -197,6 +220,7 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         }
         super.unsubscribe(url, listener);
         removeFailedSubscribed(url, listener);
+        removeNotifyBatch(url, listener);
         try {
             // Sending a canceling subscription request to the server side
             doUnsubscribe(url, listener);
@@ -232,6 +256,8 @@ public abstract class FailbackRegistry extends AbstractRegistry {
      *     如果是routers分类，则订阅方会更新本地路由规则列表；
      *     如果是configuators类别，则订阅方会更新或覆盖本地动态参数列表
      *
+     * 开启notify.delay后，订阅的首次通知仍同步执行，之后的变更在等待时间内按类别合并，只保留每个类别最新的数据
+     *
      * @param url
      * @param listener
      * @param urls
@@ -244,7 +270,24 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         if (listener == null) {
             throw new IllegalArgumentException("notify listener == null");
         }
+        if (notifyDelay > 0 && urls != null && urls.size() > 0
+                && !Constants.ANY_VALUE.equals(url.getServiceInterface())) {
+            ConcurrentMap<NotifyListener, NotifyBatch> batches = notifyBatches.get(url);
+            if (batches == null) {
+                notifyBatches.putIfAbsent(url, new ConcurrentHashMap<NotifyListener, NotifyBatch>());
+                batches = notifyBatches.get(url);
+            }
+            NotifyBatch batch = batches.get(listener);
+            if (batch != null) {
+                batch.add(urls);
+                return;
+            }
+            batches.putIfAbsent(listener, new NotifyBatch(url, listener));
+        }
+        notifyNow(url, listener, urls);
+    }
 
+    private void notifyNow(URL url, NotifyListener listener, List<URL> urls) {
         try {
             doNotify(url, listener, urls);
         } catch (Exception t) {
@@ -449,6 +492,10 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         } catch (Throwable t) {
             logger.warn(t.getMessage(), t);
         }
+        if (notifyExecutor != null) {
+            notifyExecutor.shutdownNow();
+        }
+        notifyBatches.clear();
     }
 
     // TODO: 2017/8/30 to abstract this method
@@ -479,6 +526,12 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         }
         listeners.add(listener);
     }
+    private void removeNotifyBatch(URL url, NotifyListener listener) {
+        Map<NotifyListener, NotifyBatch> batches = notifyBatches.get(url);
+        if (batches != null) {
+            batches.remove(listener);
+        }
+    }
     private void removeFailedSubscribed(URL url, NotifyListener listener) {
         Set<NotifyListener> listeners = failedSubscribed.get(url);
         if (listeners != null) {
@@ -512,5 +565,86 @@ public abstract class FailbackRegistry extends AbstractRegistry {
     public Map<URL, Map<NotifyListener, List<URL>>> getFailedNotified() {
         return failedNotified;
     }
+    public long getMergedNotifyCount() {
+        return mergedNotifyCount.get();
+    }
+    public long getDelayedNotifyCount() {
+        return delayedNotifyCount.get();
+    }
+
+    /**
+     * 一个订阅待合并的通知，按类别保存最新的URL列表
+     */
+    private class NotifyBatch implements Runnable {
+        private final URL url;
+        private final NotifyListener listener;
+        private Map<String, List<URL>> pending;
+        private long firstTime;
+        private long lastTime;
+        private boolean scheduled;
+
+        private NotifyBatch(URL url, NotifyListener listener) {
+            this.url = url;
+            this.listener = listener;
+        }
+
+        synchronized void add(List<URL> urls) {
+            long now = System.currentTimeMillis();
+            if (pending == null) {
+                pending = new LinkedHashMap<String, List<URL>>();
+                firstTime = now;
+            } else {
+                mergedNotifyCount.incrementAndGet();
+            }
+            Map<String, List<URL>> categories = new HashMap<String, List<URL>>();
+            for (URL u : urls) {
+                String category = u.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
+                List<URL> categoryList = categories.get(category);
+                if (categoryList == null) {
+                    categoryList = new ArrayList<URL>();
+                    categories.put(category, categoryList);
+                }
+                categoryList.add(u);
+            }
+            pending.putAll(categories);
+            lastTime = now;
+            if (!scheduled) {
+                scheduled = schedule(notifyDelay);
+            }
+        }
+
+        private boolean schedule(long delay) {
+            try {
+                notifyExecutor.schedule(this, delay, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (RejectedExecutionException e) {
+                // destroyed
+                return false;
+            }
+        }
+
+        public void run() {
+            List<URL> urls;
+            synchronized (this) {
+                long wait = Math.min(lastTime + notifyDelay, firstTime + notifyMaxDelay) - System.currentTimeMillis();
+                if (wait > 0 && schedule(wait)) {
+                    return;
+                }
+                urls = new ArrayList<URL>();
+                for (List<URL> categoryList : pending.values()) {
+                    urls.addAll(categoryList);
+                }
+                pending = null;
+                scheduled = false;
+            }
+            Map<NotifyListener, NotifyBatch> batches = notifyBatches.get(url);
+            // 已取消订阅或重新订阅
+            if (batches == null || batches.get(listener) != this) {
+                return;
+            }
+            delayedNotifyCount.incrementAndGet();
+            notifyNow(url, listener, urls);
+        }
+    }
 
 }
\ No newline at end of file
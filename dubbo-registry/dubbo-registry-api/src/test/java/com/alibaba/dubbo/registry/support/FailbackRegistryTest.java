@@ -177,6 +177,41 @@ public class FailbackRegistryTest {
         assertEquals(2, count.get());
     }
 
+    @Test
+    public void testNotify_Coalesced() throws Exception {
+        final AtomicInteger count = new AtomicInteger(0);
+        final AtomicReference<List<URL>> last = new AtomicReference<List<URL>>();
+        NotifyListener listner = new NotifyListener() {
+            public void notify(List<URL> urls) {
+                count.incrementAndGet();
+                last.set(urls);
+            }
+        };
+        URL url = registryUrl.addParameter(Constants.REGISTRY_NOTIFY_DELAY_KEY, 100)
+                .addParameter(Constants.REGISTRY_NOTIFY_MAX_DELAY_KEY, 2000);
+        registry = new MockRegistry(url, new CountDownLatch(0));
+        URL consumerUrl = serviceUrl.setProtocol(Constants.CONSUMER_PROTOCOL).addParameters(CollectionUtils.toStringMap("check", "false"));
+        registry.subscribe(consumerUrl, listner);
+        // The first notification of a subscription is not delayed
+        assertEquals(1, count.get());
+
+        for (int i = 0; i < 5; i++) {
+            registry.notify(consumerUrl, listner, Arrays.asList(serviceUrl.setHost("10.20.30." + i)));
+        }
+        assertEquals(1, count.get());
+        for (int i = 0; i < trytimes * 4; i++) {
+            if (count.get() == 2)
+                break;
+            Thread.sleep(sleeptime);
+        }
+        assertEquals(2, count.get());
+        assertEquals(1, last.get().size());
+        assertEquals("10.20.30.4", last.get().get(0).getHost());
+        assertEquals(4, registry.getMergedNotifyCount());
+        assertEquals(1, registry.getDelayedNotifyCount());
+        registry.destroy();
+    }
+
 
     private static class MockRegistry extends FailbackRegistry {
         CountDownLatch latch;
@@ -1015,6 +1015,44 @@ public class RegistryDirectoryTest {
         Assert.assertEquals(2, invokers.size());
     }
 
+    @Test
+    public void testNotify_IncrementalProviders() {
+        RegistryDirectory registryDirectory = getRegistryDirectory();
+        invocation = new RpcInvocation();
+        invocation.setMethodName("getXXX1");
+
+        List<URL> durls = new ArrayList<URL>();
+        for (int i = 0; i < 6; i++) {
+            durls.add(SERVICEURL.setHost("10.20.30." + (140 + i)).addParameter("methods", "getXXX1,getXXX2"));
+        }
+        registryDirectory.notify(durls);
+        List<Invoker<?>> invokers = registryDirectory.list(invocation);
+        Assert.assertEquals(6, invokers.size());
+
+        // 删除一个、新增一个提供者，未变化的Invoker保持不变
+        List<URL> durls2 = new ArrayList<URL>(durls.subList(1, 6));
+        durls2.add(SERVICEURL.setHost("10.20.30.150").addParameter("methods", "getXXX1"));
+        registryDirectory.notify(durls2);
+        List<Invoker<?>> invokers2 = registryDirectory.list(invocation);
+        Assert.assertEquals(6, invokers2.size());
+        for (Invoker<?> invoker : invokers) {
+            if (!"10.20.30.140".equals(invoker.getUrl().getHost())) {
+                Assert.assertTrue(invokers2.contains(invoker));
+            }
+        }
+        Assert.assertEquals(6, invokers.size());
+
+        invocation.setMethodName("getXXX2");
+        Assert.assertEquals(5, registryDirectory.list(invocation).size());
+        invocation.setMethodName("getXXX3");
+        Assert.assertEquals(6, registryDirectory.list(invocation).size());
+
+        // 相同的提供者再次通知，方法列表直接复用
+        registryDirectory.notify(new ArrayList<URL>(durls2));
+        invocation.setMethodName("getXXX1");
+        Assert.assertSame(invokers2, registryDirectory.list(invocation));
+    }
+
     enum Param {
         MORGAN,
     }
@@ -22,7 +22,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 
-public abstract class AbstractChannelBuffer implements ChannelBuffer {
+public abstract class AbstractChannelBuffer implements NumberChannelBuffer {
 
     /** 表示从缓冲区开始读取数据的位置 */
     private int readerIndex;
@@ -201,6 +201,24 @@ public abstract class AbstractChannelBuffer implements ChannelBuffer {
     public void writeByte(int value) {
         setByte(writerIndex++, value);
     }
+    public void writeShort(int value) {
+        writeByte(value >>> 8);
+        writeByte(value);
+    }
+    public void writeInt(int value) {
+        writeShort(value >>> 16);
+        writeShort(value);
+    }
+    public void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+    public void setInt(int index, int value) {
+        setByte(index, value >>> 24);
+        setByte(index + 1, value >>> 16);
+        setByte(index + 2, value >>> 8);
+        setByte(index + 3, value);
+    }
     public void writeBytes(byte[] src, int srcIndex, int length) {
         setBytes(writerIndex, src, srcIndex, length);
         writerIndex += length;
@@ -17,6 +17,8 @@
 
 package com.alibaba.dubbo.remoting.buffer;
 
+import com.alibaba.dubbo.common.io.UnsafeByteArrayInputStream;
+
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -25,6 +27,8 @@ public class ChannelBufferInputStream extends InputStream {
     private final ChannelBuffer buffer;
     private final int startIndex;
     private final int endIndex;
+    /** buffer是截取出来并持有引用的，关闭流时释放 */
+    private boolean releaseOnClose;
 
     public ChannelBufferInputStream(ChannelBuffer buffer) {
         this(buffer, buffer.readableBytes());
@@ -50,6 +54,33 @@ public class ChannelBufferInputStream extends InputStream {
     public int readBytes() {
         return buffer.readerIndex() - startIndex;
     }
+
+    /**
+     * 取出流中剩余的数据，用于在IO线程之外读取（IO线程中的buffer在decode返回后会被复用）。
+     * buffer是{@link RetainableChannelBuffer}时截取共享的内容，不拷贝数据，返回的流关闭时释放；否则拷贝一份数据。
+     *
+     * @return
+     */
+    public InputStream readRemaining() throws IOException {
+        int length = available();
+        if (buffer instanceof RetainableChannelBuffer) {
+            ChannelBufferInputStream is = new ChannelBufferInputStream(
+                    ((RetainableChannelBuffer) buffer).readRetainedSlice(length), length);
+            is.releaseOnClose = true;
+            return is;
+        }
+        byte[] data = new byte[length];
+        buffer.readBytes(data);
+        return new UnsafeByteArrayInputStream(data);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (releaseOnClose) {
+            releaseOnClose = false;
+            ((RetainableChannelBuffer) buffer).release();
+        }
+    }
     @Override
     public int available() throws IOException {
         return endIndex - buffer.readerIndex();
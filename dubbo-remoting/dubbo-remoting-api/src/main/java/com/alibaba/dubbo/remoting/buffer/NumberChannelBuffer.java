@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.buffer;
+
+/**
+ * 支持按short/int/long整体读写的buffer，编码消息头时用一次调用代替逐字节写入。
+ * <p>
+ * 没有加在{@link ChannelBuffer}中，以免第三方的ChannelBuffer实现不兼容，使用前先用instanceof判断。
+ */
+public interface NumberChannelBuffer extends ChannelBuffer {
+
+    /**
+     * Sets the specified 32-bit integer at the specified absolute {@code index}
+     * in this buffer.  This method does not modify {@code readerIndex} or
+     * {@code writerIndex} of this buffer.
+     *
+     * @throws IndexOutOfBoundsException if the specified {@code index} is less
+     *                                   than {@code 0} or {@code index + 4} is
+     *                                   greater than {@code this.capacity}
+     */
+    void setInt(int index, int value);
+
+    /**
+     * Sets the specified 16-bit short integer at the current {@code writerIndex}
+     * and increases the {@code writerIndex} by {@code 2} in this buffer.  The
+     * 16 high-order bits of the specified value are ignored.
+     *
+     * @throws IndexOutOfBoundsException if {@code this.writableBytes} is less
+     *                                   than {@code 2}
+     */
+    void writeShort(int value);
+
+    /**
+     * Sets the specified 32-bit integer at the current {@code writerIndex} and
+     * increases the {@code writerIndex} by {@code 4} in this buffer.
+     *
+     * @throws IndexOutOfBoundsException if {@code this.writableBytes} is less
+     *                                   than {@code 4}
+     */
+    void writeInt(int value);
+
+    /**
+     * Sets the specified 64-bit long integer at the current {@code writerIndex}
+     * and increases the {@code writerIndex} by {@code 8} in this buffer.
+     *
+     * @throws IndexOutOfBoundsException if {@code this.writableBytes} is less
+     *                                   than {@code 8}
+     */
+    void writeLong(long value);
+
+}
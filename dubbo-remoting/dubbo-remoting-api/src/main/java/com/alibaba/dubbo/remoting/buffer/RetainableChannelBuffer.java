@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.buffer;
+
+/**
+ * 支持引用计数的buffer（例如netty4的池化ByteBuf）。
+ * <p>
+ * 截取出来的部分与原buffer共享内存，不拷贝数据，可以在IO线程之外读取；截取时持有一次引用，读取完成后必须调用{@link #release()}。
+ */
+public interface RetainableChannelBuffer extends ChannelBuffer {
+
+    /**
+     * 从readerIndex开始截取length字节并增加一次引用计数，readerIndex后移length
+     *
+     * @param length
+     * @return 与当前buffer共享内容的buffer
+     */
+    RetainableChannelBuffer readRetainedSlice(int length);
+
+    /**
+     * 释放一次引用
+     *
+     * @return 引用计数降为0、内存已经回收时返回true
+     */
+    boolean release();
+
+}
@@ -30,6 +30,7 @@ import com.alibaba.dubbo.remoting.RemotingException;
 import com.alibaba.dubbo.remoting.buffer.ChannelBuffer;
 import com.alibaba.dubbo.remoting.buffer.ChannelBufferInputStream;
 import com.alibaba.dubbo.remoting.buffer.ChannelBufferOutputStream;
+import com.alibaba.dubbo.remoting.buffer.NumberChannelBuffer;
 import com.alibaba.dubbo.remoting.exchange.Request;
 import com.alibaba.dubbo.remoting.exchange.Response;
 import com.alibaba.dubbo.remoting.exchange.support.DefaultFuture;
@@ -61,6 +62,9 @@ public class ExchangeCodec extends TelnetCodec {
     protected static final int SERIALIZATION_MASK = 0x1f;
     private static final Logger logger = LoggerFactory.getLogger(ExchangeCodec.class);
 
+    /** 子类是否覆盖了已废弃的getRequestData(long) */
+    private final boolean legacyGetRequestData = overridesGetRequestData(getClass());
+
     public Short getMagicCode() {
         return MAGIC;
     }
@@ -136,7 +140,7 @@ public class ExchangeCodec extends TelnetCodec {
     protected Object decodeBody(Channel channel, InputStream is, byte[] header) throws IOException {
         byte flag = header[2], proto = (byte) (flag & SERIALIZATION_MASK);
         Serialization s = CodecSupport.getSerialization(channel.getUrl(), proto);
-        ObjectInput in = s.deserialize(channel.getUrl(), is);
+        ObjectInput in = CodecSupport.deserialize(channel, s, is);
         // get request id.
         long id = Bytes.bytes2long(header, 4);
         if ((flag & FLAG_REQUEST) == 0) {
@@ -156,7 +160,7 @@ public class ExchangeCodec extends TelnetCodec {
                     } else if (res.isEvent()) {
                         data = decodeEventData(channel, in);
                     } else {
-                        data = decodeResponseData(channel, in, getRequestData(id));
+                        data = decodeResponseData(channel, in, getRequestData(channel, id));
                     }
                     res.setResult(data);
                 } catch (Throwable t) {
@@ -194,8 +198,37 @@ public class ExchangeCodec extends TelnetCodec {
         }
     }
 
+    /**
+     * @deprecated 请求按通道登记，使用{@link #getRequestData(Channel, long)}
+     */
+    @Deprecated
     protected Object getRequestData(long id) {
-        DefaultFuture future = DefaultFuture.getFuture(id);
+        return requestDataOf(DefaultFuture.getFuture(id));
+    }
+
+    /**
+     * 获取通道上请求id对应的请求数据；子类覆盖了已废弃的{@link #getRequestData(long)}时仍然调用它
+     */
+    protected Object getRequestData(Channel channel, long id) {
+        if (legacyGetRequestData) {
+            return getRequestData(id);
+        }
+        return requestDataOf(DefaultFuture.getFuture(channel, id));
+    }
+
+    private static boolean overridesGetRequestData(Class<?> cl) {
+        for (; cl != null && cl != ExchangeCodec.class; cl = cl.getSuperclass()) {
+            try {
+                cl.getDeclaredMethod("getRequestData", long.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // 继续检查父类
+            }
+        }
+        return false;
+    }
+
+    private static Object requestDataOf(DefaultFuture future) {
         if (future == null)
             return null;
         Request req = future.getRequest();
@@ -206,25 +239,19 @@ public class ExchangeCodec extends TelnetCodec {
 
     protected void encodeRequest(Channel channel, ChannelBuffer buffer, Request req) throws IOException {
         Serialization serialization = getSerialization(channel);
-        // header.
-        byte[] header = new byte[HEADER_LENGTH];
-        // set magic number.
-        Bytes.short2bytes(MAGIC, header);
-
         // set request and serialization flag.
-        header[2] = (byte) (FLAG_REQUEST | serialization.getContentTypeId());
+        byte flag = (byte) (FLAG_REQUEST | serialization.getContentTypeId());
 
-        if (req.isTwoWay()) header[2] |= FLAG_TWOWAY;
-        if (req.isEvent()) header[2] |= FLAG_EVENT;
+        if (req.isTwoWay()) flag |= FLAG_TWOWAY;
+        if (req.isEvent()) flag |= FLAG_EVENT;
 
-        // set request id.
-        Bytes.long2bytes(req.getId(), header, 4);
+        // header.
+        int savedWriteIndex = buffer.writerIndex();
+        writeHeader(buffer, flag, (byte) 0, req.getId());
 
         // encode request data.
-        int savedWriteIndex = buffer.writerIndex();
-        buffer.writerIndex(savedWriteIndex + HEADER_LENGTH);
         ChannelBufferOutputStream bos = new ChannelBufferOutputStream(buffer);
-        ObjectOutput out = serialization.serialize(channel.getUrl(), bos);
+        ObjectOutput out = CodecSupport.serialize(channel, serialization, bos);
         if (req.isEvent()) {
             encodeEventData(channel, out, req.getData());
         } else {
@@ -238,34 +265,23 @@ public class ExchangeCodec extends TelnetCodec {
         bos.close();
         int len = bos.writtenBytes();
         checkPayload(channel, len);
-        Bytes.int2bytes(len, header, 12);
-
-        // write
-        buffer.writerIndex(savedWriteIndex);
-        buffer.writeBytes(header); // write header.
-        buffer.writerIndex(savedWriteIndex + HEADER_LENGTH + len);
+        setBodyLength(buffer, savedWriteIndex, len);
     }
 
     protected void encodeResponse(Channel channel, ChannelBuffer buffer, Response res) throws IOException {
         int savedWriteIndex = buffer.writerIndex();
         try {
             Serialization serialization = getSerialization(channel);
-            // header.
-            byte[] header = new byte[HEADER_LENGTH];
-            // set magic number.
-            Bytes.short2bytes(MAGIC, header);
             // set request and serialization flag.
-            header[2] = serialization.getContentTypeId();
-            if (res.isHeartbeat()) header[2] |= FLAG_EVENT;
+            byte flag = serialization.getContentTypeId();
+            if (res.isHeartbeat()) flag |= FLAG_EVENT;
             // set response status.
             byte status = res.getStatus();
-            header[3] = status;
-            // set request id.
-            Bytes.long2bytes(res.getId(), header, 4);
+            // header.
+            writeHeader(buffer, flag, status, res.getId());
 
-            buffer.writerIndex(savedWriteIndex + HEADER_LENGTH);
             ChannelBufferOutputStream bos = new ChannelBufferOutputStream(buffer);
-            ObjectOutput out = serialization.serialize(channel.getUrl(), bos);
+            ObjectOutput out = CodecSupport.serialize(channel, serialization, bos);
             // encode response data or error message.
             if (status == Response.OK) {
                 if (res.isHeartbeat()) {
@@ -283,11 +299,7 @@ public class ExchangeCodec extends TelnetCodec {
 
             int len = bos.writtenBytes();
             checkPayload(channel, len);
-            Bytes.int2bytes(len, header, 12);
-            // write
-            buffer.writerIndex(savedWriteIndex);
-            buffer.writeBytes(header); // write header.
-            buffer.writerIndex(savedWriteIndex + HEADER_LENGTH + len);
+            setBodyLength(buffer, savedWriteIndex, len);
         } catch (Throwable t) {
             // clear buffer
             buffer.writerIndex(savedWriteIndex);
@@ -331,6 +343,47 @@ public class ExchangeCodec extends TelnetCodec {
         }
     }
 
+    /**
+     * 直接在buffer中写入消息头，数据长度先占位，序列化完成后由{@link #setBodyLength}回填，
+     * 避免每条消息分配头部数组再拷贝一次。
+     */
+    private static void writeHeader(ChannelBuffer buffer, byte flag, byte status, long id) {
+        if (buffer instanceof NumberChannelBuffer) {
+            NumberChannelBuffer numberBuffer = (NumberChannelBuffer) buffer;
+            // set magic number.
+            numberBuffer.writeShort(MAGIC);
+            numberBuffer.writeByte(flag);
+            numberBuffer.writeByte(status);
+            // set request id.
+            numberBuffer.writeLong(id);
+            // data length placeholder.
+            numberBuffer.writeInt(0);
+            return;
+        }
+        buffer.writeByte(MAGIC_HIGH);
+        buffer.writeByte(MAGIC_LOW);
+        buffer.writeByte(flag);
+        buffer.writeByte(status);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer.writeByte((int) (id >>> shift));
+        }
+        for (int i = 0; i < 4; i++) {
+            buffer.writeByte(0);
+        }
+    }
+
+    private static void setBodyLength(ChannelBuffer buffer, int headerIndex, int len) {
+        int index = headerIndex + 12;
+        if (buffer instanceof NumberChannelBuffer) {
+            ((NumberChannelBuffer) buffer).setInt(index, len);
+            return;
+        }
+        buffer.setByte(index, len >>> 24);
+        buffer.setByte(index + 1, len >>> 16);
+        buffer.setByte(index + 2, len >>> 8);
+        buffer.setByte(index + 3, len);
+    }
+
     @Override
     protected Object decodeData(ObjectInput in) throws IOException {
         return decodeRequestData(in);
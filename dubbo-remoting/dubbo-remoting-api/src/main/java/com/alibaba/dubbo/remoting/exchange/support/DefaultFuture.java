@@ -17,8 +17,14 @@
 package com.alibaba.dubbo.remoting.exchange.support;
 
 import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.logger.Logger;
 import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.timer.HashedWheelTimer;
+import com.alibaba.dubbo.common.timer.Timeout;
+import com.alibaba.dubbo.common.timer.Timer;
+import com.alibaba.dubbo.common.timer.TimerTask;
+import com.alibaba.dubbo.common.utils.NamedThreadFactory;
 import com.alibaba.dubbo.remoting.Channel;
 import com.alibaba.dubbo.remoting.RemotingException;
 import com.alibaba.dubbo.remoting.TimeoutException;
@@ -29,8 +35,8 @@ import com.alibaba.dubbo.remoting.exchange.ResponseFuture;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -43,16 +49,8 @@ public class DefaultFuture implements ResponseFuture {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultFuture.class);
 
-    /** 所有等待response的Channel都会缓存到这里，当响应数据返回后，Channel从该Map中移除 */
-    private static final Map<Long, Channel> CHANNELS = new ConcurrentHashMap<Long, Channel>();
-    /** 缓存所有等待response的Future，当响应数据返回后，futrue从该Map中移除 */
-    private static final Map<Long, DefaultFuture> FUTURES = new ConcurrentHashMap<Long, DefaultFuture>();
-
-    static {
-        Thread th = new Thread(new RemotingInvocationTimeoutScan(), "DubboResponseTimeoutScanTimer");
-        th.setDaemon(true);
-        th.start();
-    }
+    /** 超时检测的时间轮，key为时间轮的tick（毫秒），即超时检测的精度，同一精度的Future共用一个时间轮 */
+    private static final ConcurrentMap<Integer, Timer> TIMEOUT_TIMERS = new ConcurrentHashMap<Integer, Timer>();
 
     // invoke id.
     private final long id;
@@ -62,6 +60,8 @@ public class DefaultFuture implements ResponseFuture {
     private final Request request;
     /** 等会响应的超时时间 */
     private final int timeout;
+    /** 登记该Future的通道请求表，当响应数据返回后，Future从该表中移除 */
+    private final InFlightRequests inFlight;
 
     private final Lock lock = new ReentrantLock();
     private final Condition done = lock.newCondition();
@@ -71,6 +71,8 @@ public class DefaultFuture implements ResponseFuture {
     private volatile Response response;
     /** 响应数据返回后的回调接口，用于异步接口调用 */
     private volatile ResponseCallback callback;
+    /** 超时检测任务，收到响应后取消 */
+    private volatile Timeout timeoutCheckTask;
 
     public DefaultFuture(Channel channel, Request request, int timeout) {
         this.channel = channel;
@@ -78,16 +80,115 @@ public class DefaultFuture implements ResponseFuture {
         this.id = request.getId();
         this.timeout = timeout > 0 ? timeout : channel.getUrl().getPositiveParameter(Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
         // put into waiting map.
-        FUTURES.put(id, this);
-        CHANNELS.put(id, channel);
+        this.inFlight = InFlightRequests.getOrCreate(channel);
+        inFlight.put(id, this);
+        timeoutCheck();
+    }
+
+    /**
+     * 获取指定精度的超时检测时间轮，精度通过url上的timeout.tick参数配置，默认30毫秒
+     *
+     * @param url
+     * @return
+     */
+    private static Timer getTimeoutTimer(URL url) {
+        int tick = url == null ? Constants.DEFAULT_TIMEOUT_TICK
+                : url.getPositiveParameter(Constants.TIMEOUT_TICK_KEY, Constants.DEFAULT_TIMEOUT_TICK);
+        Timer timer = TIMEOUT_TIMERS.get(tick);
+        if (timer == null) {
+            TIMEOUT_TIMERS.putIfAbsent(tick, new HashedWheelTimer(
+                    new NamedThreadFactory("DubboResponseTimeoutTimer-" + tick + "ms", true), tick, TimeUnit.MILLISECONDS));
+            timer = TIMEOUT_TIMERS.get(tick);
+        }
+        return timer;
     }
 
+    /**
+     * 向时间轮注册超时检测任务，到期时如果还没有收到响应，则以超时响应结束该Future
+     */
+    private void timeoutCheck() {
+        timeoutCheckTask = getTimeoutTimer(channel.getUrl()).newTimeout(new TimeoutCheckTask(this), timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取通道上指定请求id的Future
+     *
+     * @param channel
+     * @param id
+     * @return
+     */
+    public static DefaultFuture getFuture(Channel channel, long id) {
+        InFlightRequests requests = InFlightRequests.get(channel);
+        DefaultFuture future = requests == null ? null : requests.get(id);
+        if (future == null && !InFlightRequests.DETACHED.isEmpty()) {
+            future = InFlightRequests.DETACHED.get(id);
+        }
+        return future;
+    }
+
+    /**
+     * 获取指定请求id的Future，需要遍历所有通道的请求表，已知通道时应使用{@link #getFuture(Channel, long)}
+     *
+     * @param id
+     * @return
+     * @deprecated 请求按通道登记，使用{@link #getFuture(Channel, long)}
+     */
+    @Deprecated
     public static DefaultFuture getFuture(long id) {
-        return FUTURES.get(id);
+        return InFlightRequests.find(id);
     }
 
+    /**
+     * 通道上是否还有等待响应的请求
+     *
+     * @param channel
+     * @return
+     */
     public static boolean hasFuture(Channel channel) {
-        return CHANNELS.containsValue(channel);
+        InFlightRequests requests = InFlightRequests.get(channel);
+        if (requests != null && !requests.isEmpty()) {
+            return true;
+        }
+        if (!InFlightRequests.DETACHED.isEmpty()) {
+            for (DefaultFuture future : InFlightRequests.DETACHED.values()) {
+                if (future.getChannel() == channel) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 通道断开时调用：直接以失败响应结束该通道上所有未完成的请求，不必等到超时
+     *
+     * @param channel
+     */
+    public static void closeChannel(Channel channel) {
+        InFlightRequests requests = InFlightRequests.get(channel);
+        if (requests != null && !requests.isEmpty()) {
+            for (DefaultFuture future : requests.removeAll()) {
+                inactive(channel, future);
+            }
+        }
+        if (!InFlightRequests.DETACHED.isEmpty()) {
+            for (DefaultFuture future : InFlightRequests.DETACHED.values()) {
+                if (future.getChannel() == channel && InFlightRequests.DETACHED.remove(future.getId()) == future) {
+                    inactive(channel, future);
+                }
+            }
+        }
+    }
+
+    private static void inactive(Channel channel, DefaultFuture future) {
+        if (future.isDone()) {
+            return;
+        }
+        Response disconnectResponse = new Response(future.getId());
+        disconnectResponse.setStatus(Response.CHANNEL_INACTIVE);
+        disconnectResponse.setErrorMessage("Channel " + channel + " is inactive. Directly return the unfinished request : "
+                + future.getRequest());
+        future.doReceived(disconnectResponse);
     }
 
     /**
@@ -97,7 +198,7 @@ public class DefaultFuture implements ResponseFuture {
      * @param request
      */
     public static void sent(Channel channel, Request request) {
-        DefaultFuture future = FUTURES.get(request.getId());
+        DefaultFuture future = getFuture(channel, request.getId());
         if (future != null) {
             future.doSent();
         }
@@ -110,19 +211,19 @@ public class DefaultFuture implements ResponseFuture {
      * @param response
      */
     public static void received(Channel channel, Response response) {
-        try {
-            DefaultFuture future = FUTURES.remove(response.getId());
-            if (future != null) {
-                future.doReceived(response);
-            } else {
-                logger.warn("The timeout response finally returned at "
-                        + (new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()))
-                        + ", response " + response
-                        + (channel == null ? "" : ", channel: " + channel.getLocalAddress()
-                        + " -> " + channel.getRemoteAddress()));
-            }
-        } finally {
-            CHANNELS.remove(response.getId());
+        InFlightRequests requests = InFlightRequests.get(channel);
+        DefaultFuture future = requests == null ? null : requests.remove(response.getId());
+        if (future == null && !InFlightRequests.DETACHED.isEmpty()) {
+            future = InFlightRequests.DETACHED.remove(response.getId());
+        }
+        if (future != null) {
+            future.doReceived(response);
+        } else {
+            logger.warn("The timeout response finally returned at "
+                    + (new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()))
+                    + ", response " + response
+                    + (channel == null ? "" : ", channel: " + channel.getLocalAddress()
+                    + " -> " + channel.getRemoteAddress()));
         }
     }
 
@@ -177,8 +278,8 @@ public class DefaultFuture implements ResponseFuture {
         Response errorResult = new Response(id);
         errorResult.setErrorMessage("request future has been canceled.");
         response = errorResult;
-        FUTURES.remove(id);
-        CHANNELS.remove(id);
+        inFlight.remove(id);
+        cancelTimeoutCheck();
     }
 
     public boolean isDone() {
@@ -281,19 +382,19 @@ public class DefaultFuture implements ResponseFuture {
         return request;
     }
 
-    private int getTimeout() {
-        return timeout;
-    }
-
-    private long getStartTimestamp() {
-        return start;
-    }
-
     private void doSent() {
         sent = System.currentTimeMillis();
     }
 
+    private void cancelTimeoutCheck() {
+        Timeout t = timeoutCheckTask;
+        if (t != null) {
+            t.cancel();
+        }
+    }
+
     private void doReceived(Response res) {
+        cancelTimeoutCheck();
         lock.lock();
         try {
             response = res;
@@ -321,31 +422,31 @@ public class DefaultFuture implements ResponseFuture {
                 + " -> " + channel.getRemoteAddress();
     }
 
-    private static class RemotingInvocationTimeoutScan implements Runnable {
-
-        public void run() {
-            while (true) {
-                try {
-                    for (DefaultFuture future : FUTURES.values()) {
-                        if (future == null || future.isDone()) {
-                            continue;
-                        }
-                        if (System.currentTimeMillis() - future.getStartTimestamp() > future.getTimeout()) {
-                            // create exception response.
-                            Response timeoutResponse = new Response(future.getId());
-                            // set timeout status.
-                            timeoutResponse.setStatus(future.isSent() ? Response.SERVER_TIMEOUT : Response.CLIENT_TIMEOUT);
-                            timeoutResponse.setErrorMessage(future.getTimeoutMessage(true));
-                            // handle response.
-                            DefaultFuture.received(future.getChannel(), timeoutResponse);
-                        }
-                    }
-                    Thread.sleep(30);
-                } catch (Throwable e) {
-                    logger.error("Exception when scan the timeout invocation of remoting.", e);
-                }
+    /**
+     * 超时检测任务：每个Future对应一个，在时间轮上到期后执行，收到响应时会被取消
+     */
+    private static class TimeoutCheckTask implements TimerTask {
+
+        private final DefaultFuture future;
+
+        TimeoutCheckTask(DefaultFuture future) {
+            this.future = future;
+        }
+
+        public void run(Timeout timeout) {
+            if (future.isDone()) {
+                return;
+            }
+            // create exception response.
+            Response timeoutResponse = new Response(future.getId());
+            // set timeout status.
+            timeoutResponse.setStatus(future.isSent() ? Response.SERVER_TIMEOUT : Response.CLIENT_TIMEOUT);
+            timeoutResponse.setErrorMessage(future.getTimeoutMessage(true));
+            // handle response. 超时的Future直接从其登记的请求表中移除，不依赖通道属性（通道可能已经重连）
+            if (future.inFlight.remove(future.getId()) != null) {
+                future.doReceived(timeoutResponse);
             }
         }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.exchange.support;
+
+import com.alibaba.dubbo.common.utils.LongObjectHashMap;
+import com.alibaba.dubbo.remoting.Channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个通道上所有等待响应的请求，以请求id为key缓存{@link DefaultFuture}。
+ * <p>
+ * 表按请求id分段，每段是一个以long为key的开放寻址哈希表，由各自的锁保护：请求的注册和移除不需要对id装箱，
+ * 不同连接之间互不竞争，通道关闭时也只需要处理本通道上的请求。
+ * <p>
+ * 该表作为通道属性保存在通道上；通道尚未建立连接时无法保存属性，此时请求登记在{@link #DETACHED}中。
+ */
+final class InFlightRequests {
+
+    private static final String CHANNEL_KEY = InFlightRequests.class.getName() + ".CHANNEL";
+
+    /** 无法挂到通道上的请求（例如发送时才建立连接的客户端）统一登记在这里 */
+    static final InFlightRequests DETACHED = new InFlightRequests();
+
+    /** 所有通道上的请求表，仅用于按请求id全局查找；弱引用，通道被回收后表自动移除 */
+    private static final Set<InFlightRequests> CHANNEL_TABLES = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<InFlightRequests, Boolean>()));
+
+    private static final int STRIPES = 16;
+
+    private static final int STRIPE_MASK = STRIPES - 1;
+
+    private final Segment[] segments = new Segment[STRIPES];
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    InFlightRequests() {
+        for (int i = 0; i < STRIPES; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * 获取通道上的请求表，不存在时返回null
+     *
+     * @param channel
+     * @return
+     */
+    static InFlightRequests get(Channel channel) {
+        if (channel == null) {
+            return null;
+        }
+        return (InFlightRequests) channel.getAttribute(CHANNEL_KEY);
+    }
+
+    /**
+     * 获取通道上的请求表，不存在时创建；通道无法保存属性时返回{@link #DETACHED}
+     *
+     * @param channel
+     * @return
+     */
+    static InFlightRequests getOrCreate(Channel channel) {
+        InFlightRequests requests = get(channel);
+        if (requests != null) {
+            return requests;
+        }
+        if (channel == null) {
+            return DETACHED;
+        }
+        synchronized (InFlightRequests.class) {
+            requests = get(channel);
+            if (requests == null) {
+                channel.setAttribute(CHANNEL_KEY, new InFlightRequests());
+                requests = get(channel);
+                if (requests != null) {
+                    CHANNEL_TABLES.add(requests);
+                }
+            }
+        }
+        return requests != null ? requests : DETACHED;
+    }
+
+    /**
+     * 不知道通道时按请求id查找：先查{@link #DETACHED}，再逐个查所有通道上的请求表
+     *
+     * @param id
+     * @return
+     */
+    static DefaultFuture find(long id) {
+        DefaultFuture future = DETACHED.get(id);
+        if (future != null) {
+            return future;
+        }
+        InFlightRequests[] tables;
+        synchronized (CHANNEL_TABLES) {
+            tables = CHANNEL_TABLES.toArray(new InFlightRequests[CHANNEL_TABLES.size()]);
+        }
+        for (InFlightRequests requests : tables) {
+            if (requests != null && !requests.isEmpty()) {
+                future = requests.get(id);
+                if (future != null) {
+                    return future;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Segment segmentFor(long id) {
+        // 请求id是递增的，直接取低位即可均匀分布到各段
+        return segments[(int) id & STRIPE_MASK];
+    }
+
+    void put(long id, DefaultFuture future) {
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            if (segment.futures.put(id, future) == null) {
+                count.incrementAndGet();
+            }
+        }
+    }
+
+    DefaultFuture get(long id) {
+        Segment segment = segmentFor(id);
+        synchronized (segment) {
+            return segment.futures.get(id);
+        }
+    }
+
+    DefaultFuture remove(long id) {
+        Segment segment = segmentFor(id);
+        DefaultFuture future;
+        synchronized (segment) {
+            future = segment.futures.remove(id);
+        }
+        if (future != null) {
+            count.decrementAndGet();
+        }
+        return future;
+    }
+
+    /**
+     * 取出所有等待中的请求
+     */
+    List<DefaultFuture> removeAll() {
+        List<DefaultFuture> futures = new ArrayList<DefaultFuture>();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                futures.addAll(segment.futures.values());
+                segment.futures.clear();
+            }
+        }
+        count.addAndGet(-futures.size());
+        return futures;
+    }
+
+    /**
+     * 返回所有等待中请求的快照
+     */
+    List<DefaultFuture> values() {
+        List<DefaultFuture> futures = new ArrayList<DefaultFuture>();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                futures.addAll(segment.futures.values());
+            }
+        }
+        return futures;
+    }
+
+    int size() {
+        return count.get();
+    }
+
+    boolean isEmpty() {
+        return count.get() == 0;
+    }
+
+    private static final class Segment {
+
+        final LongObjectHashMap<DefaultFuture> futures = new LongObjectHashMap<DefaultFuture>();
+
+    }
+
+}
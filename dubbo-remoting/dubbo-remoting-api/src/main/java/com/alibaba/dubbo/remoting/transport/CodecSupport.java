@@ -22,8 +22,15 @@ import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.extension.ExtensionLoader;
 import com.alibaba.dubbo.common.logger.Logger;
 import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.serialize.ConnectionScopedSerialization;
+import com.alibaba.dubbo.common.serialize.ObjectInput;
+import com.alibaba.dubbo.common.serialize.ObjectOutput;
 import com.alibaba.dubbo.common.serialize.Serialization;
+import com.alibaba.dubbo.remoting.Channel;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -31,6 +38,8 @@ import java.util.Set;
 public class CodecSupport {
 
     private static final Logger logger = LoggerFactory.getLogger(CodecSupport.class);
+    /** 连接上保存序列化状态的属性名前缀，后接序列化编号 */
+    private static final String SERIALIZATION_STATE_KEY = "serialization.state.";
     private static Map<Byte, Serialization> ID_SERIALIZATION_MAP = new HashMap<Byte, Serialization>();
 
     static {
@@ -69,4 +78,41 @@ public class CodecSupport {
         return result;
     }
 
+    /**
+     * 在连接上序列化，{@link ConnectionScopedSerialization}会使用该连接的状态
+     */
+    public static ObjectOutput serialize(Channel channel, Serialization serialization, OutputStream output) throws IOException {
+        if (serialization instanceof ConnectionScopedSerialization) {
+            ConnectionScopedSerialization scoped = (ConnectionScopedSerialization) serialization;
+            return scoped.serialize(channel.getUrl(), output, getConnectionState(channel, scoped));
+        }
+        return serialization.serialize(channel.getUrl(), output);
+    }
+
+    /**
+     * 在连接上反序列化，{@link ConnectionScopedSerialization}会使用该连接的状态
+     */
+    public static ObjectInput deserialize(Channel channel, Serialization serialization, InputStream input) throws IOException {
+        if (serialization instanceof ConnectionScopedSerialization) {
+            ConnectionScopedSerialization scoped = (ConnectionScopedSerialization) serialization;
+            return scoped.deserialize(channel.getUrl(), input, getConnectionState(channel, scoped));
+        }
+        return serialization.deserialize(channel.getUrl(), input);
+    }
+
+    private static Object getConnectionState(Channel channel, ConnectionScopedSerialization serialization) {
+        String key = SERIALIZATION_STATE_KEY + serialization.getContentTypeId();
+        Object state = channel.getAttribute(key);
+        if (state == null) {
+            synchronized (channel) {
+                state = channel.getAttribute(key);
+                if (state == null) {
+                    state = serialization.createConnectionState(channel.getUrl());
+                    channel.setAttribute(key, state);
+                }
+            }
+        }
+        return state;
+    }
+
 }
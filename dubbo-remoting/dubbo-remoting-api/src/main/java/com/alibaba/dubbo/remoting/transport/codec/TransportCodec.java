@@ -25,6 +25,7 @@ import com.alibaba.dubbo.remoting.buffer.ChannelBuffer;
 import com.alibaba.dubbo.remoting.buffer.ChannelBufferInputStream;
 import com.alibaba.dubbo.remoting.buffer.ChannelBufferOutputStream;
 import com.alibaba.dubbo.remoting.transport.AbstractCodec;
+import com.alibaba.dubbo.remoting.transport.CodecSupport;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -47,7 +48,7 @@ public class TransportCodec extends AbstractCodec {
         // 1、构建ChannelBufferOutputStream，是的buffer具有jdk OutputStream的api操作功能，因为序列化工具都是基于jdkAPI的
         OutputStream output = new ChannelBufferOutputStream(buffer);
         // 2、getSerialization(channel) 通过Dubbo的SPI扩展机制得到具体的序列化工具
-        ObjectOutput objectOutput = getSerialization(channel).serialize(channel.getUrl(), output);
+        ObjectOutput objectOutput = CodecSupport.serialize(channel, getSerialization(channel), output);
         // 3、将数据序列化后写入传输通道
         encodeData(channel, objectOutput, message);
         objectOutput.flushBuffer();
@@ -68,7 +69,7 @@ public class TransportCodec extends AbstractCodec {
         // 1、构建ChannelBufferInputStream是的序列化工具能够通过jdk的api读取channelBuffer数据的功能
         InputStream input = new ChannelBufferInputStream(buffer);
         // 2. 通过Dubbo的SPI扩展机制得到具体的序列化实现进行反序列实现
-        ObjectInput objectInput = getSerialization(channel).deserialize(channel.getUrl(), input);
+        ObjectInput objectInput = CodecSupport.deserialize(channel, getSerialization(channel), input);
         // 3. decodeData这里只是获取反序列化对象
         Object object = decodeData(channel, objectInput);
         if (objectInput instanceof Cleanable) {
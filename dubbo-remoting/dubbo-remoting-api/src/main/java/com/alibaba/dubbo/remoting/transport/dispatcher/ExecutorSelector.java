@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.transport.dispatcher;
+
+import com.alibaba.dubbo.remoting.Channel;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 按消息选择业务线程池，用于服务或方法级别的线程池隔离。
+ * <p>
+ * 由通道的处理链上的ChannelHandler实现，{@link WrappedChannelHandler}创建时沿处理链查找。
+ */
+public interface ExecutorSelector {
+
+    /**
+     * 选择处理消息的线程池，在IO线程中调用
+     *
+     * @param channel 接收消息的通道
+     * @param message 接收到的消息
+     * @return 处理该消息的线程池，返回null时使用通道默认的线程池
+     */
+    ExecutorService select(Channel channel, Object message);
+
+}
@@ -26,9 +26,14 @@ import com.alibaba.dubbo.common.threadpool.ThreadPool;
 import com.alibaba.dubbo.common.utils.NamedThreadFactory;
 import com.alibaba.dubbo.remoting.Channel;
 import com.alibaba.dubbo.remoting.ChannelHandler;
+import com.alibaba.dubbo.remoting.Decodeable;
 import com.alibaba.dubbo.remoting.RemotingException;
+import com.alibaba.dubbo.remoting.exchange.Request;
+import com.alibaba.dubbo.remoting.exchange.Response;
 import com.alibaba.dubbo.remoting.transport.ChannelHandlerDelegate;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -48,9 +53,13 @@ public class WrappedChannelHandler implements ChannelHandlerDelegate {
 
     protected final URL url;
 
+    /** 按消息选择业务线程池，处理链上没有{@link ExecutorSelector}时为null */
+    private final ExecutorSelector executorSelector;
+
     public WrappedChannelHandler(ChannelHandler handler, URL url) {
         this.handler = handler;
         this.url = url;
+        executorSelector = findExecutorSelector(handler);
         executor = (ExecutorService) ExtensionLoader.getExtensionLoader(ThreadPool.class).getAdaptiveExtension().getExecutor(url);
 
         String componentKey = Constants.EXECUTOR_SERVICE_COMPONENT_KEY;
@@ -123,6 +132,66 @@ public class WrappedChannelHandler implements ChannelHandlerDelegate {
         return executor;
     }
 
+    /**
+     * 获取处理received事件的线程池：优先使用处理链选择的隔离线程池，其次是通道的线程池，线程池已关闭时使用共享线程池
+     *
+     * @param channel 接收消息的通道
+     * @param message 接收到的消息
+     * @return
+     */
+    protected ExecutorService getExecutorService(Channel channel, Object message) {
+        if (executorSelector != null) {
+            ExecutorService selected = executorSelector.select(channel, message);
+            if (selected != null && !selected.isShutdown()) {
+                return selected;
+            }
+        }
+        ExecutorService cexecutor = executor;
+        if (cexecutor == null || cexecutor.isShutdown()) {
+            cexecutor = SHARED_EXECUTOR;
+        }
+        return cexecutor;
+    }
+
+    /**
+     * 消息没能交给线程池处理（例如线程池已满）时调用：消息不会再被解码，释放其持有的未解码数据（例如共享的netty buffer）
+     *
+     * @param message 接收到的消息
+     */
+    protected static void releaseUndecoded(Object message) {
+        Object data = message;
+        if (message instanceof Request) {
+            data = ((Request) message).getData();
+        } else if (message instanceof Response) {
+            data = ((Response) message).getResult();
+        }
+        if (data instanceof Decodeable && data instanceof Closeable) {
+            try {
+                ((Closeable) data).close();
+            } catch (IOException e) {
+                logger.warn("Failed to release undecoded message: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static ExecutorSelector findExecutorSelector(ChannelHandler handler) {
+        ChannelHandler current = handler;
+        while (current != null) {
+            if (current instanceof ExecutorSelector) {
+                return (ExecutorSelector) current;
+            }
+            if (!(current instanceof ChannelHandlerDelegate)) {
+                break;
+            }
+            ChannelHandler next = ((ChannelHandlerDelegate) current).getHandler();
+            if (next == current) {
+                break;
+            }
+            current = next;
+        }
+        return null;
+    }
+
     /**
      * 获取被代理的ChannelHandler
      *
@@ -74,10 +74,11 @@ public class AllChannelHandler extends WrappedChannelHandler {
      * @param message 要接收的消息.
      */
     public void received(Channel channel, Object message) throws RemotingException {
-        ExecutorService cexecutor = getExecutorService();
+        ExecutorService cexecutor = getExecutorService(channel, message);
         try {
             cexecutor.execute(new ChannelEventRunnable(channel, handler, ChannelState.RECEIVED, message));
         } catch (Throwable t) {
+            releaseUndecoded(message);
             //TODO A temporary solution to the problem that the exception information can not be sent to the opposite end after the thread pool is full. Need a refactoring
             //fix The thread pool is full, refuses to call, does not return, and causes the consumer to wait for time out
             if (message instanceof Request && t instanceof RejectedExecutionException) {
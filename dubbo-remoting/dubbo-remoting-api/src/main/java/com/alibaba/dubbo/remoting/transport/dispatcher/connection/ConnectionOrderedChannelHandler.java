@@ -95,13 +95,11 @@ public class ConnectionOrderedChannelHandler extends WrappedChannelHandler {
      * @param message 要接收的消息.
      */
     public void received(Channel channel, Object message) throws RemotingException {
-        ExecutorService cexecutor = executor;
-        if (cexecutor == null || cexecutor.isShutdown()) {
-            cexecutor = SHARED_EXECUTOR;
-        }
+        ExecutorService cexecutor = getExecutorService(channel, message);
         try {
             cexecutor.execute(new ChannelEventRunnable(channel, handler, ChannelState.RECEIVED, message));
         } catch (Throwable t) {
+            releaseUndecoded(message);
             //fix, reject exception can not be sent to consumer because thread pool is full, resulting in consumers waiting till timeout.
             if (message instanceof Request && t instanceof RejectedExecutionException) {
                 Request request = (Request) message;
@@ -64,8 +64,9 @@ public class ExecutionChannelHandler extends WrappedChannelHandler {
      */
     public void received(Channel channel, Object message) throws RemotingException {
     	try {
-            executor.execute(new ChannelEventRunnable(channel, handler, ChannelState.RECEIVED, message));
+            getExecutorService(channel, message).execute(new ChannelEventRunnable(channel, handler, ChannelState.RECEIVED, message));
         } catch (Throwable t) {
+            releaseUndecoded(message);
             //TODO A temporary solution to the problem that the exception information can not be sent to the opposite end after the thread pool is full.
             // Need a refactoring fix The thread pool is full, refuses to call, does not return, and causes the consumer to wait for time out
         	if(message instanceof Request &&
@@ -20,13 +20,14 @@ import com.alibaba.dubbo.common.utils.Assert;
 import com.alibaba.dubbo.remoting.buffer.ChannelBuffer;
 import com.alibaba.dubbo.remoting.buffer.ChannelBufferFactory;
 import com.alibaba.dubbo.remoting.buffer.ChannelBuffers;
+import com.alibaba.dubbo.remoting.buffer.NumberChannelBuffer;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 
-public class NettyBackedChannelBuffer implements ChannelBuffer {
+public class NettyBackedChannelBuffer implements NumberChannelBuffer {
 
     private org.jboss.netty.buffer.ChannelBuffer buffer;
 
@@ -92,6 +93,11 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
     }
 
 
+    public void setInt(int index, int value) {
+        buffer.setInt(index, value);
+    }
+
+
     public void setBytes(int index, byte[] src, int srcIndex, int length) {
         buffer.setBytes(index, src, srcIndex, length);
     }
@@ -327,6 +333,21 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
     }
 
 
+    public void writeShort(int value) {
+        buffer.writeShort(value);
+    }
+
+
+    public void writeInt(int value) {
+        buffer.writeInt(value);
+    }
+
+
+    public void writeLong(long value) {
+        buffer.writeLong(value);
+    }
+
+
     public void writeBytes(byte[] src) {
         buffer.writeBytes(src);
     }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.exchange.codec;
+
+import com.alibaba.dubbo.remoting.buffer.ChannelBuffer;
+import com.alibaba.dubbo.remoting.buffer.ChannelBuffers;
+import com.alibaba.dubbo.remoting.buffer.NumberChannelBuffer;
+import com.alibaba.dubbo.remoting.exchange.Request;
+import com.alibaba.dubbo.remoting.exchange.support.DefaultFuture;
+import com.alibaba.dubbo.remoting.exchange.support.MockChannel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+public class ExchangeCodecTest {
+
+    @Test
+    public void testGetRequestData() throws Exception {
+        MockChannel channel = new MockChannel(true);
+        Request request = new Request();
+        request.setData("data");
+        DefaultFuture future = new DefaultFuture(channel, request, 0);
+        try {
+            Assert.assertEquals("data", new ExchangeCodec().getRequestData(channel, request.getId()));
+            Assert.assertNull(new ExchangeCodec().getRequestData(new MockChannel(true), request.getId()));
+            // codecs overriding the deprecated lookup are still called
+            Assert.assertEquals("legacy", new LegacyCodec().getRequestData(channel, request.getId()));
+        } finally {
+            future.cancel();
+        }
+    }
+
+    @Test
+    public void testEncodeWithPlainChannelBuffer() throws Exception {
+        MockChannel channel = new MockChannel(true);
+        Request request = new Request(1234567890123L);
+        request.setData("data");
+
+        ChannelBuffer expected = ChannelBuffers.dynamicBuffer();
+        new ExchangeCodec().encode(channel, expected, request);
+
+        // third-party buffers only implement ChannelBuffer, the header is written byte by byte
+        final ChannelBuffer target = ChannelBuffers.dynamicBuffer();
+        ChannelBuffer plain = (ChannelBuffer) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ChannelBuffer.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        return method.invoke(target, args);
+                    }
+                });
+        Assert.assertFalse(plain instanceof NumberChannelBuffer);
+        new ExchangeCodec().encode(channel, plain, request);
+
+        Assert.assertEquals(expected, target);
+    }
+
+    private static class LegacyCodec extends ExchangeCodec {
+        @Override
+        protected Object getRequestData(long id) {
+            return "legacy";
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.exchange.support;
+
+import com.alibaba.dubbo.remoting.RemotingException;
+import com.alibaba.dubbo.remoting.exchange.Request;
+import com.alibaba.dubbo.remoting.exchange.Response;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DefaultFutureTest {
+
+    @Test
+    public void testFuturesPerChannel() throws Exception {
+        MockChannel channel1 = new MockChannel(true);
+        MockChannel channel2 = new MockChannel(true);
+        DefaultFuture future1 = new DefaultFuture(channel1, new Request(), 0);
+        DefaultFuture future2 = new DefaultFuture(channel1, new Request(), 0);
+        DefaultFuture future3 = new DefaultFuture(channel2, new Request(), 0);
+
+        Assert.assertSame(future1, DefaultFuture.getFuture(channel1, future1.getRequest().getId()));
+        Assert.assertNull(DefaultFuture.getFuture(channel2, future1.getRequest().getId()));
+        Assert.assertSame(future3, DefaultFuture.getFuture(future3.getRequest().getId()));
+        Assert.assertTrue(DefaultFuture.hasFuture(channel1));
+
+        // only the futures of the closed channel fail
+        DefaultFuture.closeChannel(channel1);
+        assertInactive(future1);
+        assertInactive(future2);
+        Assert.assertFalse(DefaultFuture.hasFuture(channel1));
+        Assert.assertFalse(future3.isDone());
+
+        Response response = new Response(future3.getRequest().getId());
+        response.setResult("result");
+        DefaultFuture.received(channel2, response);
+        Assert.assertEquals("result", future3.get());
+        Assert.assertFalse(DefaultFuture.hasFuture(channel2));
+    }
+
+    @Test
+    public void testDetachedFutures() throws Exception {
+        MockChannel channel1 = new MockChannel(false);
+        MockChannel channel2 = new MockChannel(false);
+        DefaultFuture future1 = new DefaultFuture(channel1, new Request(), 0);
+        DefaultFuture future2 = new DefaultFuture(channel2, new Request(), 0);
+
+        Assert.assertSame(future1, DefaultFuture.getFuture(channel1, future1.getRequest().getId()));
+        Assert.assertTrue(DefaultFuture.hasFuture(channel1));
+
+        DefaultFuture.closeChannel(channel1);
+        assertInactive(future1);
+        Assert.assertFalse(DefaultFuture.hasFuture(channel1));
+        Assert.assertFalse(future2.isDone());
+
+        Response response = new Response(future2.getRequest().getId());
+        response.setResult("result");
+        DefaultFuture.received(channel2, response);
+        Assert.assertEquals("result", future2.get());
+        Assert.assertNull(DefaultFuture.getFuture(channel2, future2.getRequest().getId()));
+    }
+
+    private static void assertInactive(DefaultFuture future) {
+        Assert.assertTrue(future.isDone());
+        try {
+            future.get();
+            Assert.fail();
+        } catch (RemotingException expected) {
+            Assert.assertTrue(expected.getMessage(), expected.getMessage().contains("is inactive"));
+        }
+    }
+
+}
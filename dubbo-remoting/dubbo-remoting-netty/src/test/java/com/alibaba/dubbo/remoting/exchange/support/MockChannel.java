@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.exchange.support;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.remoting.Channel;
+import com.alibaba.dubbo.remoting.ChannelHandler;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 只保存属性的通道，attributable为false时模拟无法保存属性的通道
+ */
+public class MockChannel implements Channel {
+
+    private final URL url = URL.valueOf("dubbo://127.0.0.1:20880?timeout=60000");
+
+    private final Map<String, Object> attributes = new HashMap<String, Object>();
+
+    private final boolean attributable;
+
+    public MockChannel(boolean attributable) {
+        this.attributable = attributable;
+    }
+
+    public InetSocketAddress getRemoteAddress() {
+        return new InetSocketAddress("127.0.0.1", 20880);
+    }
+
+    public boolean isConnected() {
+        return true;
+    }
+
+    public boolean hasAttribute(String key) {
+        return attributes.containsKey(key);
+    }
+
+    public Object getAttribute(String key) {
+        return attributes.get(key);
+    }
+
+    public void setAttribute(String key, Object value) {
+        if (attributable) {
+            attributes.put(key, value);
+        }
+    }
+
+    public void removeAttribute(String key) {
+        attributes.remove(key);
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    public ChannelHandler getChannelHandler() {
+        return null;
+    }
+
+    public InetSocketAddress getLocalAddress() {
+        return new InetSocketAddress("127.0.0.1", 30880);
+    }
+
+    public void send(Object message) {
+    }
+
+    public void send(Object message, boolean sent) {
+    }
+
+    public void close() {
+    }
+
+    public void close(int timeout) {
+    }
+
+    public void startClose() {
+    }
+
+    public boolean isClosed() {
+        return false;
+    }
+}
@@ -20,6 +20,8 @@ import com.alibaba.dubbo.common.utils.Assert;
 import com.alibaba.dubbo.remoting.buffer.ChannelBuffer;
 import com.alibaba.dubbo.remoting.buffer.ChannelBufferFactory;
 import com.alibaba.dubbo.remoting.buffer.ChannelBuffers;
+import com.alibaba.dubbo.remoting.buffer.NumberChannelBuffer;
+import com.alibaba.dubbo.remoting.buffer.RetainableChannelBuffer;
 import io.netty.buffer.ByteBuf;
 
 import java.io.IOException;
@@ -27,7 +29,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 
-public class NettyBackedChannelBuffer implements ChannelBuffer {
+public class NettyBackedChannelBuffer implements RetainableChannelBuffer, NumberChannelBuffer {
 
     private ByteBuf buffer;
 
@@ -68,6 +70,10 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
 
     
     public void getBytes(int index, ChannelBuffer dst, int dstIndex, int length) {
+        if (dst instanceof NettyBackedChannelBuffer) {
+            buffer.getBytes(index, ((NettyBackedChannelBuffer) dst).buffer, dstIndex, length);
+            return;
+        }
         // careful
         byte[] data = new byte[length];
         buffer.getBytes(index, data, 0, length);
@@ -89,6 +95,11 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
         buffer.setByte(index, value);
     }
 
+
+    public void setInt(int index, int value) {
+        buffer.setInt(index, value);
+    }
+
     
     public void setBytes(int index, byte[] src, int srcIndex, int length) {
         buffer.setBytes(index, src, srcIndex, length);
@@ -101,10 +112,14 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
 
     
     public void setBytes(int index, ChannelBuffer src, int srcIndex, int length) {
+        if (src instanceof NettyBackedChannelBuffer) {
+            buffer.setBytes(index, ((NettyBackedChannelBuffer) src).buffer, srcIndex, length);
+            return;
+        }
         // careful
         byte[] data = new byte[length];
-        buffer.getBytes(srcIndex, data, 0, length);
-        setBytes(0, data, index, length);
+        src.getBytes(srcIndex, data, 0, length);
+        setBytes(index, data, 0, length);
     }
 
     
@@ -239,6 +254,10 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
         if (readableBytes() < length) {
             throw new IndexOutOfBoundsException();
         }
+        if (dst instanceof NettyBackedChannelBuffer) {
+            buffer.readBytes(((NettyBackedChannelBuffer) dst).buffer, dstIndex, length);
+            return;
+        }
         byte[] data = new byte[length];
         buffer.readBytes(data, 0, length);
         dst.setBytes(dstIndex, data, 0, length);
@@ -325,6 +344,21 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
         buffer.writeByte(value);
     }
 
+
+    public void writeShort(int value) {
+        buffer.writeShort(value);
+    }
+
+
+    public void writeInt(int value) {
+        buffer.writeInt(value);
+    }
+
+
+    public void writeLong(long value) {
+        buffer.writeLong(value);
+    }
+
     
     public void writeBytes(byte[] src) {
         buffer.writeBytes(src);
@@ -358,6 +392,10 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
 
     
     public void writeBytes(ChannelBuffer src, int srcIndex, int length) {
+        if (src instanceof NettyBackedChannelBuffer) {
+            buffer.writeBytes(((NettyBackedChannelBuffer) src).buffer, srcIndex, length);
+            return;
+        }
         // careful
         byte[] data = new byte[length];
         src.getBytes(srcIndex, data, 0, length);
@@ -383,4 +421,17 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
     public int compareTo(ChannelBuffer o) {
         return ChannelBuffers.compare(this, o);
     }
+
+
+    public RetainableChannelBuffer readRetainedSlice(int length) {
+        // netty 4.0的slice与原buffer共用引用计数，retain之后cumulation不会被丢弃或覆盖
+        ByteBuf slice = buffer.slice(buffer.readerIndex(), length).retain();
+        buffer.skipBytes(length);
+        return new NettyBackedChannelBuffer(slice);
+    }
+
+
+    public boolean release() {
+        return buffer.release();
+    }
 }
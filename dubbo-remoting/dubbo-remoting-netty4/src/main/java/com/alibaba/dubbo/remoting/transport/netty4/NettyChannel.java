@@ -45,12 +45,18 @@ final class NettyChannel extends AbstractChannel {
 
     private final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
 
+    /**
+     * 开启合并写时的写队列，否则为null
+     */
+    private final WriteQueue writeQueue;
+
     private NettyChannel(Channel channel, URL url, ChannelHandler handler) {
         super(url, handler);
         if (channel == null) {
             throw new IllegalArgumentException("netty channel == null;");
         }
         this.channel = channel;
+        this.writeQueue = WriteQueue.getWriteQueue(channel, url);
     }
 
     static NettyChannel getOrAddChannel(Channel ch, URL url, ChannelHandler handler) {
@@ -94,7 +100,15 @@ final class NettyChannel extends AbstractChannel {
         boolean success = true;
         int timeout = 0;
         try {
-            ChannelFuture future = channel.writeAndFlush(message);
+            ChannelFuture future;
+            if (writeQueue == null) {
+                future = channel.writeAndFlush(message);
+            } else if (channel.eventLoop().inEventLoop()) {
+                // 入队的消息要等IO线程处理，在IO线程中等待会抛出BlockingOperationException
+                future = writeQueue.writeNow(message);
+            } else {
+                future = writeQueue.enqueue(message);
+            }
             if (sent) {
                 timeout = getUrl().getPositiveParameter(Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
                 success = future.await(timeout);
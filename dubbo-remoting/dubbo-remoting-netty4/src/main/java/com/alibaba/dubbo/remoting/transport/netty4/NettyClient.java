@@ -16,7 +16,6 @@
  */
 package com.alibaba.dubbo.remoting.transport.netty4;
 
-import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.Version;
 import com.alibaba.dubbo.common.logger.Logger;
@@ -33,9 +32,6 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.util.concurrent.DefaultThreadFactory;
 
 import java.util.concurrent.TimeUnit;
 
@@ -46,8 +42,6 @@ public class NettyClient extends AbstractClient {
 
     private static final Logger logger = LoggerFactory.getLogger(NettyClient.class);
 
-    private static final NioEventLoopGroup nioEventLoopGroup = new NioEventLoopGroup(Constants.DEFAULT_IO_THREADS, new DefaultThreadFactory("NettyClientWorker", true));
-
     private Bootstrap bootstrap;
 
     private volatile Channel channel; // volatile, please copy reference to use
@@ -60,13 +54,15 @@ public class NettyClient extends AbstractClient {
     protected void doOpen() throws Throwable {
         NettyHelper.setNettyLoggerFactory();
         final NettyClientHandler nettyClientHandler = new NettyClientHandler(getUrl(), this);
+        NettyEventLoopFactory.checkWriteBufferWaterMark(getUrl());
+        boolean epoll = NettyEventLoopFactory.isEpoll(getUrl());
         bootstrap = new Bootstrap();
-        bootstrap.group(nioEventLoopGroup)
+        bootstrap.group(NettyEventLoopFactory.clientEventLoopGroup(epoll, getUrl()))
                 .option(ChannelOption.SO_KEEPALIVE, true)
                 .option(ChannelOption.TCP_NODELAY, true)
                 .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                 //.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getTimeout())
-                .channel(NioSocketChannel.class);
+                .channel(NettyEventLoopFactory.socketChannelClass(epoll));
 
         if (getTimeout() < 3000) {
             bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 3000);
@@ -77,6 +73,7 @@ public class NettyClient extends AbstractClient {
         bootstrap.handler(new ChannelInitializer() {
 
             protected void initChannel(Channel ch) throws Exception {
+                NettyEventLoopFactory.setWriteBufferWaterMark(ch.config(), getUrl());
                 NettyCodecAdapter adapter = new NettyCodecAdapter(getCodec(), getUrl(), NettyClient.this);
                 ch.pipeline()//.addLast("logging",new LoggingHandler(LogLevel.INFO))//for debug
                         .addLast("decoder", adapter.getDecoder())
@@ -149,8 +146,7 @@ public class NettyClient extends AbstractClient {
 
     @Override
     protected void doClose() throws Throwable {
-        //can't shutdown nioEventLoopGroup
-        //nioEventLoopGroup.shutdownGracefully();
+        //can't shutdown the event loop group, it is shared by all clients
     }
 
     @Override
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.transport.netty4;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 根据URL中的iomode选择Netty的IO模型，并提供客户端共享的IO线程组。
+ * <p>
+ * epoll需要Linux及netty-transport-native-epoll本地库，不可用时退回nio。
+ */
+final class NettyEventLoopFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyEventLoopFactory.class);
+
+    private static final String EPOLL = "epoll";
+
+    /** 客户端IO线程组，key为iomode和线程数，线程为daemon线程，不需要关闭 */
+    private static final ConcurrentMap<String, EventLoopGroup> CLIENT_GROUPS = new ConcurrentHashMap<String, EventLoopGroup>();
+
+    private static volatile boolean epollWarned;
+
+    private NettyEventLoopFactory() {
+    }
+
+    static boolean isEpoll(URL url) {
+        String mode = url.getParameter(Constants.IO_MODE_KEY, Constants.DEFAULT_IO_MODE);
+        if (!EPOLL.equalsIgnoreCase(mode)) {
+            return false;
+        }
+        if (Epoll.isAvailable()) {
+            return true;
+        }
+        if (!epollWarned) {
+            epollWarned = true;
+            logger.warn("Netty native epoll transport is not available, fallback to nio, cause: "
+                    + Epoll.unavailabilityCause());
+        }
+        return false;
+    }
+
+    static EventLoopGroup eventLoopGroup(boolean epoll, int threads, String threadName) {
+        DefaultThreadFactory threadFactory = new DefaultThreadFactory(threadName, true);
+        return epoll ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    static EventLoopGroup clientEventLoopGroup(boolean epoll, URL url) {
+        int threads = url.getPositiveParameter(Constants.CLIENT_IO_THREADS_KEY, Constants.DEFAULT_IO_THREADS);
+        String key = (epoll ? EPOLL : Constants.DEFAULT_IO_MODE) + ":" + threads;
+        EventLoopGroup group = CLIENT_GROUPS.get(key);
+        if (group == null) {
+            synchronized (CLIENT_GROUPS) {
+                group = CLIENT_GROUPS.get(key);
+                if (group == null) {
+                    group = eventLoopGroup(epoll, threads, "NettyClientWorker");
+                    CLIENT_GROUPS.put(key, group);
+                }
+            }
+        }
+        return group;
+    }
+
+    static Class<? extends ServerChannel> serverSocketChannelClass(boolean epoll) {
+        return epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    static Class<? extends SocketChannel> socketChannelClass(boolean epoll) {
+        return epoll ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    /**
+     * 检查写缓冲区高低水位配置，在打开客户端或服务端时调用
+     */
+    static void checkWriteBufferWaterMark(URL url) {
+        int high = url.getParameter(Constants.WRITE_BUFFER_HIGH_WATER_MARK_KEY, 0);
+        int low = url.getParameter(Constants.WRITE_BUFFER_LOW_WATER_MARK_KEY, 0);
+        if (high < 0 || low < 0 || (high > 0 && low > high)) {
+            throw new IllegalStateException("Illegal write buffer water mark, " + Constants.WRITE_BUFFER_HIGH_WATER_MARK_KEY
+                    + "=" + high + ", " + Constants.WRITE_BUFFER_LOW_WATER_MARK_KEY + "=" + low + ", url: " + url);
+        }
+    }
+
+    /**
+     * 设置写缓冲区高低水位，只配置了一侧时另一侧保持Netty默认值，与之冲突时向配置值看齐
+     */
+    static void setWriteBufferWaterMark(ChannelConfig config, URL url) {
+        int high = url.getParameter(Constants.WRITE_BUFFER_HIGH_WATER_MARK_KEY, 0);
+        int low = url.getParameter(Constants.WRITE_BUFFER_LOW_WATER_MARK_KEY, 0);
+        if (high <= 0 && low <= 0) {
+            return;
+        }
+        if (high <= 0) {
+            high = Math.max(low, config.getWriteBufferHighWaterMark());
+        } else if (low <= 0) {
+            low = Math.min(high, config.getWriteBufferLowWaterMark());
+        }
+        // 新的低水位不能高于当前高水位，新的高水位也不能低于当前低水位，所以按方向决定设置顺序
+        if (low > config.getWriteBufferHighWaterMark()) {
+            config.setWriteBufferHighWaterMark(high);
+            config.setWriteBufferLowWaterMark(low);
+        } else {
+            config.setWriteBufferLowWaterMark(low);
+            config.setWriteBufferHighWaterMark(high);
+        }
+    }
+
+}
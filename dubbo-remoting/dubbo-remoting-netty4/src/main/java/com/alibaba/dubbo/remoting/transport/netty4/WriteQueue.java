@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.transport.netty4;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 合并写队列：调用线程只把消息放入队列，由IO线程一次取出队列中的所有消息写出，最后只flush一次，
+ * 高并发下多个请求/响应共用一次系统调用。
+ * <p>
+ * 等待时间为0时，只合并IO线程处理到flush任务之前入队的消息，不增加延迟；
+ * 大于0时flush任务延迟执行，以更高的延迟换取更大的批次。待发送字节数超过阈值时提前flush。
+ */
+final class WriteQueue {
+
+    private static final AttributeKey<WriteQueue> WRITE_QUEUE_KEY = AttributeKey.valueOf(WriteQueue.class.getName());
+
+    // 所有通道累计写出的消息数和flush次数
+    private static final AtomicLong TOTAL_FRAMES = new AtomicLong();
+
+    private static final AtomicLong TOTAL_FLUSHES = new AtomicLong();
+
+    private final Channel channel;
+
+    private final long delayMicros;
+
+    private final long maxPendingBytes;
+
+    private final Queue<PendingWrite> queue = new ConcurrentLinkedQueue<PendingWrite>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final Runnable flushTask = new Runnable() {
+        public void run() {
+            flush();
+        }
+    };
+
+    // 只在IO线程中修改
+    private volatile long frames;
+
+    private volatile long flushes;
+
+    WriteQueue(Channel channel, long delayMicros, long maxPendingBytes) {
+        this.channel = channel;
+        this.delayMicros = delayMicros;
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    /**
+     * 获取通道上的合并写队列，url没有开启合并写时返回null
+     */
+    static WriteQueue getWriteQueue(Channel channel, URL url) {
+        if (!url.getParameter(Constants.WRITE_COALESCE_KEY, false)) {
+            return null;
+        }
+        Attribute<WriteQueue> attribute = channel.attr(WRITE_QUEUE_KEY);
+        WriteQueue writeQueue = attribute.get();
+        if (writeQueue == null) {
+            WriteQueue created = new WriteQueue(channel,
+                    url.getParameter(Constants.WRITE_COALESCE_DELAY_KEY, 0L),
+                    url.getPositiveParameter(Constants.WRITE_COALESCE_BYTES_KEY, Constants.DEFAULT_WRITE_COALESCE_BYTES));
+            writeQueue = attribute.setIfAbsent(created);
+            if (writeQueue == null) {
+                writeQueue = created;
+            }
+        }
+        return writeQueue;
+    }
+
+    static long getTotalFrames() {
+        return TOTAL_FRAMES.get();
+    }
+
+    static long getTotalFlushes() {
+        return TOTAL_FLUSHES.get();
+    }
+
+    ChannelFuture enqueue(Object message) {
+        ChannelPromise promise = channel.newPromise();
+        queue.add(new PendingWrite(message, promise));
+        if (scheduled.compareAndSet(false, true)) {
+            schedule();
+        }
+        return promise;
+    }
+
+    /**
+     * 在IO线程中直接写出并flush，不经过队列，调用方可以在IO线程中等待写出结果。先写出队列中已有的消息，保持写出顺序
+     */
+    ChannelFuture writeNow(Object message) {
+        flush();
+        ChannelFuture future = channel.writeAndFlush(message);
+        frames++;
+        flushes++;
+        TOTAL_FRAMES.incrementAndGet();
+        TOTAL_FLUSHES.incrementAndGet();
+        return future;
+    }
+
+    private void schedule() {
+        try {
+            if (delayMicros > 0) {
+                channel.eventLoop().schedule(flushTask, delayMicros, TimeUnit.MICROSECONDS);
+            } else {
+                channel.eventLoop().execute(flushTask);
+            }
+        } catch (Throwable t) {
+            // IO线程已关闭
+            PendingWrite write;
+            while ((write = queue.poll()) != null) {
+                write.promise.tryFailure(t);
+            }
+            scheduled.set(false);
+        }
+    }
+
+    private void flush() {
+        int written = 0;
+        int flushed = 0;
+        int unflushed = 0;
+        for (; ; ) {
+            PendingWrite write;
+            while ((write = queue.poll()) != null) {
+                channel.write(write.message, write.promise);
+                written++;
+                unflushed++;
+                if (pendingBytes() >= maxPendingBytes) {
+                    channel.flush();
+                    flushed++;
+                    unflushed = 0;
+                }
+            }
+            if (unflushed > 0) {
+                channel.flush();
+                flushed++;
+                unflushed = 0;
+            }
+            // 先清除标记再检查队列，清除标记之后入队的线程会自己调度下一次flush
+            scheduled.set(false);
+            if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                break;
+            }
+        }
+        frames += written;
+        flushes += flushed;
+        TOTAL_FRAMES.addAndGet(written);
+        TOTAL_FLUSHES.addAndGet(flushed);
+    }
+
+    private long pendingBytes() {
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        return buffer == null ? 0 : buffer.totalPendingWriteBytes();
+    }
+
+    long getFrames() {
+        return frames;
+    }
+
+    long getFlushes() {
+        return flushes;
+    }
+
+    private static final class PendingWrite {
+
+        final Object message;
+
+        final ChannelPromise promise;
+
+        PendingWrite(Object message, ChannelPromise promise) {
+            this.message = message;
+            this.promise = promise;
+        }
+
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.transport.netty4;
+
+import com.alibaba.dubbo.common.extension.Activate;
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.common.status.StatusChecker;
+
+/**
+ * 合并写的效果：累计写出的消息数、flush次数和平均每次flush的消息数
+ */
+@Activate
+public class WriteQueueStatusChecker implements StatusChecker {
+
+    public Status check() {
+        long flushes = WriteQueue.getTotalFlushes();
+        if (flushes == 0) {
+            return new Status(Status.Level.UNKNOWN);
+        }
+        long frames = WriteQueue.getTotalFrames();
+        return new Status(Status.Level.OK, "frames:" + frames + ", flushes:" + flushes
+                + ", frames per flush:" + String.format("%.2f", (double) frames / flushes));
+    }
+
+}
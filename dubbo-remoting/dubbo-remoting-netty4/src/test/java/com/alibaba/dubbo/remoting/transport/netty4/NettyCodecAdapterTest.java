@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.transport.netty4;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.remoting.buffer.ChannelBufferInputStream;
+import com.alibaba.dubbo.remoting.exchange.Request;
+import com.alibaba.dubbo.remoting.exchange.Response;
+import com.alibaba.dubbo.remoting.exchange.codec.ExchangeCodec;
+import com.alibaba.dubbo.remoting.transport.ChannelHandlerAdapter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+
+public class NettyCodecAdapterTest {
+
+    private final URL url = URL.valueOf("dubbo://127.0.0.1:20880/demo");
+
+    private EmbeddedChannel newChannel() {
+        NettyCodecAdapter adapter = new NettyCodecAdapter(new ExchangeCodec(), url, new ChannelHandlerAdapter());
+        return new EmbeddedChannel(adapter.getDecoder(), adapter.getEncoder());
+    }
+
+    @Test
+    public void testRequestRoundTrip() {
+        EmbeddedChannel channel = newChannel();
+        Request request = new Request(42);
+        request.setTwoWay(true);
+        request.setData("hello");
+        Assert.assertTrue(channel.writeOutbound(request));
+        ByteBuf encoded = (ByteBuf) channel.readOutbound();
+        Assert.assertEquals((short) 0xdabb, encoded.getShort(0));
+        // 消息头中回填的数据长度
+        Assert.assertEquals(encoded.readableBytes() - 16, encoded.getInt(12));
+        Assert.assertEquals(42, encoded.getLong(4));
+
+        // 拆成两段写入，验证半包时的累积
+        ByteBuf first = encoded.readSlice(10).retain();
+        Assert.assertFalse(channel.writeInbound(first));
+        Assert.assertTrue(channel.writeInbound(encoded));
+        Request decoded = (Request) channel.readInbound();
+        Assert.assertEquals(42, decoded.getId());
+        Assert.assertTrue(decoded.isTwoWay());
+        Assert.assertEquals("hello", decoded.getData());
+        channel.finish();
+    }
+
+    @Test
+    public void testMultipleResponsesInOneBuffer() {
+        EmbeddedChannel channel = newChannel();
+        ByteBuf merged = Unpooled.buffer();
+        for (int i = 0; i < 3; i++) {
+            Response response = new Response(i);
+            response.setResult("result" + i);
+            channel.writeOutbound(response);
+            ByteBuf encoded = (ByteBuf) channel.readOutbound();
+            merged.writeBytes(encoded);
+            encoded.release();
+        }
+        Assert.assertTrue(channel.writeInbound(merged));
+        for (int i = 0; i < 3; i++) {
+            Response decoded = (Response) channel.readInbound();
+            Assert.assertEquals(i, decoded.getId());
+            Assert.assertEquals(Response.OK, decoded.getStatus());
+        }
+        Assert.assertNull(channel.readInbound());
+        channel.finish();
+    }
+
+    @Test
+    public void testReadRemainingSharesBuffer() throws Exception {
+        ByteBuf buf = Unpooled.buffer(8);
+        buf.writeBytes(new byte[]{0, 1, 2, 3, 4, 5, 6, 7});
+        NettyBackedChannelBuffer buffer = new NettyBackedChannelBuffer(buf);
+        buffer.skipBytes(2);
+        ChannelBufferInputStream is = new ChannelBufferInputStream(buffer, 4);
+        InputStream body = is.readRemaining();
+        Assert.assertEquals(0, is.available());
+        Assert.assertEquals(6, buffer.readerIndex());
+        // 截取的消息体与原buffer共享内容，并持有一次引用
+        Assert.assertEquals(2, buf.refCnt());
+        buf.setByte(3, 9);
+        Assert.assertEquals(4, body.available());
+        Assert.assertEquals(2, body.read());
+        Assert.assertEquals(9, body.read());
+        body.close();
+        Assert.assertEquals(1, buf.refCnt());
+        body.close();
+        Assert.assertEquals(1, buf.refCnt());
+        buf.release();
+    }
+
+    @Test
+    public void testBackedBufferTransfer() {
+        NettyBackedChannelBuffer src = new NettyBackedChannelBuffer(Unpooled.wrappedBuffer(new byte[]{1, 2, 3, 4}));
+        NettyBackedChannelBuffer dst = new NettyBackedChannelBuffer(Unpooled.buffer(8));
+        dst.writeBytes(src, 1, 3);
+        Assert.assertEquals(3, dst.readableBytes());
+        Assert.assertEquals(2, dst.getByte(0));
+
+        dst.setBytes(0, src, 0, 2);
+        Assert.assertEquals(1, dst.getByte(0));
+        Assert.assertEquals(2, dst.getByte(1));
+        Assert.assertEquals(4, dst.getByte(2));
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.transport.netty4;
+
+import com.alibaba.dubbo.common.URL;
+
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NettyEventLoopFactoryTest {
+
+    @Test
+    public void testIoMode() {
+        Assert.assertFalse(NettyEventLoopFactory.isEpoll(URL.valueOf("dubbo://127.0.0.1:20880/demo")));
+        Assert.assertFalse(NettyEventLoopFactory.isEpoll(URL.valueOf("dubbo://127.0.0.1:20880/demo?iomode=nio")));
+        // epoll不可用时退回nio
+        boolean epoll = NettyEventLoopFactory.isEpoll(URL.valueOf("dubbo://127.0.0.1:20880/demo?iomode=epoll"));
+        Assert.assertEquals(Epoll.isAvailable(), epoll);
+        Assert.assertEquals(epoll ? EpollSocketChannel.class : NioSocketChannel.class, NettyEventLoopFactory.socketChannelClass(epoll));
+    }
+
+    @Test
+    public void testSharedClientEventLoopGroup() {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/demo?client.iothreads=2");
+        Assert.assertSame(NettyEventLoopFactory.clientEventLoopGroup(false, url),
+                NettyEventLoopFactory.clientEventLoopGroup(false, url.addParameter("timeout", 1000)));
+        Assert.assertNotSame(NettyEventLoopFactory.clientEventLoopGroup(false, url),
+                NettyEventLoopFactory.clientEventLoopGroup(false, url.addParameter("client.iothreads", 3)));
+    }
+
+    @Test
+    public void testWriteBufferWaterMark() {
+        ChannelConfig config = new EmbeddedChannel().config();
+        NettyEventLoopFactory.setWriteBufferWaterMark(config,
+                URL.valueOf("dubbo://127.0.0.1:20880/demo?write.buffer.high=1048576&write.buffer.low=524288"));
+        Assert.assertEquals(1048576, config.getWriteBufferHighWaterMark());
+        Assert.assertEquals(524288, config.getWriteBufferLowWaterMark());
+
+        // 只配置高水位且低于当前低水位时，低水位随之降低
+        NettyEventLoopFactory.setWriteBufferWaterMark(config, URL.valueOf("dubbo://127.0.0.1:20880/demo?write.buffer.high=1024"));
+        Assert.assertEquals(1024, config.getWriteBufferHighWaterMark());
+        Assert.assertEquals(1024, config.getWriteBufferLowWaterMark());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIllegalWriteBufferWaterMark() {
+        NettyEventLoopFactory.checkWriteBufferWaterMark(
+                URL.valueOf("dubbo://127.0.0.1:20880/demo?write.buffer.high=1024&write.buffer.low=2048"));
+    }
+
+}
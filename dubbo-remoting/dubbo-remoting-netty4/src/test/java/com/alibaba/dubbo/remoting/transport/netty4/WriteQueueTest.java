@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.remoting.transport.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WriteQueueTest {
+
+    @Test
+    public void testCoalesceFlush() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(counter);
+        WriteQueue queue = new WriteQueue(channel, 0, 64 * 1024);
+
+        ChannelFuture first = queue.enqueue(buffer(16));
+        ChannelFuture second = queue.enqueue(buffer(16));
+        ChannelFuture third = queue.enqueue(buffer(16));
+        // 还没有轮到IO线程处理
+        Assert.assertNull(channel.readOutbound());
+        Assert.assertEquals(0, counter.flushes.get());
+
+        channel.runPendingTasks();
+        Assert.assertEquals(1, counter.flushes.get());
+        Assert.assertEquals(3, queue.getFrames());
+        Assert.assertEquals(1, queue.getFlushes());
+        Assert.assertTrue(first.isSuccess() && second.isSuccess() && third.isSuccess());
+        for (int i = 0; i < 3; i++) {
+            ByteBuf buf = (ByteBuf) channel.readOutbound();
+            Assert.assertEquals(16, buf.readableBytes());
+            buf.release();
+        }
+
+        queue.enqueue(buffer(16));
+        channel.runPendingTasks();
+        Assert.assertEquals(2, counter.flushes.get());
+        Assert.assertEquals(4, queue.getFrames());
+        channel.finish();
+    }
+
+    @Test
+    public void testWriteNowInEventLoop() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(counter);
+        WriteQueue queue = new WriteQueue(channel, 0, 64 * 1024);
+
+        ChannelFuture first = queue.enqueue(buffer(8));
+        ChannelFuture second = queue.writeNow(buffer(16));
+        // 不等待flush任务，已经写出，且排在之前入队的消息之后
+        Assert.assertTrue(first.isSuccess() && second.isSuccess());
+        Assert.assertEquals(2, counter.flushes.get());
+        ByteBuf buf = (ByteBuf) channel.readOutbound();
+        Assert.assertEquals(8, buf.readableBytes());
+        buf.release();
+        buf = (ByteBuf) channel.readOutbound();
+        Assert.assertEquals(16, buf.readableBytes());
+        buf.release();
+
+        // 之前调度的flush任务没有可写的消息
+        channel.runPendingTasks();
+        Assert.assertEquals(2, counter.flushes.get());
+        Assert.assertEquals(2, queue.getFrames());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushWhenPendingBytesExceeded() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(counter);
+        WriteQueue queue = new WriteQueue(channel, 0, 32);
+
+        for (int i = 0; i < 4; i++) {
+            queue.enqueue(buffer(16));
+        }
+        channel.runPendingTasks();
+        Assert.assertEquals(4, queue.getFrames());
+        Assert.assertEquals(2, queue.getFlushes());
+        Assert.assertEquals(2, counter.flushes.get());
+        channel.finish();
+        releaseOutbound(channel);
+    }
+
+    private static ByteBuf buffer(int size) {
+        return Unpooled.buffer(size).writeZero(size);
+    }
+
+    private static void releaseOutbound(EmbeddedChannel channel) {
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            ((ByteBuf) msg).release();
+        }
+    }
+
+    private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+
+        final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            ctx.write(msg, promise);
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushes.incrementAndGet();
+            ctx.flush();
+        }
+
+    }
+
+}
@@ -18,10 +18,12 @@ package com.alibaba.dubbo.rpc;
 
 import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.support.ConcurrencyLimiter;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -37,6 +39,12 @@ public class RpcStatus {
     private static final ConcurrentMap<String, RpcStatus> SERVICE_STATISTICS = new ConcurrentHashMap<String, RpcStatus>();
 
     private static final ConcurrentMap<String, ConcurrentMap<String, RpcStatus>> METHOD_STATISTICS = new ConcurrentHashMap<String, ConcurrentMap<String, RpcStatus>>();
+
+    /**
+     * Decay time of the elapsed EWMA in nanoseconds: a sample's influence drops to 1/e after this period.
+     */
+    private static final double EWMA_DECAY_TIME = TimeUnit.SECONDS.toNanos(10);
+
     private final ConcurrentMap<String, Object> values = new ConcurrentHashMap<String, Object>();
     private final AtomicInteger active = new AtomicInteger();
     private final AtomicLong total = new AtomicLong();
@@ -46,6 +54,9 @@ public class RpcStatus {
     private final AtomicLong maxElapsed = new AtomicLong();
     private final AtomicLong failedMaxElapsed = new AtomicLong();
     private final AtomicLong succeededMaxElapsed = new AtomicLong();
+    private final Object ewmaLock = new Object();
+    private volatile double ewmaElapsed;
+    private volatile long ewmaTimestamp;
 
     /**
      * Semaphore used to control concurrency limit set by `executes`
@@ -53,6 +64,11 @@ public class RpcStatus {
     private volatile Semaphore executesLimit;
     private volatile int executesPermits;
 
+    /**
+     * Limiter used to control concurrency limit set by `actives`
+     */
+    private volatile ConcurrencyLimiter activesLimiter;
+
     private RpcStatus() {
     }
 
@@ -135,6 +151,7 @@ public class RpcStatus {
         status.active.decrementAndGet();
         status.total.incrementAndGet();
         status.totalElapsed.addAndGet(elapsed);
+        status.updateEwmaElapsed(elapsed);
         if (status.maxElapsed.get() < elapsed) {
             status.maxElapsed.set(elapsed);
         }
@@ -151,6 +168,24 @@ public class RpcStatus {
         }
     }
 
+    /**
+     * Peak EWMA: a sample larger than the current average replaces it at once, smaller samples are
+     * blended in with a weight that depends on the time since the last sample.
+     */
+    private void updateEwmaElapsed(long elapsed) {
+        synchronized (ewmaLock) {
+            long now = System.nanoTime();
+            double current = ewmaElapsed;
+            if (elapsed > current) {
+                ewmaElapsed = elapsed;
+            } else {
+                double w = Math.exp(-Math.max(now - ewmaTimestamp, 0L) / EWMA_DECAY_TIME);
+                ewmaElapsed = current * w + elapsed * (1 - w);
+            }
+            ewmaTimestamp = now;
+        }
+    }
+
     /**
      * set value.
      *
@@ -220,6 +255,21 @@ public class RpcStatus {
         return maxElapsed.get();
     }
 
+    /**
+     * get peak EWMA of elapsed, decayed by the time since the last sample, so a provider that
+     * has not responded for a while is probed again.
+     *
+     * @return peak EWMA of elapsed in milliseconds
+     */
+    public double getEwmaElapsed() {
+        double current = ewmaElapsed;
+        if (current == 0) {
+            return 0;
+        }
+        long idle = Math.max(System.nanoTime() - ewmaTimestamp, 0L);
+        return current * Math.exp(-idle / EWMA_DECAY_TIME);
+    }
+
     /**
      * get failed.
      *
@@ -334,4 +384,32 @@ public class RpcStatus {
 
         return executesLimit;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the client-side concurrency limiter. It is rebuilt when {@link Constants#ACTIVES_KEY} or its options change,
+     * invocations holding the old limiter still release to it.
+     *
+     * @param maxActives value of {@link Constants#ACTIVES_KEY}
+     * @param fair       value of {@link Constants#ACTIVES_FAIR_KEY}
+     * @param adaptive   value of {@link Constants#ACTIVES_ADAPTIVE_KEY}
+     * @return concurrency limiter
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter(int maxActives, boolean fair, boolean adaptive) {
+        if (maxActives <= 0) {
+            return null;
+        }
+        ConcurrencyLimiter limiter = activesLimiter;
+        if (limiter == null || limiter.getMaxLimit() != maxActives
+                || limiter.isFair() != fair || limiter.isAdaptive() != adaptive) {
+            synchronized (this) {
+                limiter = activesLimiter;
+                if (limiter == null || limiter.getMaxLimit() != maxActives
+                        || limiter.isFair() != fair || limiter.isAdaptive() != adaptive) {
+                    limiter = new ConcurrencyLimiter(maxActives, fair, adaptive);
+                    activesLimiter = limiter;
+                }
+            }
+        }
+        return limiter;
+    }
+}
@@ -25,9 +25,15 @@ import com.alibaba.dubbo.rpc.Invoker;
 import com.alibaba.dubbo.rpc.Result;
 import com.alibaba.dubbo.rpc.RpcException;
 import com.alibaba.dubbo.rpc.RpcStatus;
+import com.alibaba.dubbo.rpc.support.ConcurrencyLimiter;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * LimitInvokerFilter
+ * <p>
+ * 并发数由{@link ConcurrencyLimiter}控制，超过上限时在超时时间内等待，配置actives.failfast=true时立即失败；
+ * actives.fair=true时按到达顺序分配许可；actives.adaptive=true时根据调用耗时在actives以内自动调整上限。
  */
 @Activate(group = Constants.CONSUMER, value = Constants.ACTIVES_KEY)
 public class ActiveLimitFilter implements Filter {
@@ -35,51 +41,47 @@ public class ActiveLimitFilter implements Filter {
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
         URL url = invoker.getUrl();
         String methodName = invocation.getMethodName();
-        int max = invoker.getUrl().getMethodParameter(methodName, Constants.ACTIVES_KEY, 0);
-        RpcStatus count = RpcStatus.getStatus(invoker.getUrl(), invocation.getMethodName());
+        int max = url.getMethodParameter(methodName, Constants.ACTIVES_KEY, 0);
+        ConcurrencyLimiter limiter = null;
         if (max > 0) {
-            long timeout = invoker.getUrl().getMethodParameter(invocation.getMethodName(), Constants.TIMEOUT_KEY, 0);
-            long start = System.currentTimeMillis();
-            long remain = timeout;
-            int active = count.getActive();
-            if (active >= max) {
-                synchronized (count) {
-                    while ((active = count.getActive()) >= max) {
-                        try {
-                            count.wait(remain);
-                        } catch (InterruptedException e) {
-                        }
-                        long elapsed = System.currentTimeMillis() - start;
-                        remain = timeout - elapsed;
-                        if (remain <= 0) {
-                            throw new RpcException("Waiting concurrent invoke timeout in client-side for service:  "
-                                    + invoker.getInterface().getName() + ", method: "
-                                    + invocation.getMethodName() + ", elapsed: " + elapsed
-                                    + ", timeout: " + timeout + ". concurrent invokes: " + active
-                                    + ". max concurrent invoke limit: " + max);
-                        }
-                    }
+            RpcStatus count = RpcStatus.getStatus(url, methodName);
+            limiter = count.getConcurrencyLimiter(max,
+                    url.getMethodParameter(methodName, Constants.ACTIVES_FAIR_KEY, false),
+                    url.getMethodParameter(methodName, Constants.ACTIVES_ADAPTIVE_KEY, false));
+            if (url.getMethodParameter(methodName, Constants.ACTIVES_FAILFAST_KEY, false)) {
+                if (!limiter.tryAcquire()) {
+                    throw new RpcException("Failed to invoke method " + methodName + " in client-side for service: "
+                            + invoker.getInterface().getName() + ", cause: concurrent invokes: " + limiter.getInflight()
+                            + " exceed the concurrent invoke limit: " + limiter.getLimit()
+                            + ". max concurrent invoke limit: " + max);
+                }
+            } else {
+                long timeout = url.getMethodParameter(methodName, Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+                long start = System.currentTimeMillis();
+                if (!limiter.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                    long elapsed = System.currentTimeMillis() - start;
+                    throw new RpcException("Waiting concurrent invoke timeout in client-side for service:  "
+                            + invoker.getInterface().getName() + ", method: "
+                            + methodName + ", elapsed: " + elapsed
+                            + ", timeout: " + timeout + ". concurrent invokes: " + limiter.getInflight()
+                            + ". max concurrent invoke limit: " + max);
                 }
             }
         }
+        long begin = System.nanoTime();
+        boolean succeeded = false;
+        RpcStatus.beginCount(url, methodName);
         try {
-            long begin = System.currentTimeMillis();
-            RpcStatus.beginCount(url, methodName);
-            try {
-                Result result = invoker.invoke(invocation);
-                RpcStatus.endCount(url, methodName, System.currentTimeMillis() - begin, true);
-                return result;
-            } catch (RuntimeException t) {
-                RpcStatus.endCount(url, methodName, System.currentTimeMillis() - begin, false);
-                throw t;
-            }
+            Result result = invoker.invoke(invocation);
+            succeeded = true;
+            return result;
         } finally {
-            if (max > 0) {
-                synchronized (count) {
-                    count.notify();
-                }
+            long elapsed = System.nanoTime() - begin;
+            RpcStatus.endCount(url, methodName, TimeUnit.NANOSECONDS.toMillis(elapsed), succeeded);
+            if (limiter != null) {
+                limiter.release(elapsed, succeeded);
             }
         }
     }
 
-}
\ No newline at end of file
+}
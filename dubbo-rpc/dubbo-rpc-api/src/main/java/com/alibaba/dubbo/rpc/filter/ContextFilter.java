@@ -46,6 +46,8 @@ public class ContextFilter implements Filter {
             attachments.remove(Constants.TOKEN_KEY);
             attachments.remove(Constants.TIMEOUT_KEY);
             attachments.remove(Constants.ASYNC_KEY);// Remove async property to avoid being passed to the following invoke chain.
+            // 调用方的应用名只用于本次调用（例如按应用限流），不随上下文传给下游
+            attachments.remove(Constants.APPLICATION_KEY);
         }
         RpcContext.getContext()
                 .setInvoker(invoker)
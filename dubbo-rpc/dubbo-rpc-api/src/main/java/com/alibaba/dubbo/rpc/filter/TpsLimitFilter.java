@@ -19,21 +19,31 @@ package com.alibaba.dubbo.rpc.filter;
 
 import com.alibaba.dubbo.common.Constants;
 import com.alibaba.dubbo.common.extension.Activate;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.store.DataStore;
 import com.alibaba.dubbo.rpc.Filter;
 import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.Invoker;
 import com.alibaba.dubbo.rpc.Result;
 import com.alibaba.dubbo.rpc.RpcException;
-import com.alibaba.dubbo.rpc.filter.tps.DefaultTPSLimiter;
 import com.alibaba.dubbo.rpc.filter.tps.TPSLimiter;
+import com.alibaba.dubbo.rpc.filter.tps.TokenBucketTPSLimiter;
 
 /**
  * Limit TPS for either service or service's particular method
+ *
+ * @see TokenBucketTPSLimiter
  */
 @Activate(group = Constants.PROVIDER, value = Constants.TPS_LIMIT_RATE_KEY)
 public class TpsLimitFilter implements Filter {
 
-    private final TPSLimiter tpsLimiter = new DefaultTPSLimiter();
+    private final TPSLimiter tpsLimiter = new TokenBucketTPSLimiter();
+
+    public TpsLimitFilter() {
+        // 登记限流器，拒绝计数由TpsStatusChecker输出
+        ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension()
+                .put(TokenBucketTPSLimiter.COMPONENT_KEY, Integer.toHexString(System.identityHashCode(this)), tpsLimiter);
+    }
 
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
 
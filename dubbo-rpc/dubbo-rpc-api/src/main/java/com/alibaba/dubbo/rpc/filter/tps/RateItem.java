@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.filter.tps;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个限流维度的状态，记录限流参数和被拒绝的次数
+ */
+abstract class RateItem {
+
+    protected final int rate;
+
+    protected final long interval;
+
+    protected final int burst;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    RateItem(int rate, long interval, int burst) {
+        this.rate = rate;
+        this.interval = interval;
+        this.burst = burst;
+    }
+
+    /**
+     * @param now 当前时间，取自{@link System#nanoTime()}
+     */
+    boolean isAllowable(long now) {
+        if (tryAcquire(now)) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    abstract boolean tryAcquire(long now);
+
+    abstract String strategy();
+
+    boolean isSameConfig(String strategy, int rate, long interval, int burst) {
+        return strategy().equals(strategy) && this.rate == rate && this.interval == interval && this.burst == burst;
+    }
+
+    long getRejected() {
+        return rejected.get();
+    }
+
+}
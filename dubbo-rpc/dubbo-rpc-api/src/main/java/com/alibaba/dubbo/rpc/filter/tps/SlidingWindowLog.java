@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.filter.tps;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 滑动窗口日志：环形数组记录最近rate次放行的时间，任意长度为interval的窗口内放行次数都不超过rate。
+ * <p>
+ * 占用的内存与rate成正比，适合rate不大、需要严格控制窗口内请求数的场景。
+ */
+class SlidingWindowLog extends RateItem {
+
+    static final String NAME = "slidingwindow";
+
+    private final long intervalNanos;
+
+    /** 最近rate次放行的时间，只在持有锁时读写 */
+    private final long[] log;
+
+    private int cursor;
+
+    SlidingWindowLog(int rate, long interval, long now) {
+        super(rate, interval, rate);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        this.log = new long[rate];
+        for (int i = 0; i < rate; i++) {
+            log[i] = now - intervalNanos;
+        }
+    }
+
+    /**
+     * 检查最早一次放行的时间并记录本次放行必须是一个原子操作，否则并发时会有多个请求看到同一个空槽位
+     */
+    synchronized boolean tryAcquire(long now) {
+        // 环中下一个槽位是rate次之前的放行时间，仍在窗口内说明窗口已满
+        if (now - log[cursor] < intervalNanos) {
+            return false;
+        }
+        log[cursor] = now;
+        cursor = cursor + 1 == rate ? 0 : cursor + 1;
+        return true;
+    }
+
+    String strategy() {
+        return NAME;
+    }
+
+}
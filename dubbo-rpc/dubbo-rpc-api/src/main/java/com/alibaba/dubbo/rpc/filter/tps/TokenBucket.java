@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.filter.tps;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 令牌桶，按GCRA实现：只记录桶被取空的理论时间，令牌随时间平滑补充，一次CAS完成判断和扣减。
+ * <p>
+ * 每interval补充rate个令牌，桶最多存放burst个令牌，即空闲之后最多允许burst个请求突发。
+ */
+class TokenBucket extends RateItem {
+
+    static final String NAME = "tokenbucket";
+
+    /** 补充一个令牌需要的时间 */
+    private final long emissionInterval;
+
+    /** 桶满时理论时间可以领先当前时间的最大值 */
+    private final long tolerance;
+
+    private final AtomicLong theoreticalTime;
+
+    TokenBucket(int rate, long interval, int burst, long now) {
+        super(rate, interval, burst);
+        this.emissionInterval = Math.max(1, TimeUnit.MILLISECONDS.toNanos(interval) / rate);
+        this.tolerance = emissionInterval * burst;
+        this.theoreticalTime = new AtomicLong(now);
+    }
+
+    boolean tryAcquire(long now) {
+        for (; ; ) {
+            long current = theoreticalTime.get();
+            long next = (current - now > 0 ? current : now) + emissionInterval;
+            if (next - now > tolerance) {
+                return false;
+            }
+            if (theoreticalTime.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    String strategy() {
+        return NAME;
+    }
+
+}
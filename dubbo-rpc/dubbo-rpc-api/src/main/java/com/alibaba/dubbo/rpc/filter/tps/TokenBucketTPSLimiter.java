@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.filter.tps;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于令牌桶的TPS限制，替代{@link DefaultTPSLimiter}的固定窗口计数，不会在窗口交界处放过两倍的请求。
+ * <p>
+ * 参数都可以按方法配置：
+ * <ul>
+ * <li>tps、tps.interval：每interval毫秒允许的请求数</li>
+ * <li>tps.burst：令牌桶容量，默认等于tps</li>
+ * <li>tps.strategy：tokenbucket（默认）或slidingwindow（滑动窗口日志，严格但内存与tps成正比）</li>
+ * <li>tps.scope：限流维度，service（默认）、method、application，可用逗号组合，
+ * application按调用方应用分别限流；配置了方法级tps的方法总是单独限流</li>
+ * </ul>
+ */
+public class TokenBucketTPSLimiter implements TPSLimiter {
+
+    /** 限流器在{@link com.alibaba.dubbo.common.store.DataStore}中登记的组件名，拒绝计数通过tps状态检查输出 */
+    public static final String COMPONENT_KEY = TokenBucketTPSLimiter.class.getName();
+
+    /** 服务key到该服务的限流状态，限流参数按方法解析后缓存，每次调用只做几次map查找，不拼接key */
+    private final ConcurrentMap<String, ServiceLimits> stats = new ConcurrentHashMap<String, ServiceLimits>();
+
+    public boolean isAllowable(URL url, Invocation invocation) {
+        String serviceKey = url.getServiceKey();
+        ServiceLimits limits = stats.get(serviceKey);
+        if (limits == null || !limits.isFor(url)) {
+            // url变化说明参数被修改，丢弃原来的状态
+            ServiceLimits created = new ServiceLimits(serviceKey, url);
+            if (limits == null) {
+                limits = stats.putIfAbsent(serviceKey, created);
+                if (limits == null) {
+                    limits = created;
+                }
+            } else if (stats.replace(serviceKey, limits, created)) {
+                limits = created;
+            } else {
+                limits = stats.get(serviceKey);
+                if (limits == null) {
+                    limits = created;
+                }
+            }
+        }
+        return limits.isAllowable(invocation, System.nanoTime());
+    }
+
+    private static RateItem createItem(String strategy, int rate, long interval, int burst, long now) {
+        if (interval <= 0) {
+            throw new IllegalStateException("Illegal " + Constants.TPS_LIMIT_INTERVAL_KEY + ": " + interval);
+        }
+        if (SlidingWindowLog.NAME.equals(strategy)) {
+            return new SlidingWindowLog(rate, interval, now);
+        }
+        if (!TokenBucket.NAME.equals(strategy)) {
+            throw new IllegalStateException("Unsupported " + Constants.TPS_LIMIT_STRATEGY_KEY + ": " + strategy);
+        }
+        return new TokenBucket(rate, interval, burst > 0 ? burst : rate, now);
+    }
+
+    /**
+     * 某个限流维度被拒绝的请求数
+     *
+     * @param key 服务key，按方法限流时追加"#方法名"，按应用限流时追加"@应用名"
+     */
+    public long getRejectedCount(String key) {
+        Long count = getRejectedCounts().get(key);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 所有限流维度被拒绝的请求数，key的格式见{@link #getRejectedCount(String)}
+     */
+    public Map<String, Long> getRejectedCounts() {
+        Map<String, Long> counts = new HashMap<String, Long>();
+        for (ServiceLimits limits : stats.values()) {
+            for (Map.Entry<String, ConcurrentMap<String, RateItem>> method : limits.items.entrySet()) {
+                for (Map.Entry<String, RateItem> application : method.getValue().entrySet()) {
+                    StringBuilder key = new StringBuilder(limits.serviceKey);
+                    if (method.getKey().length() > 0) {
+                        key.append('#').append(method.getKey());
+                    }
+                    if (application.getKey().length() > 0) {
+                        key.append('@').append(application.getKey());
+                    }
+                    counts.put(key.toString(), application.getValue().getRejected());
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 一个方法的限流参数
+     */
+    private static final class MethodConfig {
+
+        final int rate;
+
+        final long interval;
+
+        final int burst;
+
+        final String strategy;
+
+        /** 单独限流时为方法名，否则为""，和服务的其他方法共用 */
+        final String method;
+
+        final boolean perApplication;
+
+        MethodConfig(URL url, String methodName) {
+            rate = url.getMethodParameter(methodName, Constants.TPS_LIMIT_RATE_KEY, -1);
+            interval = url.getMethodParameter(methodName, Constants.TPS_LIMIT_INTERVAL_KEY, Constants.DEFAULT_TPS_LIMIT_INTERVAL);
+            burst = url.getMethodParameter(methodName, Constants.TPS_LIMIT_BURST_KEY, rate);
+            strategy = url.getMethodParameter(methodName, Constants.TPS_LIMIT_STRATEGY_KEY, Constants.DEFAULT_TPS_LIMIT_STRATEGY);
+            String scope = url.getMethodParameter(methodName, Constants.TPS_LIMIT_SCOPE_KEY, Constants.DEFAULT_TPS_LIMIT_SCOPE);
+            method = scope.contains(Constants.METHOD_KEY) || url.hasParameter(methodName + "." + Constants.TPS_LIMIT_RATE_KEY)
+                    ? methodName : "";
+            perApplication = scope.contains(Constants.APPLICATION_KEY);
+        }
+
+    }
+
+    /**
+     * 一个服务的限流状态：方法（或""）到调用方应用（或""）到限流状态
+     */
+    private static final class ServiceLimits {
+
+        final String serviceKey;
+
+        final URL url;
+
+        final ConcurrentMap<String, MethodConfig> configs = new ConcurrentHashMap<String, MethodConfig>();
+
+        final ConcurrentMap<String, ConcurrentMap<String, RateItem>> items = new ConcurrentHashMap<String, ConcurrentMap<String, RateItem>>();
+
+        ServiceLimits(String serviceKey, URL url) {
+            this.serviceKey = serviceKey;
+            this.url = url;
+        }
+
+        boolean isFor(URL url) {
+            return this.url == url || this.url.equals(url);
+        }
+
+        boolean isAllowable(Invocation invocation, long now) {
+            String methodName = invocation.getMethodName();
+            MethodConfig config = configs.get(methodName);
+            if (config == null) {
+                config = new MethodConfig(url, methodName);
+                configs.put(methodName, config);
+            }
+            String application = "";
+            if (config.perApplication) {
+                application = invocation.getAttachment(Constants.APPLICATION_KEY);
+                if (application == null) {
+                    application = "";
+                }
+            }
+            ConcurrentMap<String, RateItem> applications = items.get(config.method);
+            if (config.rate <= 0) {
+                if (applications != null) {
+                    applications.remove(application);
+                }
+                return true;
+            }
+            if (applications == null) {
+                ConcurrentMap<String, RateItem> created = new ConcurrentHashMap<String, RateItem>();
+                applications = items.putIfAbsent(config.method, created);
+                if (applications == null) {
+                    applications = created;
+                }
+            }
+            RateItem item = applications.get(application);
+            if (item == null || !item.isSameConfig(config.strategy, config.rate, config.interval, config.burst)) {
+                RateItem created = createItem(config.strategy, config.rate, config.interval, config.burst, now);
+                if (item == null) {
+                    item = applications.putIfAbsent(application, created);
+                    if (item == null) {
+                        item = created;
+                    }
+                } else if (applications.replace(application, item, created)) {
+                    item = created;
+                } else {
+                    item = applications.get(application);
+                    if (item == null) {
+                        item = created;
+                    }
+                }
+            }
+            return item.isAllowable(now);
+        }
+
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.filter.tps;
+
+import com.alibaba.dubbo.common.extension.Activate;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.common.status.StatusChecker;
+import com.alibaba.dubbo.common.store.DataStore;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * TpsStatusChecker：输出各限流维度被拒绝的请求数
+ */
+@Activate
+public class TpsStatusChecker implements StatusChecker {
+
+    public Status check() {
+        DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+        Map<String, Object> limiters = dataStore.get(TokenBucketTPSLimiter.COMPONENT_KEY);
+
+        Map<String, Long> rejected = new TreeMap<String, Long>();
+        for (Object value : limiters.values()) {
+            for (Map.Entry<String, Long> entry : ((TokenBucketTPSLimiter) value).getRejectedCounts().entrySet()) {
+                Long count = rejected.get(entry.getKey());
+                rejected.put(entry.getKey(), count == null ? entry.getValue() : count + entry.getValue());
+            }
+        }
+        if (rejected.isEmpty()) {
+            return new Status(Status.Level.UNKNOWN);
+        }
+        StringBuilder msg = new StringBuilder();
+        for (Map.Entry<String, Long> entry : rejected.entrySet()) {
+            if (msg.length() > 0) {
+                msg.append(";");
+            }
+            msg.append(entry.getKey()).append(" rejected:").append(entry.getValue());
+        }
+        return new Status(Status.Level.OK, msg.toString());
+    }
+
+}
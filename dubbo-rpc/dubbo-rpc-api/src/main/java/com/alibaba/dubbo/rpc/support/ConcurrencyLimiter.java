@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.support;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 客户端并发数限制器，用CAS维护并发计数，不在共享的监视器上阻塞调用线程。
+ * <p>
+ * 等待许可的线程进入各自的等待队列节点并单独park，释放许可时只唤醒队首线程；
+ * 公平模式下只有队首线程能取得许可，新到的调用不能插队。
+ * 超时离开的线程只把自己的节点标记为取消，不在队列中查找删除，取消的节点到达队首时再被跳过并移除。
+ * <p>
+ * 自适应模式参考TCP Vegas：以观测到的最小耗时作为无负载耗时，估算排队的请求数，
+ * 排队少时逐步放大并发上限，排队多时逐步缩小，上限不超过配置的最大并发数。
+ */
+public class ConcurrencyLimiter {
+
+    /** 每隔多少个样本重新探测一次无负载耗时，避免下游基线变化后一直沿用旧的最小值 */
+    private static final int PROBE_INTERVAL = 1000;
+
+    private final int maxLimit;
+
+    private final boolean fair;
+
+    private final boolean adaptive;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<Waiter>();
+
+    /** 未取消的等待者数量，队列中可能还留有已取消的节点 */
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private volatile int limit;
+
+    /** 自适应调整只由抢到该标记的线程进行，其余线程的样本直接丢弃 */
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    private long noLoadRtt;
+
+    private int samples;
+
+    public ConcurrencyLimiter(int maxLimit, boolean fair, boolean adaptive) {
+        if (maxLimit <= 0) {
+            throw new IllegalArgumentException("maxLimit <= 0");
+        }
+        this.maxLimit = maxLimit;
+        this.fair = fair;
+        this.adaptive = adaptive;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * 不等待，立即尝试获取许可
+     *
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire() {
+        if (fair && head() != null) {
+            return false;
+        }
+        return doAcquire();
+    }
+
+    /**
+     * 在超时时间内等待获取许可，等待期间的中断不会打断等待，返回前恢复中断标记
+     *
+     * @return 是否获取成功
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) {
+        if (tryAcquire()) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Thread current = Thread.currentThread();
+        Waiter node = new Waiter(current);
+        boolean interrupted = false;
+        waiting.incrementAndGet();
+        waiters.add(node);
+        try {
+            for (; ; ) {
+                // 入队后再尝试一次，保证不会错过入队前发生的释放
+                if ((!fair || head() == node) && doAcquire()) {
+                    return true;
+                }
+                long remain = deadline - System.nanoTime();
+                if (remain <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remain);
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            node.cancelled = true;
+            waiting.decrementAndGet();
+            // 位于队首时直接出队（从队首查找，O(1)），否则留给后续的head()跳过
+            if (waiters.peek() == node) {
+                waiters.remove(node);
+            }
+            // 离开队列时如果还有空闲许可（例如上限被调大），把机会交给下一个等待者
+            if (inflight.get() < limit) {
+                signalNext();
+            }
+            if (interrupted) {
+                current.interrupt();
+            }
+        }
+    }
+
+    private boolean doAcquire() {
+        for (; ; ) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放许可
+     *
+     * @param elapsedNanos 本次调用的耗时，用于自适应调整
+     * @param succeeded    调用是否成功，失败视为丢包，会缩小并发上限
+     */
+    public void release(long elapsedNanos, boolean succeeded) {
+        int current = inflight.getAndDecrement();
+        if (adaptive) {
+            adjust(elapsedNanos, current, succeeded);
+        }
+        signalNext();
+    }
+
+    private void signalNext() {
+        Waiter next = head();
+        if (next != null) {
+            LockSupport.unpark(next.thread);
+        }
+    }
+
+    /**
+     * 返回第一个未取消的等待者，途中移除队首已取消的节点
+     */
+    private Waiter head() {
+        for (; ; ) {
+            Waiter head = waiters.peek();
+            if (head == null || !head.cancelled) {
+                return head;
+            }
+            // 节点就在队首，remove从队首开始查找，O(1)
+            waiters.remove(head);
+        }
+    }
+
+    private void adjust(long rtt, int inflightAtEnd, boolean succeeded) {
+        if (rtt <= 0 || !updating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (++samples >= PROBE_INTERVAL) {
+                samples = 0;
+                noLoadRtt = 0;
+            }
+            if (noLoadRtt == 0 || rtt < noLoadRtt) {
+                noLoadRtt = rtt;
+                return;
+            }
+            int currentLimit = limit;
+            int step = Math.max(1, (int) Math.log10(currentLimit));
+            int newLimit;
+            if (!succeeded) {
+                newLimit = currentLimit - step;
+            } else if (inflightAtEnd * 2 < currentLimit) {
+                // 实际并发远低于上限，耗时不能说明上限是否合适
+                return;
+            } else {
+                int queue = (int) Math.ceil(currentLimit * (1 - (double) noLoadRtt / rtt));
+                if (queue < 3 * step) {
+                    newLimit = currentLimit + step;
+                } else if (queue > 6 * step) {
+                    newLimit = currentLimit - step;
+                } else {
+                    return;
+                }
+            }
+            limit = Math.max(1, Math.min(maxLimit, newLimit));
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public boolean isFair() {
+        return fair;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    private static final class Waiter {
+
+        final Thread thread;
+
+        /** 已经离开等待（获取成功或超时） */
+        volatile boolean cancelled;
+
+        Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.filter.tps;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTPSLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testTokenBucketRefill() {
+        TokenBucket bucket = new TokenBucket(10, 1000, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.isAllowable(0));
+        }
+        assertFalse(bucket.isAllowable(0));
+        // 每100ms补充一个令牌
+        assertFalse(bucket.isAllowable(SECOND / 20));
+        assertTrue(bucket.isAllowable(SECOND / 10));
+        assertFalse(bucket.isAllowable(SECOND / 10));
+        // 空闲很久之后最多只积累burst个令牌
+        long later = 100 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.isAllowable(later));
+        }
+        assertFalse(bucket.isAllowable(later));
+        assertEquals(4, bucket.getRejected());
+    }
+
+    @Test
+    public void testSlidingWindowNoBoundaryBurst() {
+        SlidingWindowLog window = new SlidingWindowLog(3, 1000, 0);
+        assertTrue(window.isAllowable(SECOND * 9 / 10));
+        assertTrue(window.isAllowable(SECOND * 9 / 10));
+        assertTrue(window.isAllowable(SECOND * 9 / 10));
+        // 固定窗口在1s处重置，这里仍在最近1s的窗口内
+        assertFalse(window.isAllowable(SECOND * 11 / 10));
+        assertTrue(window.isAllowable(SECOND * 19 / 10));
+    }
+
+    @Test
+    public void testSlidingWindowConcurrent() throws Exception {
+        final SlidingWindowLog window = new SlidingWindowLog(100, 1000, 0);
+        final AtomicInteger allowed = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 1000; j++) {
+                        if (window.isAllowable(SECOND / 2)) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100, allowed.get());
+        assertEquals(8 * 1000 - 100, window.getRejected());
+    }
+
+    @Test
+    public void testScope() {
+        TokenBucketTPSLimiter limiter = new TokenBucketTPSLimiter();
+        URL url = URL.valueOf("test://test/DemoService?tps=1&sayHello.tps=2&tps.scope=application");
+        RpcInvocation hello = new RpcInvocation("sayHello", new Class<?>[0], new Object[0]);
+        hello.setAttachment(Constants.APPLICATION_KEY, "app1");
+        RpcInvocation echo = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        echo.setAttachment(Constants.APPLICATION_KEY, "app1");
+        RpcInvocation otherApp = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        otherApp.setAttachment(Constants.APPLICATION_KEY, "app2");
+
+        assertTrue(limiter.isAllowable(url, hello));
+        assertTrue(limiter.isAllowable(url, hello));
+        assertFalse(limiter.isAllowable(url, hello));
+        assertTrue(limiter.isAllowable(url, echo));
+        assertFalse(limiter.isAllowable(url, echo));
+        assertTrue(limiter.isAllowable(url, otherApp));
+
+        assertEquals(1, limiter.getRejectedCount("DemoService#sayHello@app1"));
+        assertEquals(1, limiter.getRejectedCount("DemoService@app1"));
+        assertEquals(0, limiter.getRejectedCount("DemoService@app2"));
+    }
+
+    @Test
+    public void testConfigChanged() {
+        TokenBucketTPSLimiter limiter = new TokenBucketTPSLimiter();
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        URL url = URL.valueOf("test://test/DemoService?tps=1");
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertFalse(limiter.isAllowable(url, invocation));
+        url = url.addParameter(Constants.TPS_LIMIT_STRATEGY_KEY, "slidingwindow").addParameter(Constants.TPS_LIMIT_RATE_KEY, 2);
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertFalse(limiter.isAllowable(url, invocation));
+        assertTrue(limiter.isAllowable(url.removeParameter(Constants.TPS_LIMIT_RATE_KEY), invocation));
+        assertEquals(0, limiter.getRejectedCounts().size());
+    }
+
+}
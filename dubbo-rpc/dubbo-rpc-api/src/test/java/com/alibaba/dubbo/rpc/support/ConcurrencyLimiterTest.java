@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.support;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void testTryAcquire() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, false, false);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire(10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2, limiter.getInflight());
+        Assert.assertEquals(0, limiter.getWaiting());
+
+        limiter.release(1, true);
+        Assert.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testWaitForRelease() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, false, false);
+        Assert.assertTrue(limiter.tryAcquire());
+        final CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                if (limiter.tryAcquire(5, TimeUnit.SECONDS)) {
+                    acquired.countDown();
+                }
+            }
+        });
+        thread.start();
+        Thread.sleep(50);
+        Assert.assertEquals(1, acquired.getCount());
+        limiter.release(1, true);
+        Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFairOrder() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, true, false);
+        Assert.assertTrue(limiter.tryAcquire());
+        final List<Integer> order = new CopyOnWriteArrayList<Integer>();
+        Thread[] threads = new Thread[3];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    if (limiter.tryAcquire(5, TimeUnit.SECONDS)) {
+                        order.add(index);
+                        limiter.release(1, true);
+                    }
+                }
+            });
+            threads[i].start();
+            while (limiter.getWaiting() != i + 1) {
+                Thread.sleep(1);
+            }
+        }
+        // 有线程排队时，公平模式下的新调用不能插队
+        Assert.assertFalse(limiter.tryAcquire());
+        limiter.release(1, true);
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        Assert.assertEquals("[0, 1, 2]", order.toString());
+    }
+
+    @Test
+    public void testTimedOutWaiterIsSkipped() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, true, false);
+        Assert.assertTrue(limiter.tryAcquire());
+        final CountDownLatch acquired = new CountDownLatch(1);
+        Thread head = new Thread(new Runnable() {
+            public void run() {
+                if (limiter.tryAcquire(5, TimeUnit.SECONDS)) {
+                    acquired.countDown();
+                }
+            }
+        });
+        head.start();
+        while (limiter.getWaiting() != 1) {
+            Thread.sleep(1);
+        }
+        // 排在中间的等待者超时后只标记取消，不影响队首
+        Assert.assertFalse(limiter.tryAcquire(10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, limiter.getWaiting());
+
+        limiter.release(1, true);
+        Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, limiter.getWaiting());
+        limiter.release(1, true);
+        // 已取消的节点被跳过，公平模式下新的调用可以直接获取
+        Assert.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testAdaptive() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(100, false, true);
+        Assert.assertEquals(100, limiter.getLimit());
+        // 先以低耗时确定无负载耗时
+        limiter.tryAcquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1), true);
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < limiter.getLimit(); j++) {
+                limiter.tryAcquire();
+            }
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+            while (limiter.getInflight() > 0) {
+                limiter.release(0, true);
+            }
+        }
+        int reduced = limiter.getLimit();
+        Assert.assertTrue(reduced < 100);
+
+        limiter.tryAcquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+        Assert.assertTrue(limiter.getLimit() < reduced);
+
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < limiter.getLimit(); j++) {
+                limiter.tryAcquire();
+            }
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1), true);
+            while (limiter.getInflight() > 0) {
+                limiter.release(0, true);
+            }
+        }
+        Assert.assertTrue(limiter.getLimit() > reduced);
+    }
+
+}
@@ -31,6 +31,7 @@ import com.alibaba.dubbo.remoting.exchange.Request;
 import com.alibaba.dubbo.remoting.transport.CodecSupport;
 import com.alibaba.dubbo.rpc.RpcInvocation;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -40,7 +41,7 @@ import java.util.Map;
 import static com.alibaba.dubbo.rpc.protocol.dubbo.CallbackServiceCodec.decodeInvocationArgument;
 
 /** 继承了{@link RpcInvocation}该类在RpcInvocation基础上对方法调用的入参多加了一层编解码，这样就能将序列化和dubbo进行解耦了 */
-public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Decodeable {
+public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Decodeable, Closeable {
 
     private static final Logger log = LoggerFactory.getLogger(DecodeableRpcInvocation.class);
 
@@ -76,17 +77,63 @@ public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Dec
                 request.setData(e);
             } finally {
                 hasDecoded = true;
+                closeInputStream();
             }
         }
     }
 
+    /**
+     * 不再解码时（例如线程池拒绝了该消息）释放消息体，消息体可能是共享的netty buffer
+     */
+    public void close() {
+        if (!hasDecoded) {
+            hasDecoded = true;
+            closeInputStream();
+        }
+    }
+
+    private void closeInputStream() {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the input stream of rpc invocation: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 只读取请求体开头的服务路径、版本和方法名，用于在IO线程中为请求选择线程池，不改变输入流的位置。
+     * 已经解码或者输入流不支持mark时不做处理。
+     */
+    public void decodeHeader() throws IOException {
+        if (hasDecoded || getMethodName() != null || !inputStream.markSupported()) {
+            return;
+        }
+        inputStream.mark(Integer.MAX_VALUE);
+        try {
+            ObjectInput in = CodecSupport.deserialize(channel,
+                    CodecSupport.getSerialization(channel.getUrl(), serializationType), inputStream);
+            try {
+                setAttachment(Constants.DUBBO_VERSION_KEY, in.readUTF());
+                setAttachment(Constants.PATH_KEY, in.readUTF());
+                setAttachment(Constants.VERSION_KEY, in.readUTF());
+                setMethodName(in.readUTF());
+            } finally {
+                if (in instanceof Cleanable) {
+                    ((Cleanable) in).cleanup();
+                }
+            }
+        } finally {
+            inputStream.reset();
+        }
+    }
+
     public void encode(Channel channel, OutputStream output, Object message) throws IOException {
         throw new UnsupportedOperationException();
     }
 
     public Object decode(Channel channel, InputStream input) throws IOException {
-        ObjectInput in = CodecSupport.getSerialization(channel.getUrl(), serializationType)
-                .deserialize(channel.getUrl(), input);
+        ObjectInput in = CodecSupport.deserialize(channel,
+                CodecSupport.getSerialization(channel.getUrl(), serializationType), input);
 
         setAttachment(Constants.DUBBO_VERSION_KEY, in.readUTF());
         setAttachment(Constants.PATH_KEY, in.readUTF());
@@ -31,12 +31,13 @@ import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.RpcResult;
 import com.alibaba.dubbo.rpc.support.RpcUtils;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Type;
 
-public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable {
+public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable, Closeable {
 
     private static final Logger log = LoggerFactory.getLogger(DecodeableRpcResult.class);
 
@@ -68,8 +69,8 @@ public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable
     }
 
     public Object decode(Channel channel, InputStream input) throws IOException {
-        ObjectInput in = CodecSupport.getSerialization(channel.getUrl(), serializationType)
-                .deserialize(channel.getUrl(), input);
+        ObjectInput in = CodecSupport.deserialize(channel,
+                CodecSupport.getSerialization(channel.getUrl(), serializationType), input);
         
         byte flag = in.readByte();
         switch (flag) {
@@ -116,8 +117,27 @@ public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable
                 response.setErrorMessage(StringUtils.toString(e));
             } finally {
                 hasDecoded = true;
+                closeInputStream();
             }
         }
     }
 
+    /**
+     * 不再解码时（例如线程池拒绝了该消息）释放消息体，消息体可能是共享的netty buffer
+     */
+    public void close() {
+        if (!hasDecoded) {
+            hasDecoded = true;
+            closeInputStream();
+        }
+    }
+
+    private void closeInputStream() {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the input stream of rpc result: " + e.getMessage(), e);
+        }
+    }
+
 }
@@ -17,7 +17,6 @@
 package com.alibaba.dubbo.rpc.protocol.dubbo;
 
 import com.alibaba.dubbo.common.Constants;
-import com.alibaba.dubbo.common.URL;
 import com.alibaba.dubbo.common.Version;
 import com.alibaba.dubbo.common.io.Bytes;
 import com.alibaba.dubbo.common.io.UnsafeByteArrayInputStream;
@@ -30,6 +29,7 @@ import com.alibaba.dubbo.common.utils.ReflectUtils;
 import com.alibaba.dubbo.common.utils.StringUtils;
 import com.alibaba.dubbo.remoting.Channel;
 import com.alibaba.dubbo.remoting.Codec2;
+import com.alibaba.dubbo.remoting.buffer.ChannelBufferInputStream;
 import com.alibaba.dubbo.remoting.exchange.Request;
 import com.alibaba.dubbo.remoting.exchange.Response;
 import com.alibaba.dubbo.remoting.exchange.codec.ExchangeCodec;
@@ -76,21 +76,20 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
                 try {
                     Object data;
                     if (res.isHeartbeat()) {
-                        data = decodeHeartbeatData(channel, deserialize(s, channel.getUrl(), is));
+                        data = decodeHeartbeatData(channel, deserialize(s, channel, is));
                     } else if (res.isEvent()) {
-                        data = decodeEventData(channel, deserialize(s, channel.getUrl(), is));
+                        data = decodeEventData(channel, deserialize(s, channel, is));
                     } else {
                         DecodeableRpcResult result;
                         if (channel.getUrl().getParameter(
                                 Constants.DECODE_IN_IO_THREAD_KEY,
                                 Constants.DEFAULT_DECODE_IN_IO_THREAD)) {
                             result = new DecodeableRpcResult(channel, res, is,
-                                    (Invocation) getRequestData(id), proto);
+                                    (Invocation) getRequestData(channel, id), proto);
                             result.decode();
                         } else {
-                            result = new DecodeableRpcResult(channel, res,
-                                    new UnsafeByteArrayInputStream(readMessageData(is)),
-                                    (Invocation) getRequestData(id), proto);
+                            result = new DecodeableRpcResult(channel, res, readMessageStream(is),
+                                    (Invocation) getRequestData(channel, id), proto);
                         }
                         data = result;
                     }
@@ -103,7 +102,7 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
                     res.setErrorMessage(StringUtils.toString(t));
                 }
             } else {
-                res.setErrorMessage(deserialize(s, channel.getUrl(), is).readUTF());
+                res.setErrorMessage(deserialize(s, channel, is).readUTF());
             }
             return res;
         } else {
@@ -117,9 +116,9 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
             try {
                 Object data;
                 if (req.isHeartbeat()) {
-                    data = decodeHeartbeatData(channel, deserialize(s, channel.getUrl(), is));
+                    data = decodeHeartbeatData(channel, deserialize(s, channel, is));
                 } else if (req.isEvent()) {
-                    data = decodeEventData(channel, deserialize(s, channel.getUrl(), is));
+                    data = decodeEventData(channel, deserialize(s, channel, is));
                 } else {
                     DecodeableRpcInvocation inv;
                     if (channel.getUrl().getParameter(
@@ -128,8 +127,7 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
                         inv = new DecodeableRpcInvocation(channel, req, is, proto);
                         inv.decode();
                     } else {
-                        inv = new DecodeableRpcInvocation(channel, req,
-                                new UnsafeByteArrayInputStream(readMessageData(is)), proto);
+                        inv = new DecodeableRpcInvocation(channel, req, readMessageStream(is), proto);
                     }
                     data = inv;
                 }
@@ -146,8 +144,18 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
         }
     }
 
-    private ObjectInput deserialize(Serialization serialization, URL url, InputStream is) throws IOException {
-        return serialization.deserialize(url, is);
+    private ObjectInput deserialize(Serialization serialization, Channel channel, InputStream is) throws IOException {
+        return CodecSupport.deserialize(channel, serialization, is);
+    }
+
+    /**
+     * 取出消息体，交给业务线程解码：netty4的buffer直接截取共享，不拷贝数据，解码完成后关闭流时释放
+     */
+    private InputStream readMessageStream(InputStream is) throws IOException {
+        if (is instanceof ChannelBufferInputStream) {
+            return ((ChannelBufferInputStream) is).readRemaining();
+        }
+        return new UnsafeByteArrayInputStream(readMessageData(is));
     }
 
     private byte[] readMessageData(InputStream is) throws IOException {
@@ -34,6 +34,7 @@ import com.alibaba.dubbo.rpc.RpcResult;
 import com.alibaba.dubbo.rpc.protocol.AbstractInvoker;
 import com.alibaba.dubbo.rpc.support.RpcUtils;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -57,13 +58,29 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
     }
 
     public DubboInvoker(Class<T> serviceType, URL url, ExchangeClient[] clients, Set<Invoker<?>> invokers) {
-        super(serviceType, url, new String[]{Constants.INTERFACE_KEY, Constants.GROUP_KEY, Constants.TOKEN_KEY, Constants.TIMEOUT_KEY});
+        super(serviceType, url, isApplicationScopedTps(url)
+                ? new String[]{Constants.INTERFACE_KEY, Constants.GROUP_KEY, Constants.TOKEN_KEY, Constants.TIMEOUT_KEY, Constants.APPLICATION_KEY}
+                : new String[]{Constants.INTERFACE_KEY, Constants.GROUP_KEY, Constants.TOKEN_KEY, Constants.TIMEOUT_KEY});
         this.clients = clients;
         // get version.
         this.version = url.getParameter(Constants.VERSION_KEY, "0.0.0");
         this.invokers = invokers;
     }
 
+    /**
+     * 提供者（参数已合并到消费者url中）或消费者配置了按调用方应用限流时，才需要随调用发送应用名
+     */
+    private static boolean isApplicationScopedTps(URL url) {
+        String suffix = "." + Constants.TPS_LIMIT_SCOPE_KEY;
+        for (Map.Entry<String, String> entry : url.getParameters().entrySet()) {
+            if ((entry.getKey().equals(Constants.TPS_LIMIT_SCOPE_KEY) || entry.getKey().endsWith(suffix))
+                    && entry.getValue().contains(Constants.APPLICATION_KEY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     protected Result doInvoke(final Invocation invocation) throws Throwable {
         RpcInvocation inv = (RpcInvocation) invocation;
@@ -33,6 +33,7 @@ import com.alibaba.dubbo.remoting.exchange.ExchangeHandler;
 import com.alibaba.dubbo.remoting.exchange.ExchangeServer;
 import com.alibaba.dubbo.remoting.exchange.Exchangers;
 import com.alibaba.dubbo.remoting.exchange.support.ExchangeHandlerAdapter;
+import com.alibaba.dubbo.remoting.transport.dispatcher.ExecutorSelector;
 import com.alibaba.dubbo.rpc.Exporter;
 import com.alibaba.dubbo.rpc.Invocation;
 import com.alibaba.dubbo.rpc.Invoker;
@@ -41,6 +42,7 @@ import com.alibaba.dubbo.rpc.RpcContext;
 import com.alibaba.dubbo.rpc.RpcException;
 import com.alibaba.dubbo.rpc.RpcInvocation;
 import com.alibaba.dubbo.rpc.protocol.AbstractProtocol;
+import com.alibaba.dubbo.rpc.support.ProtocolUtils;
 
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
@@ -50,6 +52,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 
 /**
  * dubbo protocol support.
@@ -88,8 +91,18 @@ public class DubboProtocol extends AbstractProtocol {
      * Map<servicekey, stubmethods>
      */
     private final ConcurrentMap<String, String> stubServiceMethodsMap = new ConcurrentHashMap<String, String>();
+    /** 服务和方法级别的隔离线程池 */
+    private final IsolatedExecutorSelector executorSelector = new IsolatedExecutorSelector();
+
     /** Dubbo通过该处理器处理消费者发起的服务调用 */
-    private ExchangeHandler requestHandler = new ExchangeHandlerAdapter() {
+    private ExchangeHandler requestHandler = new RequestHandler();
+
+    private class RequestHandler extends ExchangeHandlerAdapter implements ExecutorSelector {
+
+        /** 为请求选择隔离的线程池，在IO线程中调用 */
+        public ExecutorService select(Channel channel, Object message) {
+            return executorSelector.select(channel, message);
+        }
 
         /** message提供了目标方法的调用信息，然后返回调用结果 */
         public Object reply(ExchangeChannel channel, Object message) throws RemotingException {
@@ -212,7 +225,7 @@ public class DubboProtocol extends AbstractProtocol {
             }
             return invocation;
         }
-    };
+    }
 
 
 
@@ -253,15 +266,24 @@ public class DubboProtocol extends AbstractProtocol {
      * @throws RpcException
      */
     public <T> Exporter<T> export(Invoker<T> invoker) throws RpcException {
-        URL url = invoker.getUrl();
+        final URL url = invoker.getUrl();
 
         // 创建一个要暴露的服务，并放到缓存里
 
         // key例如：com.alibaba.dubbo.demo.DemoService:20880
         String key = serviceKey(url);
-        DubboExporter<T> exporter = new DubboExporter<T>(invoker, key, exporterMap);
+        DubboExporter<T> exporter = new DubboExporter<T>(invoker, key, exporterMap) {
+            @Override
+            public void unexport() {
+                super.unexport();
+                executorSelector.unregister(url);
+            }
+        };
         exporterMap.put(key, exporter);
 
+        // 创建服务和方法级别的隔离线程池
+        executorSelector.register(url);
+
         // 本地存根相关代码
         // export an stub service for dispatching event
         Boolean isStubSupportEvent = url.getParameter(Constants.STUB_EVENT_KEY, Constants.DEFAULT_STUB_EVENT);
@@ -347,6 +369,7 @@ public class DubboProtocol extends AbstractProtocol {
 
     public <T> Invoker<T> refer(Class<T> serviceType, URL url) throws RpcException {
         optimizeSerialization(url);
+        checkSerializationAutoRegister(serviceType, url);
         // create rpc invoker.
         DubboInvoker<T> invoker = new DubboInvoker<T>(serviceType, url, getClients(url), invokers);
         invokers.add(invoker);
@@ -392,6 +415,28 @@ public class DubboProtocol extends AbstractProtocol {
             throw new RpcException("Cannot instantiate the serialization optimizer class: " + className, e);
         }
     }
+    /**
+     * 提供者开启了序列化类自动注册时（参数会合并到消费者的url中），消费者也按接口注册，并比较两端的注册摘要。
+     * 编号只由类名决定，摘要不同说明有类只在一端注册（例如编号被该端其他接口的类占用），对端可能把它的编号解释为另一个类，因此拒绝引用该提供者
+     */
+    private void checkSerializationAutoRegister(Class<?> serviceType, URL url) throws RpcException {
+        if (!url.getParameter(Constants.SERIALIZATION_AUTO_REGISTER_KEY, false)
+                || ProtocolUtils.isGeneric(url.getParameter(Constants.GENERIC_KEY))) {
+            return;
+        }
+        String hash = SerializableClassRegistry.registerInterface(serviceType);
+        String providerHash = url.getParameter(Constants.SERIALIZATION_AUTO_REGISTER_HASH_KEY);
+        if (providerHash == null) {
+            logger.warn("The provider " + url.getAddress() + " of " + serviceType.getName()
+                    + " does not publish its serializable class registration, make sure it also enables "
+                    + Constants.SERIALIZATION_AUTO_REGISTER_KEY);
+        } else if (!hash.equals(providerHash)) {
+            throw new RpcException("The serializable class registration of " + serviceType.getName() + " is different from provider "
+                    + url.getAddress() + " (" + hash + " vs " + providerHash + "), compare the auto registered classes in the startup log of both sides "
+                    + "and register the differing classes by " + SerializationOptimizer.class.getSimpleName());
+        }
+    }
+
     /**
      * 返回用于服务调用的客户端
      *
@@ -535,6 +580,7 @@ public class DubboProtocol extends AbstractProtocol {
         }
         stubServiceMethodsMap.clear();
         super.destroy();
+        executorSelector.destroy();
     }
 
 
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.protocol.dubbo;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.logger.Logger;
+import com.alibaba.dubbo.common.logger.LoggerFactory;
+import com.alibaba.dubbo.common.store.DataStore;
+import com.alibaba.dubbo.common.threadpool.ThreadPool;
+import com.alibaba.dubbo.remoting.Channel;
+import com.alibaba.dubbo.remoting.exchange.Request;
+import com.alibaba.dubbo.remoting.transport.dispatcher.ExecutorSelector;
+import com.alibaba.dubbo.rpc.support.ProtocolUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 服务和方法级别的隔离线程池。
+ * <p>
+ * 服务配置了isolation.threads时，暴露服务时为其创建独占的线程池，方法配置了isolation.threads时为该方法单独创建线程池；
+ * 请求在IO线程中读出服务路径、版本和方法名后派发到对应的线程池，未配置隔离的服务仍使用通道的线程池。
+ * <p>
+ * 线程池按服务key（包含分组）区分，端口使用服务实际绑定的端口，与请求所在通道的本地端口一致。
+ * 分组在请求体的attachments中，只读取请求头时无法得到：同一服务只暴露了一个分组时直接使用该分组，
+ * 暴露了多个分组且其中有隔离线程池时，在IO线程中完整解码请求以读取分组。
+ */
+class IsolatedExecutorSelector implements ExecutorSelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(IsolatedExecutorSelector.class);
+
+    private static final String METHOD_SEPARATOR = "#";
+
+    private static final String ISOLATION_THREADS_SUFFIX = "." + Constants.ISOLATION_THREADS_KEY;
+
+    /** key：服务key，方法级别为服务key#方法名 */
+    private final ConcurrentMap<String, ExecutorService> executors = new ConcurrentHashMap<String, ExecutorService>();
+
+    /** key：不含分组的服务key，value：该服务已暴露的分组，没有分组时为空字符串 */
+    private final ConcurrentMap<String, Set<String>> exportedGroups = new ConcurrentHashMap<String, Set<String>>();
+
+    private final DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+
+    /**
+     * 根据服务URL的配置创建服务及方法级别的线程池
+     *
+     * @param url 暴露服务的URL
+     */
+    synchronized void register(URL url) {
+        int port = bindPort(url);
+        String group = url.getParameter(Constants.GROUP_KEY, "");
+        String baseKey = serviceKey(port, url.getPath(), url.getParameter(Constants.VERSION_KEY), null);
+        Set<String> groups = exportedGroups.get(baseKey);
+        if (groups == null) {
+            groups = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            exportedGroups.put(baseKey, groups);
+        }
+        groups.add(group);
+
+        String serviceKey = serviceKey(port, url.getPath(), url.getParameter(Constants.VERSION_KEY), group);
+        if (url.getParameter(Constants.ISOLATION_THREADS_KEY, 0) > 0) {
+            createExecutor(serviceKey, url, url.getParameter(Constants.ISOLATION_THREADS_KEY, 0),
+                    url.getParameter(Constants.ISOLATION_THREADPOOL_KEY));
+        }
+        for (Map.Entry<String, String> entry : url.getParameters().entrySet()) {
+            String key = entry.getKey();
+            if (key.endsWith(ISOLATION_THREADS_SUFFIX) && key.length() > ISOLATION_THREADS_SUFFIX.length()) {
+                String method = key.substring(0, key.length() - ISOLATION_THREADS_SUFFIX.length());
+                int threads = url.getMethodParameter(method, Constants.ISOLATION_THREADS_KEY, 0);
+                if (threads > 0) {
+                    String threadpool = url.getMethodParameter(method, Constants.ISOLATION_THREADPOOL_KEY,
+                            url.getParameter(Constants.ISOLATION_THREADPOOL_KEY));
+                    createExecutor(serviceKey + METHOD_SEPARATOR + method, url, threads, threadpool);
+                }
+            }
+        }
+    }
+
+    /**
+     * 关闭服务及其方法的线程池
+     *
+     * @param url 暴露服务的URL
+     */
+    synchronized void unregister(URL url) {
+        int port = bindPort(url);
+        String group = url.getParameter(Constants.GROUP_KEY, "");
+        String baseKey = serviceKey(port, url.getPath(), url.getParameter(Constants.VERSION_KEY), null);
+        Set<String> groups = exportedGroups.get(baseKey);
+        if (groups != null) {
+            groups.remove(group);
+            if (groups.isEmpty()) {
+                exportedGroups.remove(baseKey);
+            }
+        }
+
+        String serviceKey = serviceKey(port, url.getPath(), url.getParameter(Constants.VERSION_KEY), group);
+        for (String key : new ArrayList<String>(executors.keySet())) {
+            if (key.equals(serviceKey) || key.startsWith(serviceKey + METHOD_SEPARATOR)) {
+                shutdown(key);
+            }
+        }
+    }
+
+    synchronized void destroy() {
+        for (String key : new ArrayList<String>(executors.keySet())) {
+            shutdown(key);
+        }
+        exportedGroups.clear();
+    }
+
+    public ExecutorService select(Channel channel, Object message) {
+        if (executors.isEmpty() || !(message instanceof Request)) {
+            return null;
+        }
+        Object data = ((Request) message).getData();
+        if (!(data instanceof DecodeableRpcInvocation)) {
+            return null;
+        }
+        DecodeableRpcInvocation inv = (DecodeableRpcInvocation) data;
+        try {
+            inv.decodeHeader();
+        } catch (Throwable t) {
+            // 交给业务线程完整解码时再处理
+            return null;
+        }
+        String path = inv.getAttachment(Constants.PATH_KEY);
+        if (path == null) {
+            return null;
+        }
+        int port = channel.getLocalAddress().getPort();
+        String version = inv.getAttachment(Constants.VERSION_KEY);
+        String method = inv.getMethodName();
+        Set<String> groups = exportedGroups.get(serviceKey(port, path, version, null));
+        if (groups == null || groups.isEmpty()) {
+            return null;
+        }
+        String group;
+        if (groups.size() == 1) {
+            group = groups.iterator().next();
+        } else {
+            if (!hasExecutor(port, path, version, groups, method)) {
+                return null;
+            }
+            try {
+                // 分组在请求体最后的attachments中，只能完整解码后读取；已经在IO线程中解码过时不会重复解码
+                inv.decode();
+            } catch (Throwable t) {
+                return null;
+            }
+            group = inv.getAttachment(Constants.GROUP_KEY);
+        }
+        return getExecutor(serviceKey(port, path, version, group), method);
+    }
+
+    /**
+     * 返回所有隔离线程池的key，用于测试和状态查询
+     */
+    List<String> getExecutorKeys() {
+        return new ArrayList<String>(executors.keySet());
+    }
+
+    private void createExecutor(String key, URL url, int threads, String threadpool) {
+        URL executorUrl = url.addParameter(Constants.THREADS_KEY, threads)
+                .addParameter(Constants.THREAD_NAME_KEY, "DubboServerHandler-" + key);
+        if (threadpool != null && threadpool.length() > 0) {
+            executorUrl = executorUrl.addParameter(Constants.THREADPOOL_KEY, threadpool);
+        }
+        ExecutorService executor = (ExecutorService) ExtensionLoader.getExtensionLoader(ThreadPool.class)
+                .getAdaptiveExtension().getExecutor(executorUrl);
+        ExecutorService old = executors.put(key, executor);
+        dataStore.put(Constants.ISOLATED_EXECUTOR_SERVICE_COMPONENT_KEY, key, executor);
+        if (old != null) {
+            old.shutdown();
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info("Create isolated thread pool for " + key + ", threads: " + threads);
+        }
+    }
+
+    private void shutdown(String key) {
+        ExecutorService executor = executors.remove(key);
+        dataStore.remove(Constants.ISOLATED_EXECUTOR_SERVICE_COMPONENT_KEY, key);
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private ExecutorService getExecutor(String serviceKey, String method) {
+        ExecutorService executor = null;
+        if (method != null) {
+            executor = executors.get(serviceKey + METHOD_SEPARATOR + method);
+        }
+        return executor != null ? executor : executors.get(serviceKey);
+    }
+
+    private boolean hasExecutor(int port, String path, String version, Set<String> groups, String method) {
+        for (String group : groups) {
+            if (getExecutor(serviceKey(port, path, version, group), method) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 服务实际监听的端口，即请求所在通道的本地端口
+     */
+    private static int bindPort(URL url) {
+        return url.getParameter(Constants.BIND_PORT_KEY, url.getPort());
+    }
+
+    private static String serviceKey(int port, String path, String version, String group) {
+        return ProtocolUtils.serviceKey(port, path, version, group);
+    }
+
+}
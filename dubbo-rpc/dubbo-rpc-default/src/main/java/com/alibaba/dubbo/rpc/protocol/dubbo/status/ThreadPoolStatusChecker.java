@@ -22,10 +22,12 @@ import com.alibaba.dubbo.common.extension.ExtensionLoader;
 import com.alibaba.dubbo.common.status.Status;
 import com.alibaba.dubbo.common.status.StatusChecker;
 import com.alibaba.dubbo.common.store.DataStore;
+import com.alibaba.dubbo.common.threadpool.support.AbortPolicyWithReport;
+import com.alibaba.dubbo.common.threadpool.support.eager.EagerThreadPoolExecutor;
 
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ThreadPoolStatusChecker
@@ -36,35 +38,54 @@ public class ThreadPoolStatusChecker implements StatusChecker {
     public Status check() {
         DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
         Map<String, Object> executors = dataStore.get(Constants.EXECUTOR_SERVICE_COMPONENT_KEY);
+        Map<String, Object> isolatedExecutors = dataStore.get(Constants.ISOLATED_EXECUTOR_SERVICE_COMPONENT_KEY);
 
         StringBuilder msg = new StringBuilder();
         Status.Level level = Status.Level.OK;
         for (Map.Entry<String, Object> entry : executors.entrySet()) {
-            String port = entry.getKey();
-            ExecutorService executor = (ExecutorService) entry.getValue();
-
-            if (executor != null && executor instanceof ThreadPoolExecutor) {
-                ThreadPoolExecutor tp = (ThreadPoolExecutor) executor;
-                boolean ok = tp.getActiveCount() < tp.getMaximumPoolSize() - 1;
-                Status.Level lvl = Status.Level.OK;
-                if (!ok) {
-                    level = Status.Level.WARN;
-                    lvl = Status.Level.WARN;
-                }
-
-                if (msg.length() > 0) {
-                    msg.append(";");
-                }
-                msg.append("Pool status:" + lvl
-                        + ", max:" + tp.getMaximumPoolSize()
-                        + ", core:" + tp.getCorePoolSize()
-                        + ", largest:" + tp.getLargestPoolSize()
-                        + ", active:" + tp.getActiveCount()
-                        + ", task:" + tp.getTaskCount()
-                        + ", service port: " + port);
+            if (!check(msg, entry.getValue(), "service port: " + entry.getKey())) {
+                level = Status.Level.WARN;
+            }
+        }
+        for (Map.Entry<String, Object> entry : isolatedExecutors.entrySet()) {
+            if (!check(msg, entry.getValue(), "isolated: " + entry.getKey())) {
+                level = Status.Level.WARN;
             }
         }
         return msg.length() == 0 ? new Status(Status.Level.UNKNOWN) : new Status(level, msg.toString());
     }
 
+    /**
+     * 输出一个线程池的状态，线程池快要耗尽时返回false
+     */
+    private boolean check(StringBuilder msg, Object executor, String name) {
+        if (!(executor instanceof ThreadPoolExecutor)) {
+            return true;
+        }
+        ThreadPoolExecutor tp = (ThreadPoolExecutor) executor;
+        boolean ok = tp.getActiveCount() < tp.getMaximumPoolSize() - 1;
+        Status.Level lvl = ok ? Status.Level.OK : Status.Level.WARN;
+
+        if (msg.length() > 0) {
+            msg.append(";");
+        }
+        msg.append("Pool status:" + lvl
+                + ", max:" + tp.getMaximumPoolSize()
+                + ", core:" + tp.getCorePoolSize()
+                + ", largest:" + tp.getLargestPoolSize()
+                + ", active:" + tp.getActiveCount()
+                + ", task:" + tp.getTaskCount()
+                + ", queue:" + tp.getQueue().size());
+        if (tp.getRejectedExecutionHandler() instanceof AbortPolicyWithReport) {
+            msg.append(", rejected:" + ((AbortPolicyWithReport) tp.getRejectedExecutionHandler()).getRejectedCount());
+        }
+        if (tp instanceof EagerThreadPoolExecutor) {
+            EagerThreadPoolExecutor eager = (EagerThreadPoolExecutor) tp;
+            msg.append(", queue wait avg:" + TimeUnit.NANOSECONDS.toMicros(eager.getAverageQueueWaitTime()) + "us"
+                    + ", queue wait max:" + TimeUnit.NANOSECONDS.toMicros(eager.getMaxQueueWaitTime()) + "us");
+        }
+        msg.append(", " + name);
+        return ok;
+    }
+
 }
\ No newline at end of file
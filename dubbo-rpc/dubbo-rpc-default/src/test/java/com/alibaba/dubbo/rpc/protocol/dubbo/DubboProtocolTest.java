@@ -181,4 +181,15 @@ public class DubboProtocolTest {
             Assert.assertTrue(e.getMessage().contains("com.alibaba.dubbo.rpc.protocol.dubbo.support.NonSerialized must implement java.io.Serializable"));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSerializationAutoRegisterMismatch() throws Exception {
+        try {
+            protocol.refer(DemoService.class, URL.valueOf("dubbo://127.0.0.1:9051/" + DemoService.class.getName()
+                    + "?" + Constants.SERIALIZATION_AUTO_REGISTER_KEY + "=true&" + Constants.SERIALIZATION_AUTO_REGISTER_HASH_KEY + "=1234"));
+            Assert.fail();
+        } catch (RpcException e) {
+            Assert.assertTrue(e.getMessage().contains("serializable class registration"));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.protocol.dubbo;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.store.DataStore;
+import com.alibaba.dubbo.rpc.Exporter;
+import com.alibaba.dubbo.rpc.protocol.dubbo.support.DemoService;
+import com.alibaba.dubbo.rpc.protocol.dubbo.support.DemoServiceImpl;
+import com.alibaba.dubbo.rpc.protocol.dubbo.support.ProtocolUtils;
+import com.alibaba.dubbo.rpc.protocol.dubbo.support.RemoteService;
+import com.alibaba.dubbo.rpc.protocol.dubbo.support.RemoteServiceImpl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class IsolatedExecutorTest {
+
+    private final DataStore dataStore = ExtensionLoader.getExtensionLoader(DataStore.class).getDefaultExtension();
+
+    @After
+    public void tearDown() {
+        ProtocolUtils.closeAll();
+    }
+
+    @Test
+    public void testServiceIsolation() throws Exception {
+        String demoUrl = "dubbo://127.0.0.1:9031/" + DemoService.class.getName() + "?isolation.threads=2";
+        String remoteUrl = "dubbo://127.0.0.1:9031/" + RemoteService.class.getName();
+        Exporter<DemoService> exporter = ProtocolUtils.export(new DemoServiceImpl(), DemoService.class, demoUrl);
+        ProtocolUtils.export(new RemoteServiceImpl(), RemoteService.class, remoteUrl);
+
+        DemoService demoService = ProtocolUtils.refer(DemoService.class, demoUrl);
+        RemoteService remoteService = ProtocolUtils.refer(RemoteService.class, remoteUrl);
+        String serviceKey = DemoService.class.getName() + ":9031";
+        Assert.assertTrue(demoService.getThreadName().startsWith("DubboServerHandler-" + serviceKey + "-thread-"));
+        // 未配置隔离的服务仍使用端口共用的线程池
+        Assert.assertTrue(remoteService.getThreadName().startsWith("DubboServerHandler-127.0.0.1:9031-thread-"));
+
+        Map<String, Object> executors = dataStore.get(Constants.ISOLATED_EXECUTOR_SERVICE_COMPONENT_KEY);
+        Assert.assertTrue(executors.containsKey(serviceKey));
+
+        exporter.unexport();
+        Assert.assertNull(dataStore.get(Constants.ISOLATED_EXECUTOR_SERVICE_COMPONENT_KEY, serviceKey));
+    }
+
+    @Test
+    public void testMethodIsolationDecodeInBusinessThread() throws Exception {
+        String demoUrl = "dubbo://127.0.0.1:9032/" + DemoService.class.getName()
+                + "?decode.in.io=false&getThreadName.isolation.threads=1&getThreadName.isolation.threadpool=cached";
+        ProtocolUtils.export(new DemoServiceImpl(), DemoService.class, demoUrl);
+
+        DemoService demoService = ProtocolUtils.refer(DemoService.class, demoUrl);
+        String methodKey = DemoService.class.getName() + ":9032#getThreadName";
+        Assert.assertTrue(demoService.getThreadName().startsWith("DubboServerHandler-" + methodKey + "-thread-"));
+        // 请求体在业务线程中完整解码
+        Assert.assertEquals("hello", demoService.echo("hello"));
+        Assert.assertNotNull(dataStore.get(Constants.ISOLATED_EXECUTOR_SERVICE_COMPONENT_KEY, methodKey));
+    }
+
+    @Test
+    public void testGroupIsolation() throws Exception {
+        String baseUrl = "dubbo://127.0.0.1:9033/" + DemoService.class.getName() + "?decode.in.io=false";
+        ProtocolUtils.export(new DemoServiceImpl(), DemoService.class, baseUrl + "&group=a&isolation.threads=1");
+        ProtocolUtils.export(new DemoServiceImpl(), DemoService.class, baseUrl + "&group=b");
+
+        DemoService groupA = ProtocolUtils.refer(DemoService.class, baseUrl + "&group=a");
+        DemoService groupB = ProtocolUtils.refer(DemoService.class, baseUrl + "&group=b");
+        String serviceKey = "a/" + DemoService.class.getName() + ":9033";
+        Assert.assertTrue(groupA.getThreadName().startsWith("DubboServerHandler-" + serviceKey + "-thread-"));
+        // 同一服务的其他分组没有配置隔离，仍使用端口共用的线程池
+        Assert.assertTrue(groupB.getThreadName().startsWith("DubboServerHandler-127.0.0.1:9033-thread-"));
+        Assert.assertEquals("hello", groupA.echo("hello"));
+        Assert.assertNotNull(dataStore.get(Constants.ISOLATED_EXECUTOR_SERVICE_COMPONENT_KEY, serviceKey));
+    }
+
+}
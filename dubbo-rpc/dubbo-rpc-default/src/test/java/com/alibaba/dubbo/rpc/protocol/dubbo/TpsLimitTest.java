@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.rpc.protocol.dubbo;
+
+import com.alibaba.dubbo.common.status.Status;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.filter.tps.TpsStatusChecker;
+import com.alibaba.dubbo.rpc.protocol.dubbo.support.DemoService;
+import com.alibaba.dubbo.rpc.protocol.dubbo.support.DemoServiceImpl;
+import com.alibaba.dubbo.rpc.protocol.dubbo.support.ProtocolUtils;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 按调用方应用限流
+ */
+public class TpsLimitTest {
+
+    private static final String URL = "dubbo://127.0.0.1:9034/" + DemoService.class.getName();
+
+    @After
+    public void tearDown() {
+        ProtocolUtils.closeAll();
+    }
+
+    @Test
+    public void testApplicationScope() throws Exception {
+        ProtocolUtils.export(new DemoServiceImpl(), DemoService.class,
+                URL + "?application=provider&tps=1&tps.interval=600000&tps.scope=application");
+        // tps.scope is merged into the consumer url from the registry, the application is only sent then
+        DemoService a = ProtocolUtils.refer(DemoService.class, URL + "?application=a&timeout=3000&tps.scope=application");
+        DemoService b = ProtocolUtils.refer(DemoService.class, URL + "?application=b&timeout=3000&tps.scope=application");
+        DemoService c = ProtocolUtils.refer(DemoService.class, URL + "?application=c&timeout=3000");
+
+        Assert.assertEquals("ok", a.echo("ok"));
+        try {
+            a.echo("rejected");
+            Assert.fail();
+        } catch (RpcException expected) {
+        }
+        Assert.assertEquals("ok", b.echo("ok"));
+        Assert.assertEquals("ok", c.echo("ok"));
+
+        Status status = new TpsStatusChecker().check();
+        Assert.assertEquals(Status.Level.OK, status.getLevel());
+        Assert.assertTrue(status.getMessage(), status.getMessage().contains("@a rejected:1"));
+        Assert.assertTrue(status.getMessage(), status.getMessage().contains("@b rejected:0"));
+        Assert.assertTrue(status.getMessage(), status.getMessage().contains(DemoService.class.getName() + " rejected:0"));
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.benchmark;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试使用的数据对象，包含常见的基本类型、字符串和集合字段
+ */
+public class BenchmarkObject implements Serializable {
+
+    private static final long serialVersionUID = -2392307519435373463L;
+
+    private int id;
+
+    private String name;
+
+    private long timestamp;
+
+    private double score;
+
+    private boolean enabled;
+
+    private List<String> tags;
+
+    private Map<String, Integer> counters;
+
+    public static BenchmarkObject create(int id) {
+        BenchmarkObject object = new BenchmarkObject();
+        object.setId(id);
+        object.setName("benchmark-object-" + id);
+        object.setTimestamp(1500000000000L + id);
+        object.setScore(id * 0.5d);
+        object.setEnabled(id % 2 == 0);
+        List<String> tags = new ArrayList<String>();
+        Map<String, Integer> counters = new HashMap<String, Integer>();
+        for (int i = 0; i < 8; i++) {
+            tags.add("tag-" + i);
+            counters.put("counter-" + i, i * id);
+        }
+        object.setTags(tags);
+        object.setCounters(counters);
+        return object;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public Map<String, Integer> getCounters() {
+        return counters;
+    }
+
+    public void setCounters(Map<String, Integer> counters) {
+        this.counters = counters;
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.benchmark;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.remoting.Codec2;
+import com.alibaba.dubbo.remoting.buffer.ChannelBuffer;
+import com.alibaba.dubbo.remoting.buffer.ChannelBuffers;
+import com.alibaba.dubbo.remoting.exchange.Request;
+import com.alibaba.dubbo.remoting.exchange.Response;
+import com.alibaba.dubbo.rpc.Exporter;
+import com.alibaba.dubbo.rpc.Protocol;
+import com.alibaba.dubbo.rpc.ProxyFactory;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+import com.alibaba.dubbo.rpc.RpcResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link com.alibaba.dubbo.remoting.exchange.codec.ExchangeCodec}/DubboCodec对请求和响应的编解码，
+ * 包含协议头、序列化和请求/响应体的全部开销。
+ * <p>
+ * 解码请求时会按通道端口和服务路径查找导出的服务以处理回调参数，因此这里会在本地导出一次服务。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final int PORT = 20870;
+
+    @Param({"hessian2", "dubbo", "fst", "kryo", "fastjson", "java"})
+    private String serialization;
+
+    private Codec2 codec;
+
+    private BenchmarkChannel channel;
+
+    private Exporter<BenchmarkService> exporter;
+
+    private Request request;
+
+    private Response response;
+
+    private ChannelBuffer buffer;
+
+    private byte[] requestBytes;
+
+    private byte[] responseBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        URL url = URL.valueOf("dubbo://127.0.0.1:" + PORT + "/" + BenchmarkService.class.getName())
+                .addParameter(Constants.SERVER_KEY, "netty4")
+                .addParameter(Constants.SERIALIZATION_KEY, serialization)
+                .addParameter(Constants.DECODE_IN_IO_THREAD_KEY, true);
+        ProxyFactory proxyFactory = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getAdaptiveExtension();
+        Protocol protocol = ExtensionLoader.getExtensionLoader(Protocol.class).getExtension("dubbo");
+        exporter = protocol.export(proxyFactory.getInvoker(new BenchmarkServiceImpl(), BenchmarkService.class, url));
+
+        codec = ExtensionLoader.getExtensionLoader(Codec2.class).getExtension("dubbo");
+        channel = new BenchmarkChannel(url);
+
+        RpcInvocation invocation = new RpcInvocation("getObject", new Class<?>[]{int.class}, new Object[]{1});
+        invocation.setAttachment(Constants.PATH_KEY, BenchmarkService.class.getName());
+        invocation.setAttachment(Constants.VERSION_KEY, "0.0.0");
+        request = new Request(1);
+        request.setVersion("2.0.0");
+        request.setTwoWay(true);
+        request.setData(invocation);
+
+        response = new Response(1, "2.0.0");
+        response.setResult(new RpcResult(BenchmarkObject.create(1)));
+
+        buffer = ChannelBuffers.dynamicBuffer(1024);
+        requestBytes = encode(request);
+        responseBytes = encode(response);
+    }
+
+    @TearDown
+    public void tearDown() {
+        exporter.unexport();
+    }
+
+    private byte[] encode(Object message) throws Exception {
+        buffer.clear();
+        codec.encode(channel, buffer, message);
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        return bytes;
+    }
+
+    @Benchmark
+    public ChannelBuffer encodeRequest() throws Exception {
+        buffer.clear();
+        codec.encode(channel, buffer, request);
+        return buffer;
+    }
+
+    @Benchmark
+    public ChannelBuffer encodeResponse() throws Exception {
+        buffer.clear();
+        codec.encode(channel, buffer, response);
+        return buffer;
+    }
+
+    @Benchmark
+    public Object decodeRequest() throws Exception {
+        return codec.decode(channel, ChannelBuffers.wrappedBuffer(requestBytes));
+    }
+
+    @Benchmark
+    public Object decodeResponse() throws Exception {
+        return codec.decode(channel, ChannelBuffers.wrappedBuffer(responseBytes));
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.benchmark;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+import com.alibaba.dubbo.rpc.cluster.Router;
+import com.alibaba.dubbo.rpc.cluster.router.condition.ConditionRouter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConditionRouter#route}对提供者列表的过滤
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionRouterBenchmark {
+
+    @Param({
+            "host = 127.0.0.1 => host = 10.0.0.1,10.0.0.2",
+            "method = echo => host = 10.0.0.*",
+            "host != 10.20.0.* & method = echo,getObject => host = 10.0.0.1,10.0.0.3 & port = 20880"})
+    private String rule;
+
+    @Param({"10", "100"})
+    private int providers;
+
+    private Router router;
+
+    private List<Invoker<BenchmarkService>> invokers;
+
+    private URL url;
+
+    private Invocation invocation;
+
+    @Setup
+    public void setup() {
+        router = new ConditionRouter(URL.valueOf("condition://0.0.0.0/" + BenchmarkService.class.getName())
+                .addParameterAndEncoded(Constants.RULE_KEY, rule));
+        url = URL.valueOf("consumer://127.0.0.1/" + BenchmarkService.class.getName());
+        invokers = new ArrayList<Invoker<BenchmarkService>>(providers);
+        for (int i = 0; i < providers; i++) {
+            invokers.add(new BenchmarkInvoker(URL.valueOf("dubbo://10.0." + (i / 250) + "." + (i % 250 + 1)
+                    + ":" + (20880 + i % 2) + "/" + BenchmarkService.class.getName())));
+        }
+        invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"hello"});
+    }
+
+    @Benchmark
+    public List<Invoker<BenchmarkService>> route() {
+        return router.route(invokers, url, invocation);
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.benchmark;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+import com.alibaba.dubbo.rpc.cluster.LoadBalance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个{@link LoadBalance}实现在不同规模的提供者列表上的一次选择
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBalanceBenchmark {
+
+    @Param({"random", "roundrobin", "leastactive", "consistenthash", "smoothroundrobin", "peakewma"})
+    private String loadbalance;
+
+    @Param({"10", "100"})
+    private int providers;
+
+    /** 为true时各提供者权重不同，覆盖按权重选择的分支 */
+    @Param({"false", "true"})
+    private boolean weighted;
+
+    private LoadBalance lb;
+
+    private List<Invoker<BenchmarkService>> invokers;
+
+    private URL url;
+
+    private Invocation[] invocations;
+
+    @Setup
+    public void setup() {
+        lb = ExtensionLoader.getExtensionLoader(LoadBalance.class).getExtension(loadbalance);
+        url = URL.valueOf("consumer://127.0.0.1/" + BenchmarkService.class.getName());
+        invokers = new ArrayList<Invoker<BenchmarkService>>(providers);
+        for (int i = 0; i < providers; i++) {
+            URL providerUrl = URL.valueOf("dubbo://10.0." + (i / 250) + "." + (i % 250 + 1) + ":20880/"
+                    + BenchmarkService.class.getName());
+            if (weighted) {
+                providerUrl = providerUrl.addParameter(Constants.WEIGHT_KEY, 50 + (i % 4) * 50);
+            }
+            invokers.add(new BenchmarkInvoker(providerUrl));
+        }
+        // 一致性哈希按参数选择，准备多个不同参数的调用
+        invocations = new Invocation[64];
+        for (int i = 0; i < invocations.length; i++) {
+            invocations[i] = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"message-" + i});
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int next;
+
+    }
+
+    @Benchmark
+    public Invoker<BenchmarkService> select(Cursor cursor) {
+        Invocation invocation = invocations[cursor.next++ & (invocations.length - 1)];
+        return lb.select(invokers, url, invocation);
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.benchmark;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.rpc.Exporter;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Protocol;
+import com.alibaba.dubbo.rpc.ProxyFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消费端到提供端的完整调用：
+ * injvm走本地调用链（过滤器、代理），dubbo走本机回环上的netty4连接（编解码、线程池派发、Future等待）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    private static final int PORT = 20871;
+
+    @Param({"injvm", "dubbo"})
+    private String protocol;
+
+    @Param({"hessian2"})
+    private String serialization;
+
+    /** 合并写，只对dubbo协议生效 */
+    @Param({"false", "true"})
+    private boolean writeCoalesce;
+
+    /** IO模型，epoll需要Linux及netty-transport-native-epoll本地库，否则退回nio */
+    @Param({"nio"})
+    private String iomode;
+
+    private Exporter<BenchmarkService> exporter;
+
+    private Invoker<BenchmarkService> invoker;
+
+    private BenchmarkService service;
+
+    @Setup
+    public void setup() {
+        URL url = URL.valueOf(protocol + "://127.0.0.1:" + PORT + "/" + BenchmarkService.class.getName())
+                .addParameter(Constants.SERVER_KEY, "netty4")
+                .addParameter(Constants.CLIENT_KEY, "netty4")
+                .addParameter(Constants.SERIALIZATION_KEY, serialization)
+                .addParameter(Constants.WRITE_COALESCE_KEY, writeCoalesce)
+                .addParameter(Constants.IO_MODE_KEY, iomode)
+                .addParameter(Constants.TIMEOUT_KEY, 10000);
+        ProxyFactory proxyFactory = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getAdaptiveExtension();
+        Protocol rpcProtocol = ExtensionLoader.getExtensionLoader(Protocol.class).getAdaptiveExtension();
+        exporter = rpcProtocol.export(proxyFactory.getInvoker(new BenchmarkServiceImpl(), BenchmarkService.class, url));
+        invoker = rpcProtocol.refer(BenchmarkService.class, url);
+        service = proxyFactory.getProxy(invoker);
+    }
+
+    @TearDown
+    public void tearDown() {
+        invoker.destroy();
+        exporter.unexport();
+    }
+
+    @Benchmark
+    public String echo() {
+        return service.echo("hello");
+    }
+
+    @Benchmark
+    public BenchmarkObject getObject() {
+        return service.getObject(1);
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.benchmark;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.extension.ExtensionLoader;
+import com.alibaba.dubbo.common.io.UnsafeByteArrayInputStream;
+import com.alibaba.dubbo.common.io.UnsafeByteArrayOutputStream;
+import com.alibaba.dubbo.common.serialize.ObjectInput;
+import com.alibaba.dubbo.common.serialize.ObjectOutput;
+import com.alibaba.dubbo.common.serialize.Serialization;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各个{@link Serialization}实现对同一个对象的序列化/反序列化
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"hessian2", "dubbo", "fst", "kryo", "fastjson", "java"})
+    private String serialization;
+
+    private Serialization serializer;
+
+    private URL url;
+
+    private BenchmarkObject object;
+
+    private UnsafeByteArrayOutputStream output;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws Exception {
+        serializer = ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(serialization);
+        url = URL.valueOf("dubbo://127.0.0.1:20880/" + BenchmarkService.class.getName() + "?serialization=" + serialization);
+        object = BenchmarkObject.create(1);
+        output = new UnsafeByteArrayOutputStream(1024);
+        bytes = serialize();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        output.reset();
+        ObjectOutput out = serializer.serialize(url, output);
+        out.writeObject(object);
+        out.flushBuffer();
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        ObjectInput in = serializer.deserialize(url, new UnsafeByteArrayInputStream(bytes));
+        return in.readObject(BenchmarkObject.class);
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.dubbo.benchmark;
+
+import com.alibaba.dubbo.common.URL;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link URL}的解析、序列化和参数读取，注册中心推送和每次调用都会大量使用
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlBenchmark {
+
+    private static final String PROVIDER_URL = "dubbo://10.20.130.230:20880/" + BenchmarkService.class.getName()
+            + "?anyhost=true&application=benchmark-provider&dubbo=2.6.0&generic=false"
+            + "&interface=" + BenchmarkService.class.getName()
+            + "&methods=echo,getObject&pid=12345&revision=1.0.0&side=provider&timeout=3000"
+            + "&getObject.timeout=5000&getObject.retries=0&timestamp=1500000000000&weight=100";
+
+    private URL url;
+
+    @Setup
+    public void setup() {
+        url = URL.valueOf(PROVIDER_URL);
+    }
+
+    @Benchmark
+    public URL valueOf() {
+        return URL.valueOf(PROVIDER_URL);
+    }
+
+    @Benchmark
+    public String toFullString() {
+        // 无参的toFullString()会缓存结果，带参数列表的版本每次都重新拼接
+        return url.toFullString(new String[0]);
+    }
+
+    @Benchmark
+    public int getMethodParameter() {
+        return url.getMethodParameter("getObject", "timeout", 1000);
+    }
+
+}
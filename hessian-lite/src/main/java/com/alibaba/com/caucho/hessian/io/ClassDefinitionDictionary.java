@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.com.caucho.hessian.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 长连接上跨消息共享的类定义字典，每个连接的每一端各持有一个实例，线程安全。
+ * <p>
+ * 发送方第一次写出某个类定义时为其分配编号，并在类定义后写出该编号；接收方解码时按编号登记。
+ * 每条消息开头带有两个数：本条消息预置的类定义数量n（对端已确认的编号 0..n-1 直接以引用写出），
+ * 以及本端已连续登记的对端类定义数量（作为对端的确认）。只有对端确认过的类定义才会以引用写出，
+ * 因此即使消息在业务线程中乱序解码也是安全的。
+ */
+public class ClassDefinitionDictionary {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    // ===== 发送方向 =====
+
+    /** 类型到编号的映射 */
+    private final ConcurrentMap<String, Integer> outgoingIds = new ConcurrentHashMap<String, Integer>();
+    /** 按编号排列的类型 */
+    private final List<String> outgoingTypes = new ArrayList<String>();
+    /** 对端已连续登记的数量 */
+    private final AtomicInteger peerCount = new AtomicInteger();
+    /** 预置给Hessian2Output的类型引用，按需重建 */
+    private volatile Seed seed = new Seed(0, Collections.<String, Integer>emptyMap());
+
+    // ===== 接收方向 =====
+
+    /** 按编号登记的对端类定义 */
+    private final ConcurrentMap<Integer, Object> incoming = new ConcurrentHashMap<Integer, Object>();
+    /** 从0开始连续登记的对端类定义 */
+    private volatile Object[] incomingPrefix = EMPTY;
+
+    /**
+     * 返回类型的编号，第一次写出时分配
+     */
+    int getOutgoingId(String type) {
+        Integer id = outgoingIds.get(type);
+        if (id == null) {
+            synchronized (outgoingTypes) {
+                id = outgoingIds.get(type);
+                if (id == null) {
+                    id = outgoingTypes.size();
+                    outgoingTypes.add(type);
+                    outgoingIds.put(type, id);
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * 可以直接以引用写出的类型
+     */
+    Seed getOutgoingSeed() {
+        Seed current = seed;
+        int count = Math.min(peerCount.get(), outgoingIds.size());
+        if (current.count >= count) {
+            return current;
+        }
+        synchronized (outgoingTypes) {
+            current = seed;
+            count = Math.min(peerCount.get(), outgoingTypes.size());
+            if (current.count < count) {
+                Map<String, Integer> refs = new HashMap<String, Integer>(current.refs);
+                for (int i = current.count; i < count; i++) {
+                    refs.put(outgoingTypes.get(i), i);
+                }
+                current = new Seed(count, refs);
+                seed = current;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 对端确认已登记的数量，只增不减
+     */
+    void onPeerCount(int count) {
+        int current;
+        while ((current = peerCount.get()) < count) {
+            if (peerCount.compareAndSet(current, count)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 登记对端的类定义
+     */
+    void registerIncoming(int id, Object definition) throws IOException {
+        if (id < 0) {
+            throw new HessianProtocolException("'" + id + "' is an invalid class definition id");
+        }
+        incoming.putIfAbsent(id, definition);
+        if (id >= incomingPrefix.length) {
+            synchronized (incoming) {
+                Object[] prefix = incomingPrefix;
+                int count = prefix.length;
+                while (incoming.containsKey(count)) {
+                    count++;
+                }
+                if (count > prefix.length) {
+                    Object[] grown = new Object[count];
+                    System.arraycopy(prefix, 0, grown, 0, prefix.length);
+                    for (int i = prefix.length; i < count; i++) {
+                        grown[i] = incoming.get(i);
+                    }
+                    incomingPrefix = grown;
+                }
+            }
+        }
+    }
+
+    /**
+     * 已连续登记的对端类定义，至少包含count个
+     */
+    Object[] getIncomingDefinitions(int count) throws IOException {
+        Object[] prefix = incomingPrefix;
+        if (count < 0 || prefix.length < count) {
+            throw new HessianProtocolException("class definition dictionary out of sync, expect "
+                    + count + " definitions but only " + prefix.length + " are known");
+        }
+        return prefix;
+    }
+
+    /**
+     * 已连续登记的对端类定义数量，随每条消息发给对端作为确认
+     */
+    public int getIncomingCount() {
+        return incomingPrefix.length;
+    }
+
+    /**
+     * 已分配编号的类型数量
+     */
+    public int getOutgoingCount() {
+        synchronized (outgoingTypes) {
+            return outgoingTypes.size();
+        }
+    }
+
+    /**
+     * 对端已确认的类型数量
+     */
+    public int getPeerCount() {
+        return peerCount.get();
+    }
+
+    static final class Seed {
+        final int count;
+        final Map<String, Integer> refs;
+
+        Seed(int count, Map<String, Integer> refs) {
+            this.count = count;
+            this.refs = refs;
+        }
+    }
+}
@@ -121,6 +121,11 @@ public class Hessian2Input
     private boolean _isLastChunk;
     // the chunk length
     private int _chunkLength;
+    // class definitions shared with the peer, null for plain hessian2
+    private ClassDefinitionDictionary _classDictionary;
+    // definitions known from previous messages
+    private Object[] _baseClassDefs;
+    private int _baseClassCount;
 
     /**
      * Creates a new Hessian input stream, initialized with an
@@ -132,6 +137,61 @@ public class Hessian2Input
         _is = is;
     }
 
+    /**
+     * Initializes the input with a new underlying stream, so the instance
+     * (and its buffer and reference lists) can be reused between messages.
+     */
+    public void init(InputStream is) {
+        reset();
+
+        _is = is;
+    }
+
+    /**
+     * Resets all references and discards buffered data.
+     */
+    public void reset() {
+        if (_refs != null)
+            _refs.clear();
+
+        if (_classDefs != null)
+            _classDefs.clear();
+
+        if (_types != null)
+            _types.clear();
+
+        _offset = 0;
+        _length = 0;
+        _isStreaming = false;
+        _method = null;
+        _argLength = 0;
+        _chunkReader = null;
+        _chunkInputStream = null;
+        _replyFault = null;
+        _sbuf.setLength(0);
+        _isLastChunk = false;
+        _chunkLength = 0;
+
+        _classDictionary = null;
+        _baseClassDefs = null;
+        _baseClassCount = 0;
+    }
+
+    /**
+     * Starts a message sharing class definitions with the peer through the
+     * dictionary. Must be called before anything else is read.
+     */
+    public void startClassDictionary(ClassDefinitionDictionary dictionary) throws IOException {
+        int count = readInt();
+        int peerCount = readInt();
+
+        dictionary.onPeerCount(peerCount);
+
+        _baseClassDefs = dictionary.getIncomingDefinitions(count);
+        _baseClassCount = count;
+        _classDictionary = dictionary;
+    }
+
     /**
      * Gets the serializer factory.
      */
@@ -2106,24 +2166,16 @@ public class Hessian2Input
             case 0x6e:
             case 0x6f: {
                 int ref = tag - 0x60;
-                int size = _classDefs.size();
-
-                if (ref < 0 || size <= ref)
-                    throw new HessianProtocolException("'" + ref + "' is an unknown class definition");
 
-                ObjectDefinition def = (ObjectDefinition) _classDefs.get(ref);
+                ObjectDefinition def = getObjectDefinition(ref);
 
                 return readObjectInstance(cl, def);
             }
 
             case 'O': {
                 int ref = readInt();
-                int size = _classDefs.size();
 
-                if (ref < 0 || size <= ref)
-                    throw new HessianProtocolException("'" + ref + "' is an unknown class definition");
-
-                ObjectDefinition def = (ObjectDefinition) _classDefs.get(ref);
+                ObjectDefinition def = getObjectDefinition(ref);
 
                 return readObjectInstance(cl, def);
             }
@@ -2675,10 +2727,10 @@ public class Hessian2Input
             case 0x6f: {
                 int ref = tag - 0x60;
 
-                if (_classDefs == null)
+                if (_classDefs == null && ref >= _baseClassCount)
                     throw error("No classes defined at reference '{0}'" + tag);
 
-                ObjectDefinition def = (ObjectDefinition) _classDefs.get(ref);
+                ObjectDefinition def = getObjectDefinition(ref);
 
                 return readObjectInstance(null, def);
             }
@@ -2686,7 +2738,7 @@ public class Hessian2Input
             case 'O': {
                 int ref = readInt();
 
-                ObjectDefinition def = (ObjectDefinition) _classDefs.get(ref);
+                ObjectDefinition def = getObjectDefinition(ref);
 
                 return readObjectInstance(null, def);
             }
@@ -2715,6 +2767,7 @@ public class Hessian2Input
     private void readObjectDefinition(Class cl)
             throws IOException {
         String type = readString();
+        int id = _classDictionary != null ? readInt() : -1;
         int len = readInt();
 
         String[] fieldNames = new String[len];
@@ -2727,6 +2780,27 @@ public class Hessian2Input
             _classDefs = new ArrayList();
 
         _classDefs.add(def);
+
+        if (_classDictionary != null)
+            _classDictionary.registerIncoming(id, def);
+    }
+
+    /**
+     * Returns the class definition for a reference, the definitions known
+     * from the dictionary come first.
+     */
+    private ObjectDefinition getObjectDefinition(int ref)
+            throws IOException {
+        if (ref >= 0 && ref < _baseClassCount)
+            return (ObjectDefinition) _baseClassDefs[ref];
+
+        int index = ref - _baseClassCount;
+        int size = _classDefs != null ? _classDefs.size() : 0;
+
+        if (index < 0 || size <= index)
+            throw new HessianProtocolException("'" + ref + "' is an unknown class definition");
+
+        return (ObjectDefinition) _classDefs.get(index);
     }
 
     private Object readObjectInstance(Class cl, ObjectDefinition def)
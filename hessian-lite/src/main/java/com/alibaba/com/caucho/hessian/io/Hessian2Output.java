@@ -53,6 +53,7 @@ import com.alibaba.com.caucho.hessian.util.IdentityIntMap;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Output stream for Hessian 2 requests.
@@ -90,11 +91,63 @@ public class Hessian2Output extends AbstractHessianOutput implements Hessian2Con
 
     private boolean _isStreaming;
 
+    // class definitions shared with the peer, null for plain hessian2
+    private ClassDefinitionDictionary _classDictionary;
+    // types known by the peer, mapped to their class reference
+    private Map _baseClassRefs;
+    private int _baseClassCount;
+
 
     public Hessian2Output(OutputStream os) {
         _os = os;
     }
 
+    /**
+     * Initializes the output with a new underlying stream, so the instance
+     * (and its buffer and reference maps) can be reused between messages.
+     */
+    public void init(OutputStream os) {
+        reset();
+
+        _os = os;
+    }
+
+    /**
+     * Resets all references and discards buffered data.
+     */
+    public void reset() {
+        if (_refs != null && _refs.size() > 0)
+            _refs.clear();
+
+        if (_classRefs != null)
+            _classRefs.clear();
+
+        if (_typeRefs != null)
+            _typeRefs.clear();
+
+        _offset = 0;
+        _isStreaming = false;
+
+        _classDictionary = null;
+        _baseClassRefs = null;
+        _baseClassCount = 0;
+    }
+
+    /**
+     * Starts a message sharing class definitions with the peer through the
+     * dictionary. Must be called before anything else is written.
+     */
+    public void startClassDictionary(ClassDefinitionDictionary dictionary) throws IOException {
+        ClassDefinitionDictionary.Seed seed = dictionary.getOutgoingSeed();
+
+        writeInt(seed.count);
+        writeInt(dictionary.getIncomingCount());
+
+        _classDictionary = dictionary;
+        _baseClassRefs = seed.refs;
+        _baseClassCount = seed.count;
+    }
+
 
     // 调用目标方法相关
 
@@ -386,6 +439,9 @@ public class Hessian2Output extends AbstractHessianOutput implements Hessian2Con
 
         Integer refV = (Integer) _classRefs.get(type);
 
+        if (refV == null && _baseClassRefs != null)
+            refV = (Integer) _baseClassRefs.get(type);
+
         if (refV != null) {
             int ref = refV.intValue();
 
@@ -401,7 +457,7 @@ public class Hessian2Output extends AbstractHessianOutput implements Hessian2Con
 
             return ref;
         } else {
-            int ref = _classRefs.size();
+            int ref = _baseClassCount + _classRefs.size();
 
             _classRefs.put(type, Integer.valueOf(ref));
 
@@ -412,6 +468,9 @@ public class Hessian2Output extends AbstractHessianOutput implements Hessian2Con
 
             writeString(type);
 
+            if (_classDictionary != null)
+                writeInt(_classDictionary.getOutgoingId(type));
+
             return -1;
         }
     }
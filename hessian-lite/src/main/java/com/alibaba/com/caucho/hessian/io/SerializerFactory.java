@@ -79,6 +79,8 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -239,12 +241,12 @@ public class SerializerFactory extends AbstractSerializerFactory {
     private Deserializer _hashMapDeserializer;
     private Deserializer _arrayListDeserializer;
 
-    /** 每次获取类对应的Serializer后，都会缓存起来 */
-    private HashMap _cachedSerializerMap;
+    /** 每次获取类对应的Serializer后，都会缓存起来，工厂被所有线程共享，读取不加锁 */
+    private final ConcurrentMap<Class, Serializer> _cachedSerializerMap = new ConcurrentHashMap<Class, Serializer>(8);
     /** 每次获取类对应的Deserializer后，都会缓存起来 */
-    private HashMap _cachedDeserializerMap;
-    /** 每次获取类对应的Deserializer后，都会缓存起来 */
-    private HashMap _cachedTypeDeserializerMap;
+    private final ConcurrentMap<Class, Deserializer> _cachedDeserializerMap = new ConcurrentHashMap<Class, Deserializer>(8);
+    /** 每次获取类型名对应的Deserializer后，都会缓存起来 */
+    private final ConcurrentMap<String, Deserializer> _cachedTypeDeserializerMap = new ConcurrentHashMap<String, Deserializer>(8);
 
     /** 表示是否允许序列化的类型不继承Serializable */
     private boolean _isAllowNonSerializable;
@@ -278,14 +280,9 @@ public class SerializerFactory extends AbstractSerializerFactory {
             return serializer;
 
         // 2、从_cachedSerializerMap获取，看看这个类之前是否序列化过
-        if (_cachedSerializerMap != null) {
-            synchronized (_cachedSerializerMap) {
-                serializer = (Serializer) _cachedSerializerMap.get(cl);
-            }
-
-            if (serializer != null)
-                return serializer;
-        }
+        serializer = _cachedSerializerMap.get(cl);
+        if (serializer != null)
+            return serializer;
 
         // 遍历工厂，看看能不能获取到对应的Serializer，一般扩展工厂都为空
         for (int i = 0; serializer == null && _factories != null && i < _factories.size(); i++) {
@@ -342,14 +339,10 @@ public class SerializerFactory extends AbstractSerializerFactory {
         if (serializer == null)
             serializer = getDefaultSerializer(cl);
 
-        // 返回前添加到缓存
-        if (_cachedSerializerMap == null)
-            _cachedSerializerMap = new HashMap(8);
-        synchronized (_cachedSerializerMap) {
-            _cachedSerializerMap.put(cl, serializer);
-        }
+        // 返回前添加到缓存，并发创建时以先放入的为准
+        Serializer cached = _cachedSerializerMap.putIfAbsent(cl, serializer);
 
-        return serializer;
+        return cached != null ? cached : serializer;
     }
 
     /**
@@ -367,13 +360,9 @@ public class SerializerFactory extends AbstractSerializerFactory {
         if (deserializer != null)
             return deserializer;
 
-        if (_cachedDeserializerMap != null) {
-            synchronized (_cachedDeserializerMap) {
-                deserializer = (Deserializer) _cachedDeserializerMap.get(cl);
-            }
-            if (deserializer != null)
-                return deserializer;
-        }
+        deserializer = _cachedDeserializerMap.get(cl);
+        if (deserializer != null)
+            return deserializer;
 
         // 一般扩展工厂都为空
         for (int i = 0; deserializer == null && _factories != null && i < _factories.size(); i++) {
@@ -403,13 +392,9 @@ public class SerializerFactory extends AbstractSerializerFactory {
 
 
         // 确定了Deserializer后，缓存起来
-        if (_cachedDeserializerMap == null)
-            _cachedDeserializerMap = new HashMap(8);
-        synchronized (_cachedDeserializerMap) {
-            _cachedDeserializerMap.put(cl, deserializer);
-        }
+        Deserializer cached = _cachedDeserializerMap.putIfAbsent(cl, deserializer);
 
-        return deserializer;
+        return cached != null ? cached : deserializer;
     }
 
 
@@ -631,14 +616,9 @@ public class SerializerFactory extends AbstractSerializerFactory {
 
         Deserializer deserializer;
 
-        if (_cachedTypeDeserializerMap != null) {
-            synchronized (_cachedTypeDeserializerMap) {
-                deserializer = (Deserializer) _cachedTypeDeserializerMap.get(type);
-            }
-
-            if (deserializer != null)
-                return deserializer;
-        }
+        deserializer = _cachedTypeDeserializerMap.get(type);
+        if (deserializer != null)
+            return deserializer;
 
 
         deserializer = (Deserializer) _staticTypeMap.get(type);
@@ -664,12 +644,9 @@ public class SerializerFactory extends AbstractSerializerFactory {
         }
 
         if (deserializer != null) {
-            if (_cachedTypeDeserializerMap == null)
-                _cachedTypeDeserializerMap = new HashMap(8);
-
-            synchronized (_cachedTypeDeserializerMap) {
-                _cachedTypeDeserializerMap.put(type, deserializer);
-            }
+            Deserializer cached = _cachedTypeDeserializerMap.putIfAbsent(type, deserializer);
+            if (cached != null)
+                deserializer = cached;
         }
 
         return deserializer;